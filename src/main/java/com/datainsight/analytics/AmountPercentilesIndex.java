@@ -0,0 +1,354 @@
+package com.datainsight.analytics;
+
+import com.datainsight.dao.TransactionDAO;
+import com.datainsight.dao.TransactionEvents;
+import com.datainsight.dao.TransactionListener;
+import com.datainsight.model.Transaction;
+import com.datainsight.util.AppConfig;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transaction amounts summarised by one t-digest per month and category
+ * Percentiles of any month range are read by merging the digests of the range,
+ * so p50 / p90 / p99 never sort the amounts (a digest is about 2 KB at the default
+ * compression 200, whatever the number of transactions).
+ *
+ * Inserts are added as they are committed (TransactionEvents); purges drop whole
+ * months. Digests cannot forget a value, so single deletes, client deletions
+ * (their transactions go too) and purges ending inside a month mark the index
+ * dirty: it is rebuilt from the database every analytics.amountPercentiles.rebuildMinutes
+ * while dirty. A digest counts a value once per add, so inserts committed during a
+ * rebuild are replayed on the new index only when the bulk read did not include them.
+ *
+ * Reads do not merge under the lock the insert listeners take: estimate() works on
+ * an immutable copy of the digests published through a volatile field. When writes
+ * made it stale, the first reader republishes it, copying under the lock only the
+ * months changed since (all of them after a purge or rebuild).
+ */
+public final class AmountPercentilesIndex implements TransactionListener {
+
+    private static volatile AmountPercentilesIndex instance;
+
+    private final double compression = Math.max(10,
+        AppConfig.getInt("analytics.amountPercentiles.compression", 200));
+    private final TransactionDAO transactionDAO = new TransactionDAO();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "amount-percentiles");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Month -> category ("" for none) -> digest; guarded by this
+    private TreeMap<YearMonth, Map<String, TDigest>> months = new TreeMap<>();
+    private volatile boolean ready;
+    private boolean started;
+    private boolean dirty;
+    // Non-null while rebuilding: inserts to replay and the latest purge to re-apply
+    private List<Fact> pending;
+    private LocalDate pendingPurge;
+    // Bumped (under the lock) by every change to months
+    private volatile long version;
+    // What changed since the last publication: single months, or everything
+    private final Set<YearMonth> changedMonths = new HashSet<>();
+    private boolean replaced;
+    private volatile Snapshot published = new Snapshot(new TreeMap<>(), 0);
+
+    private AmountPercentilesIndex() {}
+
+    /**
+     * On by default: see analytics.amountPercentiles.enabled
+     */
+    public static boolean isEnabled() {
+        return AppConfig.getBoolean("analytics.amountPercentiles.enabled", true);
+    }
+
+    public static AmountPercentilesIndex getInstance() {
+        AmountPercentilesIndex index = instance;
+        if (index == null) {
+            synchronized (AmountPercentilesIndex.class) {
+                index = instance;
+                if (index == null) {
+                    instance = index = new AmountPercentilesIndex();
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Subscribe to DAO events, build now (in the background), rebuild when dirty
+     */
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        TransactionEvents.register(this);
+        long minutes = Math.max(1, AppConfig.getLong("analytics.amountPercentiles.rebuildMinutes", 60));
+        scheduler.execute(this::rebuild);
+        scheduler.scheduleWithFixedDelay(() -> {
+            boolean needed;
+            synchronized (this) {
+                needed = dirty;
+            }
+            if (needed) {
+                rebuild();
+            }
+        }, minutes, minutes, TimeUnit.MINUTES);
+    }
+
+    public void shutdown() {
+        TransactionEvents.unregister(this);
+        scheduler.shutdownNow();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Estimated amount percentiles between two months (null = unbounded), same rows
+     * as TransactionDAO.getAmountPercentiles - null until the first build is done
+     */
+    public List<Object[]> estimate(String categorie, YearMonth from, YearMonth to, double[] percentiles) {
+        if (!ready) {
+            return null;
+        }
+        Snapshot snapshot = published;
+        if (snapshot.version != version) {
+            snapshot = publish();
+        }
+        NavigableMap<YearMonth, Map<String, TDigest>> range = snapshot.months;
+        if (from != null) {
+            range = range.tailMap(from, true);
+        }
+        if (to != null) {
+            range = range.headMap(to, true);
+        }
+
+        // Sorted like the database rows (null category first)
+        Map<String, TDigest> merged = new TreeMap<>();
+        for (Map<String, TDigest> month : range.values()) {
+            for (Map.Entry<String, TDigest> category : month.entrySet()) {
+                if (categorie == null || category.getKey().equals(categorie)) {
+                    merged.computeIfAbsent(category.getKey(), key -> new TDigest(compression))
+                          .merge(category.getValue());
+                }
+            }
+        }
+        List<Object[]> rows = new ArrayList<>(merged.size());
+        merged.forEach((key, digest) -> {
+            double[] values = new double[percentiles.length];
+            for (int i = 0; i < percentiles.length; i++) {
+                values[i] = digest.quantile(percentiles[i] / 100);
+            }
+            rows.add(new Object[] { key.isEmpty() ? null : key, digest.size(), values });
+        });
+        return rows;
+    }
+
+    /**
+     * Copy the months changed since the last publication and publish the result
+     */
+    private synchronized Snapshot publish() {
+        Snapshot current = published;
+        if (current.version == version) {
+            return current; // another reader was first
+        }
+        TreeMap<YearMonth, Map<String, TDigest>> copy;
+        if (replaced) {
+            copy = new TreeMap<>();
+            months.forEach((month, digests) -> copy.put(month, copyOf(digests)));
+        } else {
+            copy = new TreeMap<>(current.months); // unchanged months are shared
+            for (YearMonth month : changedMonths) {
+                Map<String, TDigest> digests = months.get(month);
+                if (digests != null) {
+                    copy.put(month, copyOf(digests));
+                } else {
+                    copy.remove(month);
+                }
+            }
+        }
+        changedMonths.clear();
+        replaced = false;
+        published = new Snapshot(copy, version);
+        return published;
+    }
+
+    private static Map<String, TDigest> copyOf(Map<String, TDigest> digests) {
+        Map<String, TDigest> copy = new HashMap<>(digests.size() * 2);
+        digests.forEach((categorie, digest) -> copy.put(categorie, digest.copy()));
+        return copy;
+    }
+
+    /**
+     * State and size for monitoring
+     */
+    public synchronized Map<String, Object> getStatus() {
+        long digests = 0;
+        for (Map<String, TDigest> month : months.values()) {
+            digests += month.size();
+        }
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("ready", ready);
+        status.put("dirty", dirty);
+        status.put("rebuilding", pending != null);
+        status.put("months", months.size());
+        status.put("digests", digests);
+        status.put("compression", compression);
+        return status;
+    }
+
+    // ==================== TransactionListener ====================
+
+    @Override
+    public synchronized void onInserted(List<Transaction> transactions) {
+        for (Transaction t : transactions) {
+            Fact fact = new Fact(t.getId(), t.getDate(), t.getMontant(), t.getCategorie());
+            add(months, fact);
+            changedMonths.add(YearMonth.from(fact.date));
+            if (pending != null) {
+                pending.add(fact);
+            }
+        }
+        version++;
+    }
+
+    @Override
+    public synchronized void onDeletedBefore(LocalDate date) {
+        purge(months, date);
+        replaced = true;
+        version++;
+        if (date.getDayOfMonth() != 1) {
+            dirty = true; // the month of the date lost part of its rows
+        }
+        if (pending != null) {
+            pendingPurge = date;
+        }
+    }
+
+    @Override
+    public synchronized void onDeleted(Transaction transaction) {
+        dirty = true;
+    }
+
+    @Override
+    public synchronized void onClientsDeleted(Set<Long> clientIds) {
+        dirty = true;
+    }
+
+    @Override
+    public void onExternalChange() {
+        // Queued behind a rebuild already running: that one may predate the change
+        scheduler.execute(this::rebuild);
+    }
+
+    // ==================== Build ====================
+
+    /**
+     * Build a new index from every transaction, then swap it in
+     */
+    private void rebuild() {
+        synchronized (this) {
+            pending = new ArrayList<>();
+            pendingPurge = null;
+            dirty = false;
+        }
+        long start = System.currentTimeMillis();
+        TreeMap<YearMonth, Map<String, TDigest>> fresh = new TreeMap<>();
+        BitSet loaded = new BitSet();
+        try {
+            long rows = transactionDAO.streamFacts(row -> {
+                Fact fact = new Fact((Long) row[0], (LocalDate) row[1], (Double) row[2], (String) row[3]);
+                add(fresh, fact);
+                if (fact.id <= Integer.MAX_VALUE) {
+                    loaded.set((int) fact.id);
+                }
+            });
+            synchronized (this) {
+                for (Fact fact : pending) {
+                    if (fact.id > Integer.MAX_VALUE || !loaded.get((int) fact.id)) {
+                        add(fresh, fact);
+                    }
+                }
+                if (pendingPurge != null) {
+                    purge(fresh, pendingPurge);
+                }
+                months = fresh;
+                replaced = true;
+                version++;
+                ready = true;
+            }
+            System.out.println("✓ Amount percentiles index built: " + rows + " transactions, " + fresh.size() +
+                               " months in " + (System.currentTimeMillis() - start) + " ms");
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                dirty = true; // retry on the next run
+            }
+            System.err.println("✗ Amount percentiles index build failed: " + e.getMessage());
+        } finally {
+            synchronized (this) {
+                pending = null;
+                pendingPurge = null;
+            }
+        }
+    }
+
+    private void add(TreeMap<YearMonth, Map<String, TDigest>> target, Fact fact) {
+        if (fact.montant == null) {
+            return;
+        }
+        target.computeIfAbsent(YearMonth.from(fact.date), month -> new HashMap<>())
+              .computeIfAbsent(fact.categorie != null ? fact.categorie : "", key -> new TDigest(compression))
+              .add(fact.montant);
+    }
+
+    /**
+     * Drop the months that end before the date
+     */
+    private static void purge(TreeMap<YearMonth, Map<String, TDigest>> target, LocalDate date) {
+        target.headMap(YearMonth.from(date)).clear();
+    }
+
+    /**
+     * Published digests: never changed once built
+     */
+    private static final class Snapshot {
+        final TreeMap<YearMonth, Map<String, TDigest>> months;
+        final long version;
+
+        Snapshot(TreeMap<YearMonth, Map<String, TDigest>> months, long version) {
+            this.months = months;
+            this.version = version;
+        }
+    }
+
+    private static final class Fact {
+        final long id;
+        final LocalDate date;
+        final Double montant;
+        final String categorie;
+
+        Fact(long id, LocalDate date, Double montant, String categorie) {
+            this.id = id;
+            this.date = date;
+            this.montant = montant;
+            this.categorie = categorie;
+        }
+    }
+}
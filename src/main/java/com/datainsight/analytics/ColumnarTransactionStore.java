@@ -0,0 +1,868 @@
+package com.datainsight.analytics;
+
+import com.datainsight.cache.ClientCache;
+import com.datainsight.dao.TransactionDAO;
+import com.datainsight.dao.TransactionEvents;
+import com.datainsight.dao.TransactionListener;
+import com.datainsight.dto.ClientSummary;
+import com.datainsight.model.Transaction;
+import com.datainsight.util.AppConfig;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory columnar copy of the transactions table for the stats endpoints
+ * One primitive array per column (epoch day, amount, client) plus dictionary
+ * encoded category / country / payment mode (one byte each, at most 256 values),
+ * split in fixed-size chunks that are scanned in parallel on the common fork-join pool.
+ * Bulk-loaded in the background at startup, then kept in sync through TransactionEvents;
+ * reloaded from scratch when another process changed the data (onExternalChange).
+ * Memory: about 29 bytes per transaction.
+ *
+ * Concurrency: writers are serialized on the store monitor; a row is filled before
+ * the volatile size is raised, so scans only see complete rows. Deletes and country
+ * changes are applied in place and may be seen partially by a scan running at the
+ * same time (the answer is then that of a moment during the change). The rows they
+ * touch are found by a scan without the lock; only the matches (and rows appended
+ * meanwhile) are updated under it.
+ *
+ * Deleted rows are only flagged. Once they exceed analytics.columnar.compactPercent
+ * of the rows, a background thread copies the live rows into new chunks without the
+ * lock (changes committed meanwhile are applied to the old chunks and journaled),
+ * then swaps them in and replays the journal. Scans started before a swap or reload
+ * see the layout counter move and run again.
+ */
+public final class ColumnarTransactionStore implements TransactionListener {
+
+    private static final int CHUNK_SHIFT = 16;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int MAX_DICTIONARY_SIZE = 256;
+    // Wider date spans are answered by the database (day totals are dense arrays)
+    private static final int MAX_DAY_SPAN = 1 << 16;
+
+    private static volatile ColumnarTransactionStore instance;
+
+    private enum State { IDLE, LOADING, READY, DISABLED }
+
+    private volatile State state = State.IDLE;
+    private volatile Chunk[] chunks = new Chunk[0];
+    private volatile int size;
+    private volatile int minDay = Integer.MAX_VALUE;
+    private volatile int maxDay = Integer.MIN_VALUE;
+    // Rows [0, loadedSize) come from the bulk load and are sorted by id
+    private int loadedSize;
+    // Changes committed while the bulk load runs, applied once it is done
+    private List<Runnable> pending = new ArrayList<>();
+    // Seqlock over (chunks, size, day bounds): odd while they are being replaced
+    private volatile int layout;
+    private int deletedRows;
+    // Non-null while a compaction copies the rows: changes to replay on the copy
+    private List<Runnable> journal;
+    private long compactions;
+    private final int compactPercent = Math.max(1, AppConfig.getInt("analytics.columnar.compactPercent", 25));
+    // Set when the data changes under a running bulk load: load again once it is done
+    private boolean reloadAgain;
+
+    private volatile Dictionary categories = new Dictionary();
+    private volatile Dictionary countries = new Dictionary();
+    private volatile Dictionary modes = new Dictionary();
+
+    private ColumnarTransactionStore() {}
+
+    /**
+     * Off by default: see analytics.columnar.enabled
+     */
+    public static boolean isEnabled() {
+        return AppConfig.getBoolean("analytics.columnar.enabled", false);
+    }
+
+    public static ColumnarTransactionStore getInstance() {
+        ColumnarTransactionStore store = instance;
+        if (store == null) {
+            synchronized (ColumnarTransactionStore.class) {
+                store = instance;
+                if (store == null) {
+                    instance = store = new ColumnarTransactionStore();
+                }
+            }
+        }
+        return store;
+    }
+
+    /**
+     * Subscribe to DAO events and start the bulk load in a background thread
+     */
+    public synchronized void start() {
+        if (state != State.IDLE) {
+            return;
+        }
+        state = State.LOADING;
+        TransactionEvents.register(this);
+        startLoader();
+    }
+
+    private void startLoader() {
+        Thread loader = new Thread(this::load, "columnar-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * True once the bulk load is complete - until then callers use the database
+     */
+    public boolean isReady() {
+        return state == State.READY;
+    }
+
+    /**
+     * Load status for monitoring
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("state", state.name());
+        status.put("rows", size);
+        status.put("chunks", chunks.length);
+        status.put("deletedRows", deletedRows);
+        status.put("compactions", compactions);
+        status.put("categories", categories.size());
+        status.put("countries", countries.size());
+        return status;
+    }
+
+    // ==================== Aggregates (same rows as the TransactionDAO queries) ====================
+
+    /**
+     * Count, sum, min and max of all amounts - null when not ready
+     */
+    public Totals totals() {
+        if (!isReady()) {
+            return null;
+        }
+        return consistent(() -> scan(Totals::new, (chunk, rows, acc) -> {
+            for (int i = 0; i < rows; i++) {
+                if (chunk.deletedCount == 0 || !chunk.deleted[i]) {
+                    double amount = chunk.amounts[i];
+                    acc.count++;
+                    acc.sum += amount;
+                    acc.min = Math.min(acc.min, amount);
+                    acc.max = Math.max(acc.max, amount);
+                }
+            }
+        }, Totals::merge));
+    }
+
+    /**
+     * {pays, SUM(montant), AVG(montant), COUNT} ordered by revenue - null when not ready
+     */
+    public List<Object[]> getRevenueByCountry() {
+        if (!isReady()) {
+            return null;
+        }
+        return revenueBy(countries, groupTotals(true));
+    }
+
+    /**
+     * {categorie, SUM(montant), AVG(montant), COUNT} ordered by revenue - null when not ready
+     */
+    public List<Object[]> getRevenueByCategory() {
+        if (!isReady()) {
+            return null;
+        }
+        return revenueBy(categories, groupTotals(false));
+    }
+
+    /**
+     * {year, month, SUM(montant), COUNT} latest month first - null when not ready
+     */
+    public List<Object[]> getSalesByMonth() {
+        DayTotals days = dayTotals();
+        if (days == null) {
+            return null;
+        }
+        TreeMap<YearMonth, double[]> months = new TreeMap<>(Comparator.reverseOrder());
+        for (int d = 0; d < days.counts.length; d++) {
+            if (days.counts[d] > 0) {
+                YearMonth month = YearMonth.from(LocalDate.ofEpochDay(days.base + d));
+                double[] total = months.computeIfAbsent(month, m -> new double[2]);
+                total[0] += days.sums[d];
+                total[1] += days.counts[d];
+            }
+        }
+        List<Object[]> result = new ArrayList<>(months.size());
+        months.forEach((month, total) -> result.add(new Object[] {
+            month.getYear(), month.getMonthValue(), total[0], (long) total[1]
+        }));
+        return result;
+    }
+
+    /**
+     * {date, SUM(montant), COUNT} for the last N days, latest first - null when not ready
+     */
+    public List<Object[]> getSalesByDay(int lastDays) {
+        DayTotals days = dayTotals();
+        if (days == null) {
+            return null;
+        }
+        long since = LocalDate.now().minusDays(lastDays).toEpochDay();
+        List<Object[]> result = new ArrayList<>();
+        for (int d = days.counts.length - 1; d >= 0 && days.base + d >= since; d--) {
+            if (days.counts[d] > 0) {
+                result.add(new Object[] { LocalDate.ofEpochDay(days.base + d), days.sums[d], days.counts[d] });
+            }
+        }
+        return result;
+    }
+
+    private GroupTotals groupTotals(boolean byCountry) {
+        return consistent(() -> scan(GroupTotals::new, (chunk, rows, acc) -> {
+            byte[] codes = byCountry ? chunk.countries : chunk.categories;
+            for (int i = 0; i < rows; i++) {
+                if (chunk.deletedCount == 0 || !chunk.deleted[i]) {
+                    int code = codes[i] & 0xFF;
+                    acc.sums[code] += chunk.amounts[i];
+                    acc.counts[code]++;
+                }
+            }
+        }, GroupTotals::merge));
+    }
+
+    private DayTotals dayTotals() {
+        if (!isReady()) {
+            return null;
+        }
+        return consistent(this::scanDays);
+    }
+
+    private DayTotals scanDays() {
+        int rows = size; // read before the bounds: they cover every row below size
+        int base = minDay;
+        long span = (long) maxDay - base + 1;
+        if (rows == 0 || span > MAX_DAY_SPAN) {
+            return rows == 0 ? new DayTotals(0, 0) : null;
+        }
+        return scan(() -> new DayTotals(base, (int) span), (chunk, n, acc) -> {
+            for (int i = 0; i < n; i++) {
+                int d = chunk.days[i] - base;
+                // Out of range only in a scan that races a swap (then discarded)
+                if ((chunk.deletedCount == 0 || !chunk.deleted[i]) && d >= 0 && d < span) {
+                    acc.sums[d] += chunk.amounts[i];
+                    acc.counts[d]++;
+                }
+            }
+        }, DayTotals::merge, rows);
+    }
+
+    private static List<Object[]> revenueBy(Dictionary dictionary, GroupTotals totals) {
+        String[] values = dictionary.values;
+        List<Object[]> result = new ArrayList<>();
+        for (int code = 0; code < values.length; code++) {
+            if (totals.counts[code] > 0) {
+                double sum = totals.sums[code];
+                long count = totals.counts[code];
+                result.add(new Object[] { values[code], sum, sum / count, count });
+            }
+        }
+        result.sort((a, b) -> Double.compare((Double) b[1], (Double) a[1]));
+        return result;
+    }
+
+    /**
+     * Run a read until no swap (compaction, reload) happened during it
+     */
+    private <T> T consistent(Supplier<T> read) {
+        while (true) {
+            int seen = layout;
+            if ((seen & 1) != 0) {
+                Thread.onSpinWait(); // a swap is writing the fields
+                continue;
+            }
+            T result = read.get();
+            if (layout == seen) {
+                return result;
+            }
+        }
+    }
+
+    private <A> A scan(Supplier<A> init, ChunkScanner<A> scanner, BinaryOperator<A> merge) {
+        return scan(init, scanner, merge, size);
+    }
+
+    /**
+     * Fork-join scan of rows [0, rows): one accumulator per chunk, merged pairwise
+     */
+    private <A> A scan(Supplier<A> init, ChunkScanner<A> scanner, BinaryOperator<A> merge, int rows) {
+        Chunk[] snapshot = chunks; // read after size: holds every chunk below it
+        // ...unless a swap replaced it in between (the result is then discarded)
+        int chunkCount = Math.min((rows + CHUNK_MASK) >>> CHUNK_SHIFT, snapshot.length);
+        return IntStream.range(0, chunkCount).parallel()
+            .mapToObj(c -> {
+                A acc = init.get();
+                scanner.scan(snapshot[c], Math.min(CHUNK_SIZE, rows - (c << CHUNK_SHIFT)), acc);
+                return acc;
+            })
+            .reduce(merge)
+            .orElseGet(init);
+    }
+
+    // ==================== Loading ====================
+
+    private void load() {
+        long start = System.currentTimeMillis();
+        try {
+            long rows = new TransactionDAO().streamFacts(row -> append(
+                (Long) row[0], (LocalDate) row[1], (Double) row[2],
+                (String) row[3], (String) row[4], (Long) row[5], (String) row[6]));
+            synchronized (this) {
+                if (state != State.LOADING) {
+                    return; // disabled while loading
+                }
+                if (reloadAgain) {
+                    reloadAgain = false;
+                    reload();
+                    return;
+                }
+                loadedSize = size;
+                List<Runnable> queued = pending;
+                pending = null;
+                queued.forEach(Runnable::run);
+                if (state == State.LOADING) {
+                    state = State.READY;
+                }
+            }
+            System.out.println("✓ Columnar store loaded: " + rows + " transactions in " +
+                               (System.currentTimeMillis() - start) + " ms");
+        } catch (RuntimeException e) {
+            disable("bulk load failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Drop every row and bulk-load again - caller holds the store lock; stats come
+     * from the database until the new load is done
+     */
+    private void reload() {
+        state = State.LOADING;
+        swap(new Chunk[0], 0, Integer.MAX_VALUE, Integer.MIN_VALUE);
+        loadedSize = 0;
+        deletedRows = 0;
+        journal = null; // a running compaction drops its copy
+        pending = new ArrayList<>();
+        categories = new Dictionary();
+        countries = new Dictionary();
+        modes = new Dictionary();
+        startLoader();
+    }
+
+    /**
+     * Add one row - false (and the store disabled) when it cannot be represented
+     */
+    private synchronized boolean append(long id, LocalDate date, Double montant, String categorie,
+                                        String modePaiement, long clientId, String pays) {
+        if (state == State.DISABLED) {
+            return false;
+        }
+        int category = categories.encode(categorie);
+        int country = countries.encode(pays);
+        int mode = modes.encode(modePaiement);
+        if (category < 0 || country < 0 || mode < 0) {
+            disable("more than " + MAX_DICTIONARY_SIZE + " distinct categories, countries or payment modes");
+            return false;
+        }
+        if (clientId > Integer.MAX_VALUE) {
+            disable("client id " + clientId + " does not fit the client column");
+            return false;
+        }
+
+        int index = size;
+        if (index == Integer.MAX_VALUE) {
+            disable("row limit reached");
+            return false;
+        }
+        int c = index >>> CHUNK_SHIFT;
+        Chunk[] current = chunks;
+        if (c == current.length) {
+            current = Arrays.copyOf(current, c + 1);
+            current[c] = new Chunk();
+            chunks = current;
+        }
+        Chunk chunk = current[c];
+        int i = index & CHUNK_MASK;
+        int day = (int) date.toEpochDay();
+        chunk.ids[i] = id;
+        chunk.days[i] = day;
+        chunk.amounts[i] = montant != null ? montant : 0.0;
+        chunk.categories[i] = (byte) category;
+        chunk.countries[i] = (byte) country;
+        chunk.modes[i] = (byte) mode;
+        chunk.clients[i] = (int) clientId;
+        if (day < minDay) {
+            minDay = day;
+        }
+        if (day > maxDay) {
+            maxDay = day;
+        }
+        size = index + 1; // publishes the row
+        return true;
+    }
+
+    private synchronized void disable(String reason) {
+        if (state == State.DISABLED) {
+            return;
+        }
+        state = State.DISABLED;
+        TransactionEvents.unregister(this);
+        swap(new Chunk[0], 0, Integer.MAX_VALUE, Integer.MIN_VALUE);
+        pending = null;
+        journal = null;
+        System.err.println("✗ Columnar store disabled, stats come from the database: " + reason);
+    }
+
+    /**
+     * Run a change now, or after the bulk load when it is still running
+     */
+    private synchronized void apply(Runnable change) {
+        if (state == State.LOADING) {
+            pending.add(change);
+        } else if (state == State.READY) {
+            change.run();
+            if (journal != null) {
+                journal.add(change);
+            } else if (deletedRows >= CHUNK_SIZE && deletedRows > (long) size * compactPercent / 100) {
+                startCompaction();
+            }
+        }
+    }
+
+    /**
+     * Run a change on the rows matching a predicate: they are looked up without the
+     * lock, then the change runs under it on those and on the rows appended since.
+     * While loading, or when a swap happened in between, the lookup is redone under
+     * the lock.
+     */
+    private void applyToMatching(RowMatcher matcher, RowsChange change) {
+        int seen = layout;
+        int scanned = size;
+        int[] found = state == State.READY && (seen & 1) == 0 ? find(matcher, chunks, 0, scanned) : null;
+        apply(() -> {
+            int[] rows = found != null && layout == seen
+                ? concat(found, find(matcher, chunks, scanned, size))
+                : find(matcher, chunks, 0, size);
+            change.apply(rows);
+        });
+    }
+
+    /**
+     * Indexes in [from, to) whose row matches
+     */
+    private static int[] find(RowMatcher matcher, Chunk[] source, int from, int to) {
+        int limit = Math.min(to, source.length << CHUNK_SHIFT);
+        return IntStream.range(from, Math.max(from, limit))
+            .filter(index -> matcher.matches(source[index >>> CHUNK_SHIFT], index & CHUNK_MASK))
+            .toArray();
+    }
+
+    private static int[] concat(int[] first, int[] second) {
+        if (second.length == 0) {
+            return first;
+        }
+        int[] all = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, all, first.length, second.length);
+        return all;
+    }
+
+    /**
+     * Replace rows and bounds as one step for consistent() readers - caller holds the store lock
+     */
+    private void swap(Chunk[] newChunks, int newSize, int newMinDay, int newMaxDay) {
+        layout++; // odd: readers wait
+        size = newSize;
+        chunks = newChunks;
+        minDay = newMinDay;
+        maxDay = newMaxDay;
+        layout++;
+    }
+
+    // ==================== Compaction ====================
+
+    /**
+     * Caller holds the store lock: the rows to copy and the journal are taken together,
+     * so a change is either below the copied size or journaled, never both
+     */
+    private void startCompaction() {
+        int rows = size;
+        int loaded = loadedSize;
+        Chunk[] source = chunks;
+        List<Runnable> changes = new ArrayList<>();
+        journal = changes;
+        Thread compactor = new Thread(() -> compact(rows, loaded, source, changes), "columnar-compactor");
+        compactor.setDaemon(true);
+        compactor.start();
+    }
+
+    /**
+     * Copy the rows not deleted into new chunks (without the lock), swap them in and
+     * replay what was committed during the copy. Needs the memory of the live rows twice
+     * while it runs.
+     */
+    private void compact(int rows, int loaded, Chunk[] source, List<Runnable> changes) {
+        long start = System.currentTimeMillis();
+        List<Chunk> copy = new ArrayList<>();
+        int copied = 0;
+        int copiedLoaded = 0;
+        int newMinDay = Integer.MAX_VALUE;
+        int newMaxDay = Integer.MIN_VALUE;
+        for (int index = 0; index < rows; index++) {
+            Chunk from = source[index >>> CHUNK_SHIFT];
+            int i = index & CHUNK_MASK;
+            if (from.deletedCount > 0 && from.deleted[i]) {
+                continue;
+            }
+            if ((copied & CHUNK_MASK) == 0) {
+                copy.add(new Chunk());
+            }
+            Chunk to = copy.get(copied >>> CHUNK_SHIFT);
+            int j = copied & CHUNK_MASK;
+            to.ids[j] = from.ids[i];
+            to.days[j] = from.days[i];
+            to.amounts[j] = from.amounts[i];
+            to.categories[j] = from.categories[i];
+            to.countries[j] = from.countries[i];
+            to.modes[j] = from.modes[i];
+            to.clients[j] = from.clients[i];
+            newMinDay = Math.min(newMinDay, from.days[i]);
+            newMaxDay = Math.max(newMaxDay, from.days[i]);
+            copied++;
+            if (index < loaded) {
+                copiedLoaded = copied; // still sorted by id
+            }
+        }
+
+        synchronized (this) {
+            if (state != State.READY || journal != changes) {
+                return; // reloaded or disabled meanwhile
+            }
+            journal = null;
+            int removed = rows - copied;
+            swap(copy.toArray(new Chunk[0]), copied, newMinDay, newMaxDay);
+            loadedSize = copiedLoaded;
+            deletedRows = 0;
+            // Rows appended meanwhile, deletes and country changes: applied again on the copy
+            changes.forEach(Runnable::run);
+            compactions++;
+            System.out.println("✓ Columnar store compacted: " + removed + " deleted rows dropped in " +
+                               (System.currentTimeMillis() - start) + " ms");
+        }
+    }
+
+    // ==================== TransactionListener ====================
+
+    @Override
+    public void onInserted(List<Transaction> transactions) {
+        // Resolve countries before taking the store lock (may hit the database)
+        Set<Long> clientIds = new HashSet<>();
+        for (Transaction t : transactions) {
+            clientIds.add(t.getClient().getId());
+        }
+        Map<Long, ClientSummary> clients = ClientCache.getInstance().getAll(clientIds);
+
+        apply(() -> {
+            for (Transaction t : transactions) {
+                ClientSummary client = clients.get(t.getClient().getId());
+                // Rows already in the bulk load, or whose client is gone, are skipped
+                if (client != null && findLoaded(t.getId()) < 0) {
+                    append(t.getId(), t.getDate(), t.getMontant(), t.getCategorie(),
+                           t.getModePaiement(), client.getId(), client.getPays());
+                }
+            }
+        });
+    }
+
+    @Override
+    public void onDeleted(Transaction transaction) {
+        long transactionId = transaction.getId();
+        apply(() -> {
+            int index = findLoaded(transactionId);
+            if (index < 0) {
+                // Appended after the load: not sorted, search from the newest
+                for (int i = size - 1; i >= loadedSize; i--) {
+                    if (chunkOf(i).ids[i & CHUNK_MASK] == transactionId) {
+                        index = i;
+                        break;
+                    }
+                }
+            }
+            if (index >= 0) {
+                markDeleted(index);
+            }
+        });
+    }
+
+    @Override
+    public void onDeletedBefore(LocalDate date) {
+        int day = (int) date.toEpochDay();
+        applyToMatching((chunk, i) -> chunk.days[i] < day, this::markDeleted);
+    }
+
+    @Override
+    public void onClientsDeleted(Set<Long> clientIds) {
+        // One pass for the whole delete: sorted ids, binary-searched per row
+        int[] sorted = clientIds.stream()
+            .filter(id -> id <= Integer.MAX_VALUE)
+            .mapToInt(Long::intValue)
+            .sorted()
+            .toArray();
+        if (sorted.length == 0) {
+            return;
+        }
+        applyToMatching((chunk, i) -> Arrays.binarySearch(sorted, chunk.clients[i]) >= 0, this::markDeleted);
+    }
+
+    @Override
+    public void onClientCountryChanged(Long clientId, String pays) {
+        applyToMatching((chunk, i) -> chunk.clients[i] == clientId, rows -> {
+            int country = countries.encode(pays);
+            if (country < 0) {
+                disable("more than " + MAX_DICTIONARY_SIZE + " distinct countries");
+                return;
+            }
+            for (int index : rows) {
+                chunkOf(index).countries[index & CHUNK_MASK] = (byte) country;
+            }
+        });
+    }
+
+    @Override
+    public synchronized void onExternalChange() {
+        if (state == State.LOADING) {
+            reloadAgain = true; // the running load may have read the rows before the change
+        } else if (state == State.READY) {
+            reload();
+        }
+    }
+
+    private Chunk chunkOf(int index) {
+        return chunks[index >>> CHUNK_SHIFT];
+    }
+
+    private void markDeleted(int index) {
+        Chunk chunk = chunkOf(index);
+        int i = index & CHUNK_MASK;
+        if (!chunk.deleted[i]) {
+            chunk.deleted[i] = true;
+            chunk.deletedCount++;
+            deletedRows++;
+        }
+    }
+
+    private void markDeleted(int[] rows) {
+        for (int index : rows) {
+            markDeleted(index);
+        }
+    }
+
+    /**
+     * Binary search of the bulk-loaded (id-ordered) rows, -1 if absent
+     */
+    private int findLoaded(long id) {
+        int low = 0;
+        int high = loadedSize - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = chunkOf(mid).ids[mid & CHUNK_MASK];
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    // ==================== Storage ====================
+
+    /**
+     * One slice of every column
+     */
+    private static final class Chunk {
+        final long[] ids = new long[CHUNK_SIZE];
+        final int[] days = new int[CHUNK_SIZE];
+        final double[] amounts = new double[CHUNK_SIZE];
+        final byte[] categories = new byte[CHUNK_SIZE];
+        final byte[] countries = new byte[CHUNK_SIZE];
+        final byte[] modes = new byte[CHUNK_SIZE];
+        final int[] clients = new int[CHUNK_SIZE];
+        final boolean[] deleted = new boolean[CHUNK_SIZE];
+        int deletedCount; // lets scans skip the deleted check on untouched chunks
+    }
+
+    /**
+     * String <-> code mapping of one column; values is replaced (never mutated) when it grows
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        volatile String[] values = new String[0];
+
+        /**
+         * Code of the value (null allowed), -1 when the dictionary is full - caller holds the store lock
+         */
+        int encode(String value) {
+            Integer code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            String[] current = values;
+            if (current.length == MAX_DICTIONARY_SIZE) {
+                return -1;
+            }
+            String[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = value;
+            values = grown;
+            codes.put(value, current.length);
+            return current.length;
+        }
+
+        int size() {
+            return values.length;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChunkScanner<A> {
+        void scan(Chunk chunk, int rows, A acc);
+    }
+
+    @FunctionalInterface
+    private interface RowMatcher {
+        boolean matches(Chunk chunk, int i);
+    }
+
+    @FunctionalInterface
+    private interface RowsChange {
+        void apply(int[] rows);
+    }
+
+    /**
+     * Count, sum, min and max of amounts
+     */
+    public static final class Totals {
+        private long count;
+        private double sum;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getSum() {
+            return sum;
+        }
+
+        public double getAverage() {
+            return count > 0 ? sum / count : 0.0;
+        }
+
+        public double getMin() {
+            return count > 0 ? min : 0.0;
+        }
+
+        public double getMax() {
+            return count > 0 ? max : 0.0;
+        }
+
+        private Totals merge(Totals other) {
+            count += other.count;
+            sum += other.sum;
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+            return this;
+        }
+    }
+
+    private static final class GroupTotals {
+        final double[] sums = new double[MAX_DICTIONARY_SIZE];
+        final long[] counts = new long[MAX_DICTIONARY_SIZE];
+
+        GroupTotals merge(GroupTotals other) {
+            for (int i = 0; i < MAX_DICTIONARY_SIZE; i++) {
+                sums[i] += other.sums[i];
+                counts[i] += other.counts[i];
+            }
+            return this;
+        }
+    }
+
+    private static final class DayTotals {
+        final int base;
+        final double[] sums;
+        final long[] counts;
+
+        DayTotals(int base, int span) {
+            this.base = base;
+            this.sums = new double[span];
+            this.counts = new long[span];
+        }
+
+        DayTotals merge(DayTotals other) {
+            for (int i = 0; i < counts.length; i++) {
+                sums[i] += other.sums[i];
+                counts[i] += other.counts[i];
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Standalone benchmark (no database): synthetic rows, then each aggregate timed
+     * Usage: ColumnarTransactionStore [rows]
+     */
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        String[] categorieValues = { "Electronique", "Vetements", "Alimentation", "Maison", "Sport", "Loisirs" };
+        String[] paysValues = { "France", "Maroc", "Belgique", "Suisse", "Canada", "Senegal", "Tunisie" };
+        String[] modeValues = { "carte", "especes", "virement", "paypal" };
+
+        ColumnarTransactionStore store = new ColumnarTransactionStore();
+        java.util.Random random = new java.util.Random(42);
+        LocalDate first = LocalDate.now().minusYears(3);
+        long start = System.nanoTime();
+        for (int i = 0; i < rows; i++) {
+            store.append(i + 1, first.plusDays(random.nextInt(3 * 365)), random.nextDouble() * 1000,
+                categorieValues[random.nextInt(categorieValues.length)], modeValues[random.nextInt(modeValues.length)],
+                1 + random.nextInt(100_000), paysValues[random.nextInt(paysValues.length)]);
+        }
+        store.loadedSize = store.size;
+        store.state = State.READY;
+        System.out.println("Loaded " + rows + " rows in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+
+        for (int round = 1; round <= 5; round++) {
+            System.out.println("Round " + round + ":");
+            time("  totals", store::totals);
+            time("  revenue-by-country", store::getRevenueByCountry);
+            time("  revenue-by-category", store::getRevenueByCategory);
+            time("  sales-by-month", store::getSalesByMonth);
+            time("  sales-by-day", () -> store.getSalesByDay(30));
+        }
+    }
+
+    private static void time(String label, Supplier<?> query) {
+        long start = System.nanoTime();
+        query.get();
+        System.out.printf("%-24s %8.2f ms%n", label, (System.nanoTime() - start) / 1e6);
+    }
+}
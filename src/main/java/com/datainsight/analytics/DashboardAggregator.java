@@ -0,0 +1,183 @@
+package com.datainsight.analytics;
+
+import com.datainsight.cache.StatsCache;
+import com.datainsight.util.AppConfig;
+import com.datainsight.util.JpaUtil;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Runs the independent dashboard queries concurrently on a bounded pool
+ * Every query has the same deadline (dashboard.queryTimeoutMs from the start):
+ * the page waits for the slowest query that makes it, and a query that is late,
+ * fails or cannot be scheduled is reported as unavailable instead of failing the page.
+ * The remaining time is also the JDBC timeout of each SQL statement
+ * (JpaUtil.withDeadline), so a late query is cancelled by the database instead of
+ * holding its connection after the page gave up on it.
+ * Each query holds its own connection while it runs (pool threads are outside the
+ * request's read-only unit of work, see RequestScopeFilter), so dashboard.threads must
+ * stay well below hibernate.hikari.maximumPoolSize. It also reads its own snapshot:
+ * MySQL cannot share one between connections, so the sections of a page may reflect
+ * slightly different moments (and cached ones older data). Result.getDataVersion is
+ * the oldest of them (the version /api/stats/dashboard builds its ETag from).
+ */
+public class DashboardAggregator {
+
+    public static final String OVERVIEW = "overview";
+    public static final String REVENUE_BY_COUNTRY = "revenueByCountry";
+    public static final String REVENUE_BY_CATEGORY = "revenueByCategory";
+    public static final String TOP_CLIENTS = "topClients";
+    public static final String SALES_BY_MONTH = "salesByMonth";
+    public static final String SALES_BY_DAY = "salesByDay";
+    public static final String CLIENTS_BY_COUNTRY = "clientsByCountry";
+    public static final String CLIENTS_BY_PROFESSION = "clientsByProfession";
+
+    private static final int TOP_CLIENTS_LIMIT = 10;
+    private static final int SALES_DAYS = 30;
+
+    private static final ThreadPoolExecutor executor = createExecutor();
+
+    private final StatsService statsService = new StatsService();
+    private final long timeoutMs = AppConfig.getLong("dashboard.queryTimeoutMs", 2000);
+
+    private static ThreadPoolExecutor createExecutor() {
+        int threads = Math.max(1, AppConfig.getInt("dashboard.threads", 6));
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(threads * 16), task -> {
+                Thread thread = new Thread(task, "dashboard-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Stop the pool (application shutdown)
+     */
+    public static void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Run every dashboard query and collect what is ready by the deadline
+     */
+    public Result load() {
+        Map<String, Callable<Object>> queries = new LinkedHashMap<>();
+        queries.put(OVERVIEW, statsService::getOverview);
+        queries.put(REVENUE_BY_COUNTRY, statsService::getRevenueByCountry);
+        queries.put(REVENUE_BY_CATEGORY, statsService::getRevenueByCategory);
+        queries.put(TOP_CLIENTS, () -> statsService.getTopClients(TOP_CLIENTS_LIMIT));
+        queries.put(SALES_BY_MONTH, statsService::getSalesByMonth);
+        queries.put(SALES_BY_DAY, () -> statsService.getSalesByDay(SALES_DAYS));
+        queries.put(CLIENTS_BY_COUNTRY, statsService::getClientsByCountry);
+        queries.put(CLIENTS_BY_PROFESSION, statsService::getClientsByProfession);
+
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+
+        Map<String, Future<Object>> futures = new LinkedHashMap<>();
+        Map<String, Object> sections = new LinkedHashMap<>();
+        Map<String, String> unavailable = new LinkedHashMap<>();
+        // Oldest data version among the sections (they may come from the stats cache)
+        LongAccumulator dataVersion = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        for (Map.Entry<String, Callable<Object>> query : queries.entrySet()) {
+            Callable<Object> section = query.getValue();
+            try {
+                futures.put(query.getKey(), executor.submit(() -> JpaUtil.withDeadline(deadline, () -> {
+                    StatsCache.resetServedVersion();
+                    Object value = section.call();
+                    dataVersion.accumulate(StatsCache.servedVersion());
+                    return value;
+                })));
+            } catch (RejectedExecutionException e) {
+                unavailable.put(query.getKey(), "rejected");
+            }
+        }
+
+        for (Map.Entry<String, Future<Object>> entry : futures.entrySet()) {
+            Future<Object> future = entry.getValue();
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                sections.put(entry.getKey(), future.get(remaining, TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                unavailable.put(entry.getKey(), "timeout");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                if (JpaUtil.isQueryTimeout(cause)) {
+                    unavailable.put(entry.getKey(), "timeout");
+                    continue;
+                }
+                System.err.println("✗ Dashboard query " + entry.getKey() + " failed: " + cause.getMessage());
+                unavailable.put(entry.getKey(), "error");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                unavailable.put(entry.getKey(), "interrupted");
+            }
+        }
+
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return new Result(sections, unavailable, dataVersion.get(), durationMs);
+    }
+
+    /**
+     * Sections that completed in time, plus the names (and reason) of those that did not
+     */
+    public static final class Result {
+        private final Map<String, Object> sections;
+        private final Map<String, String> unavailable;
+        private final long dataVersion;
+        private final long durationMs;
+
+        Result(Map<String, Object> sections, Map<String, String> unavailable, long dataVersion, long durationMs) {
+            this.sections = Collections.unmodifiableMap(sections);
+            this.unavailable = Collections.unmodifiableMap(unavailable);
+            this.dataVersion = dataVersion;
+            this.durationMs = durationMs;
+        }
+
+        /**
+         * Section value, null when unavailable
+         */
+        @SuppressWarnings("unchecked")
+        public <T> T get(String section) {
+            return (T) sections.get(section);
+        }
+
+        public boolean isComplete() {
+            return unavailable.isEmpty();
+        }
+
+        /**
+         * Section name -> reason (timeout, error, rejected, interrupted)
+         */
+        public Map<String, String> getUnavailable() {
+            return unavailable;
+        }
+
+        /**
+         * Oldest DataVersion the sections were computed from (Long.MAX_VALUE if unknown)
+         */
+        public long getDataVersion() {
+            return dataVersion;
+        }
+
+        public long getDurationMs() {
+            return durationMs;
+        }
+    }
+}
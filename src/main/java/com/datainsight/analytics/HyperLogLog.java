@@ -0,0 +1,166 @@
+package com.datainsight.analytics;
+
+import java.util.Arrays;
+
+/**
+ * HyperLogLog distinct-count sketch of 64-bit values
+ * 2^precision one-byte registers (fixed size whatever the number of values),
+ * relative standard error 1.04 / sqrt(2^precision). Sketches of the same
+ * precision merge losslessly (register-wise max), so per-day sketches can
+ * answer any date range or rollup. Adding a value twice changes nothing.
+ * Not thread-safe for concurrent writers; a reader racing a writer sees
+ * each register either before or after the update.
+ */
+public final class HyperLogLog {
+
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 16;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("HyperLogLog precision must be between " +
+                                               MIN_PRECISION + " and " + MAX_PRECISION);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Relative standard error of an estimate at the given precision
+     */
+    public static double relativeError(int precision) {
+        return 1.04 / Math.sqrt(1 << precision);
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public void add(long value) {
+        long hash = mix(value);
+        int index = (int) (hash >>> (64 - precision));
+        // Position of the first 1-bit in the remaining bits (guard bit caps it at 64 - precision + 1)
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    /**
+     * Fold another sketch of the same precision into this one
+     */
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge HyperLogLog sketches of different precision");
+        }
+        byte[] theirs = other.registers;
+        for (int i = 0; i < registers.length; i++) {
+            if (theirs[i] > registers[i]) {
+                registers[i] = theirs[i];
+            }
+        }
+    }
+
+    /**
+     * Estimated number of distinct values added
+     */
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += Double.longBitsToDouble((1023L - register) << 52); // 2^-register
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros); // small range: linear counting
+        }
+        return Math.round(estimate);
+    }
+
+    public HyperLogLog copy() {
+        HyperLogLog copy = new HyperLogLog(precision);
+        System.arraycopy(registers, 0, copy.registers, 0, registers.length);
+        return copy;
+    }
+
+    public boolean isEmpty() {
+        for (byte register : registers) {
+            if (register != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static double alpha(int m) {
+        switch (m) {
+            case 16: return 0.673;
+            case 32: return 0.697;
+            case 64: return 0.709;
+            default: return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+
+    /**
+     * 64-bit finalizer (MurmurHash3 fmix64): sequential ids become uniform hashes
+     */
+    private static long mix(long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93e63b9bc3bL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Standalone test: estimates against exact counts, and merge of overlapping sketches
+     */
+    public static void main(String[] args) {
+        int[] sizes = { 10, 1_000, 100_000, 1_000_000, 10_000_000 };
+        for (int precision : new int[] { 10, 12, 14 }) {
+            System.out.printf("precision %d (%d bytes, expected error %.2f%%)%n",
+                precision, 1 << precision, relativeError(precision) * 100);
+            for (int n : sizes) {
+                HyperLogLog sketch = new HyperLogLog(precision);
+                for (long i = 1; i <= n; i++) {
+                    sketch.add(i);
+                }
+                long estimate = sketch.estimate();
+                System.out.printf("  %,12d distinct -> %,12d (%+.2f%%)%n",
+                    n, estimate, (estimate - n) * 100.0 / n);
+            }
+        }
+
+        // Two halves overlapping by 50%: the union has 1.5M distinct values
+        HyperLogLog a = new HyperLogLog(12);
+        HyperLogLog b = new HyperLogLog(12);
+        for (long i = 0; i < 1_000_000; i++) {
+            a.add(i);
+            b.add(i + 500_000);
+        }
+        HyperLogLog union = a.copy();
+        union.merge(b);
+        System.out.printf("merge: 1,500,000 distinct -> %,d (%+.2f%%)%n",
+            union.estimate(), (union.estimate() - 1_500_000) * 100.0 / 1_500_000);
+        System.out.println("empty: " + new HyperLogLog(12).estimate() +
+                           ", registers unchanged by duplicates: " +
+                           Arrays.equals(a.registers, copyWithDuplicates(a).registers));
+    }
+
+    private static HyperLogLog copyWithDuplicates(HyperLogLog sketch) {
+        HyperLogLog copy = sketch.copy();
+        for (long i = 0; i < 1000; i++) {
+            copy.add(i);
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,142 @@
+package com.datainsight.analytics;
+
+import com.datainsight.cache.StatsCache;
+import com.datainsight.dao.ClientDAO;
+import com.datainsight.dao.TransactionDAO;
+import com.datainsight.dto.AmountPercentilesStats;
+import com.datainsight.dto.OverviewStats;
+import com.datainsight.dto.UniqueClientsStats;
+import com.datainsight.util.AppConfig;
+import com.datainsight.util.JpaUtil;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statistics for the stats pages and /api/stats
+ * Results go through StatsCache (recomputed only after a write). Transaction
+ * aggregates come from the in-memory ColumnarTransactionStore once it is loaded,
+ * from TransactionDAO otherwise (store disabled, still loading, or out of range).
+ * Top clients come from the TopClientsLeaderboard when it is enabled and seeded.
+ * Unique clients are estimated by the UniqueClientsIndex when it is enabled and
+ * built, counted exactly by the database otherwise - within stats.exactQueryTimeoutMs,
+ * after which the statement is cancelled (JpaUtil.isQueryTimeout); amount percentiles
+ * likewise come from the AmountPercentilesIndex or from the database, under the same limit.
+ * Client demographics always come from the database.
+ * Returned lists are shared between callers and must not be modified.
+ */
+public class StatsService {
+
+    private final TransactionDAO transactionDAO = new TransactionDAO();
+    private final ClientDAO clientDAO = new ClientDAO();
+    private final ColumnarTransactionStore store = ColumnarTransactionStore.getInstance();
+    private final TopClientsLeaderboard leaderboard = TopClientsLeaderboard.getInstance();
+    private final UniqueClientsIndex uniqueClients = UniqueClientsIndex.getInstance();
+    private final AmountPercentilesIndex amountPercentiles = AmountPercentilesIndex.getInstance();
+    private final StatsCache cache = StatsCache.getInstance();
+    private final long exactTimeoutMs = Math.max(1, AppConfig.getLong("stats.exactQueryTimeoutMs", 5000));
+
+    public OverviewStats getOverview() {
+        return cache.get("overview", () -> {
+            ColumnarTransactionStore.Totals totals = store.totals();
+            if (totals == null) {
+                return transactionDAO.getOverview();
+            }
+            return new OverviewStats(clientDAO.count(), totals.getCount(), totals.getSum(),
+                                     totals.getAverage(), totals.getMin(), totals.getMax());
+        });
+    }
+
+    public List<Object[]> getRevenueByCountry() {
+        return cache.get("revenue-by-country", () -> {
+            List<Object[]> rows = store.getRevenueByCountry();
+            return rows != null ? rows : transactionDAO.getRevenueByCountry();
+        });
+    }
+
+    public List<Object[]> getRevenueByCategory() {
+        return cache.get("revenue-by-category", () -> {
+            List<Object[]> rows = store.getRevenueByCategory();
+            return rows != null ? rows : transactionDAO.getRevenueByCategory();
+        });
+    }
+
+    public List<Object[]> getSalesByMonth() {
+        return cache.get("sales-by-month", () -> {
+            List<Object[]> rows = store.getSalesByMonth();
+            return rows != null ? rows : transactionDAO.getSalesByMonth();
+        });
+    }
+
+    public List<Object[]> getSalesByDay(int days) {
+        // "Last N days" moves at midnight: the date is part of the key
+        return cache.get("sales-by-day:" + days + ":" + LocalDate.now(), () -> {
+            List<Object[]> rows = store.getSalesByDay(days);
+            return rows != null ? rows : transactionDAO.getSalesByDay(days);
+        });
+    }
+
+    public List<Object[]> getTopClients(int limit) {
+        return cache.get("top-clients:" + limit, () -> {
+            List<Object[]> rows = leaderboard.top(limit);
+            return rows != null ? rows : transactionDAO.getTopClients(limit);
+        });
+    }
+
+    /**
+     * Distinct paying clients between two dates - groupBy null, "pays", "categorie" or "day"
+     */
+    public UniqueClientsStats getUniqueClients(String groupBy, LocalDate from, LocalDate to) {
+        return cache.get("unique-clients:" + groupBy + ":" + from + ":" + to, () -> {
+            List<Object[]> rows = uniqueClients.estimate(groupBy, from, to);
+            if (rows != null) {
+                return new UniqueClientsStats(groupBy, from, to, true, uniqueClients.getRelativeError(), rows);
+            }
+            return new UniqueClientsStats(groupBy, from, to, false, null,
+                                          exact(() -> transactionDAO.countUniqueClients(groupBy, from, to)));
+        });
+    }
+
+    /**
+     * Amount percentiles (0-100] per category between two months (null = unbounded),
+     * for one category or all of them (categorie null)
+     */
+    public AmountPercentilesStats getAmountPercentiles(String categorie, YearMonth from, YearMonth to,
+                                                       double[] percentiles) {
+        String key = "amount-percentiles:" + categorie + ":" + from + ":" + to + ":" + Arrays.toString(percentiles);
+        return cache.get(key, () -> {
+            List<Object[]> rows = amountPercentiles.estimate(categorie, from, to, percentiles);
+            if (rows != null) {
+                return new AmountPercentilesStats(categorie, from, to, percentiles, true, rows);
+            }
+            return new AmountPercentilesStats(categorie, from, to, percentiles, false,
+                exact(() -> transactionDAO.getAmountPercentiles(categorie, from != null ? from.atDay(1) : null,
+                                                                to != null ? to.atEndOfMonth() : null, percentiles)));
+        });
+    }
+
+    /**
+     * Exact database computation standing in for an in-memory index (off or still
+     * building): its statements are cancelled once stats.exactQueryTimeoutMs is spent
+     */
+    private <T> T exact(Callable<T> reads) {
+        try {
+            return JpaUtil.withDeadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(exactTimeoutMs), reads);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to compute exact statistics", e);
+        }
+    }
+
+    public List<Object[]> getClientsByCountry() {
+        return cache.get("clients-by-country", clientDAO::countByCountry);
+    }
+
+    public List<Object[]> getClientsByProfession() {
+        return cache.get("clients-by-profession", clientDAO::countByProfession);
+    }
+}
@@ -0,0 +1,264 @@
+package com.datainsight.analytics;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * t-digest quantile sketch (merging variant, Dunning &amp; Ertl)
+ * Values are summarised by about compression / 2 centroids (mean, weight), small
+ * near the tails and large in the middle, so extreme quantiles (p99, p99.9) stay
+ * accurate in rank. Digests merge by combining their centroids, so per-month digests
+ * can answer any range. Additions are buffered and folded in when the buffer fills
+ * or a quantile is asked; the buffer is released then (idle digests stay small).
+ * Not thread-safe.
+ */
+public final class TDigest {
+
+    private final double compression;
+
+    // Merged centroids, sorted by mean
+    private double[] means = new double[0];
+    private double[] weights = new double[0];
+    private int centroids;
+
+    // Unmerged additions (null when empty)
+    private double[] bufferMeans;
+    private double[] bufferWeights;
+    private int buffered;
+
+    private double totalWeight;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public TDigest(double compression) {
+        if (compression < 10) {
+            throw new IllegalArgumentException("t-digest compression must be at least 10");
+        }
+        this.compression = compression;
+    }
+
+    public double getCompression() {
+        return compression;
+    }
+
+    public void add(double value) {
+        add(value, 1);
+    }
+
+    private void add(double mean, double weight) {
+        if (Double.isNaN(mean)) {
+            return;
+        }
+        if (bufferMeans != null && buffered == bufferMeans.length) {
+            compress();
+        }
+        if (bufferMeans == null) {
+            int capacity = (int) Math.ceil(2 * compression);
+            bufferMeans = new double[capacity];
+            bufferWeights = new double[capacity];
+        }
+        bufferMeans[buffered] = mean;
+        bufferWeights[buffered] = weight;
+        buffered++;
+        totalWeight += weight;
+        min = Math.min(min, mean);
+        max = Math.max(max, mean);
+    }
+
+    /**
+     * Fold another digest into this one (the other one is compressed, not changed otherwise)
+     */
+    public void merge(TDigest other) {
+        other.compress();
+        double otherMin = other.min;
+        double otherMax = other.max;
+        for (int i = 0; i < other.centroids; i++) {
+            add(other.means[i], other.weights[i]);
+        }
+        // Centroid means lie inside the other range: keep its true extremes
+        if (other.centroids > 0) {
+            min = Math.min(min, otherMin);
+            max = Math.max(max, otherMax);
+        }
+    }
+
+    /**
+     * Compressed copy, independent of this digest; it can be read (size, quantile,
+     * merged into another digest) by several threads as long as nobody adds to it
+     */
+    public TDigest copy() {
+        compress();
+        TDigest copy = new TDigest(compression);
+        copy.means = Arrays.copyOf(means, centroids);
+        copy.weights = Arrays.copyOf(weights, centroids);
+        copy.centroids = centroids;
+        copy.totalWeight = totalWeight;
+        copy.min = min;
+        copy.max = max;
+        return copy;
+    }
+
+    /**
+     * Number of values added
+     */
+    public long size() {
+        return Math.round(totalWeight);
+    }
+
+    /**
+     * Estimated value below which the fraction q (0..1) of the values fall - NaN when empty
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1");
+        }
+        compress();
+        int n = centroids;
+        if (n == 0) {
+            return Double.NaN;
+        }
+        if (n == 1) {
+            return means[0];
+        }
+        double index = q * totalWeight;
+        if (index < 1) {
+            return min;
+        }
+        if (index > totalWeight - 1) {
+            return max;
+        }
+
+        // Between min and the center of the first centroid
+        double firstHalf = weights[0] / 2;
+        if (index < firstHalf) {
+            return min + (means[0] - min) * (index / firstHalf);
+        }
+        // Between centroid centers
+        double weightSoFar = firstHalf;
+        for (int i = 0; i < n - 1; i++) {
+            double gap = (weights[i] + weights[i + 1]) / 2;
+            if (weightSoFar + gap > index) {
+                double z = (index - weightSoFar) / gap;
+                return means[i] + z * (means[i + 1] - means[i]);
+            }
+            weightSoFar += gap;
+        }
+        // Between the center of the last centroid and max
+        double lastHalf = weights[n - 1] / 2;
+        double z = Math.min(1, (index - weightSoFar) / lastHalf);
+        return means[n - 1] + z * (max - means[n - 1]);
+    }
+
+    /**
+     * Merge the buffer into the centroids: sort everything by mean, then combine
+     * neighbours while the result stays within one unit of the k1 scale function
+     */
+    private void compress() {
+        if (buffered == 0) {
+            return;
+        }
+        int n = centroids + buffered;
+        double[] allMeans = new double[n];
+        double[] allWeights = new double[n];
+        System.arraycopy(means, 0, allMeans, 0, centroids);
+        System.arraycopy(weights, 0, allWeights, 0, centroids);
+        System.arraycopy(bufferMeans, 0, allMeans, centroids, buffered);
+        System.arraycopy(bufferWeights, 0, allWeights, centroids, buffered);
+        bufferMeans = null;
+        bufferWeights = null;
+        buffered = 0;
+
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(allMeans[a], allMeans[b]));
+
+        int count = 0;
+        double weightSoFar = 0;
+        double limit = totalWeight * inverseScale(scale(0) + 1);
+        double mean = allMeans[order[0]];
+        double weight = allWeights[order[0]];
+        for (int k = 1; k < n; k++) {
+            int i = order[k];
+            if (weightSoFar + weight + allWeights[i] <= limit) {
+                weight += allWeights[i];
+                mean += (allMeans[i] - mean) * allWeights[i] / weight;
+            } else {
+                count = emit(count, mean, weight);
+                weightSoFar += weight;
+                limit = totalWeight * inverseScale(scale(weightSoFar / totalWeight) + 1);
+                mean = allMeans[i];
+                weight = allWeights[i];
+            }
+        }
+        count = emit(count, mean, weight);
+        // allMeans / allWeights are scratch space here: keep only the centroids
+        means = Arrays.copyOf(means, count);
+        weights = Arrays.copyOf(weights, count);
+        centroids = count;
+    }
+
+    private int emit(int count, double mean, double weight) {
+        if (count == means.length) {
+            means = Arrays.copyOf(means, Math.max(16, count * 2));
+            weights = Arrays.copyOf(weights, Math.max(16, count * 2));
+        }
+        means[count] = mean;
+        weights[count] = weight;
+        return count + 1;
+    }
+
+    // k1(q) = compression / 2pi * asin(2q - 1)
+    private double scale(double q) {
+        return compression / (2 * Math.PI) * Math.asin(2 * Math.min(1, q) - 1);
+    }
+
+    private double inverseScale(double k) {
+        return (Math.sin(Math.min(k * 2 * Math.PI / compression, Math.PI / 2)) + 1) / 2;
+    }
+
+    /**
+     * Standalone test: skewed amounts against exact quantiles, and merge of parts
+     */
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        int n = 1_000_000;
+        double[] values = new double[n];
+        double compression = args.length > 0 ? Double.parseDouble(args[0]) : 200;
+        TDigest digest = new TDigest(compression);
+        TDigest[] parts = new TDigest[12];
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = new TDigest(compression);
+        }
+        for (int i = 0; i < n; i++) {
+            // Log-normal, like transaction amounts: most small, a long tail of large ones
+            values[i] = Math.exp(4 + 1.5 * random.nextGaussian());
+            digest.add(values[i]);
+            parts[i % parts.length].add(values[i]);
+        }
+        TDigest merged = new TDigest(compression);
+        for (TDigest part : parts) {
+            merged.merge(part);
+        }
+        Arrays.sort(values);
+
+        for (double q : new double[] { 0.01, 0.5, 0.9, 0.99, 0.999 }) {
+            double exact = values[(int) Math.ceil(q * n) - 1];
+            double estimate = digest.quantile(q);
+            double fromParts = merged.quantile(q);
+            System.out.printf("p%-5s exact %12.2f  digest %12.2f (%+.2f%%)  merged %12.2f (%+.2f%%)  rank error %.4f%n",
+                q * 100, exact, estimate, (estimate - exact) * 100 / exact,
+                fromParts, (fromParts - exact) * 100 / exact,
+                Math.abs(rank(values, fromParts) - q));
+        }
+        System.out.println("centroids: " + digest.centroids + ", merged: " + merged.centroids +
+                           ", size: " + merged.size() + ", min/max exact: " +
+                           (merged.quantile(0) == values[0] && merged.quantile(1) == values[n - 1]));
+    }
+
+    private static double rank(double[] sorted, double value) {
+        int index = Arrays.binarySearch(sorted, value);
+        return (index >= 0 ? index : -index - 1) / (double) sorted.length;
+    }
+}
@@ -0,0 +1,366 @@
+package com.datainsight.analytics;
+
+import com.datainsight.cache.ClientCache;
+import com.datainsight.dao.TransactionDAO;
+import com.datainsight.dao.TransactionEvents;
+import com.datainsight.dao.TransactionListener;
+import com.datainsight.dto.ClientSummary;
+import com.datainsight.model.Transaction;
+import com.datainsight.util.AppConfig;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory per-client spending totals, ranked - answers top-clients in O(k)
+ * A HashMap finds a client's entry, a TreeSet keeps entries ordered by total
+ * (descending, then client id): each insert or delete is O(log n).
+ * Seeded from the database, kept current through TransactionEvents and
+ * periodically reseeded (reconciled) against the database totals.
+ *
+ * Reseeding is exact: changes committed while the totals query runs are buffered,
+ * then checked against the same database snapshot (readClientTotals) so that
+ * each one is counted once - either by the query or by the buffer.
+ * Purges (deleteOlderThan) and changes made by another process trigger a reseed;
+ * until it is done the ranking still includes the purged rows.
+ * Display fields (nom, prenom, pays) come from ClientCache when reading.
+ */
+public final class TopClientsLeaderboard implements TransactionListener {
+
+    private static volatile TopClientsLeaderboard instance;
+
+    private static final Comparator<Entry> RANKING = Comparator
+        .comparingDouble((Entry e) -> e.total).reversed()
+        .thenComparingLong(e -> e.clientId);
+
+    private final TransactionDAO transactionDAO = new TransactionDAO();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "leaderboard");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Map<Long, Entry> byClient = new HashMap<>();
+    private TreeSet<Entry> ranking = new TreeSet<>(RANKING);
+    private volatile boolean ready;
+    private boolean started;
+    // Non-null while a reseed runs: changes to replay on the new ranking
+    private List<Change> buffer;
+    private boolean reseedAgain;
+
+    private TopClientsLeaderboard() {}
+
+    /**
+     * Off by default: see analytics.leaderboard.enabled
+     */
+    public static boolean isEnabled() {
+        return AppConfig.getBoolean("analytics.leaderboard.enabled", false);
+    }
+
+    public static TopClientsLeaderboard getInstance() {
+        TopClientsLeaderboard board = instance;
+        if (board == null) {
+            synchronized (TopClientsLeaderboard.class) {
+                board = instance;
+                if (board == null) {
+                    instance = board = new TopClientsLeaderboard();
+                }
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Subscribe to DAO events, seed now (in the background) and reconcile periodically
+     */
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        TransactionEvents.register(this);
+        long minutes = Math.max(1, AppConfig.getLong("analytics.leaderboard.reconcileMinutes", 60));
+        scheduler.scheduleWithFixedDelay(this::reseed, 0, minutes, TimeUnit.MINUTES);
+    }
+
+    public void shutdown() {
+        TransactionEvents.unregister(this);
+        scheduler.shutdownNow();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * {nom, prenom, pays, SUM(montant), COUNT} of the k biggest spenders, same shape
+     * as TransactionDAO.getTopClients - null until the first seed is done
+     */
+    public List<Object[]> top(int k) {
+        if (!ready) {
+            return null;
+        }
+        List<Entry> leaders = new ArrayList<>(k);
+        synchronized (this) {
+            for (Entry entry : ranking) {
+                if (leaders.size() == k) {
+                    break;
+                }
+                leaders.add(new Entry(entry.clientId, entry.total, entry.count));
+            }
+        }
+
+        List<Long> ids = new ArrayList<>(leaders.size());
+        leaders.forEach(entry -> ids.add(entry.clientId));
+        Map<Long, ClientSummary> clients = ClientCache.getInstance().getAll(ids);
+        List<Object[]> rows = new ArrayList<>(leaders.size());
+        for (Entry entry : leaders) {
+            ClientSummary client = clients.get(entry.clientId);
+            if (client != null) { // deleted meanwhile
+                rows.add(new Object[] { client.getNom(), client.getPrenom(), client.getPays(),
+                                        entry.total, entry.count });
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Size and state for monitoring
+     */
+    public synchronized Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("ready", ready);
+        status.put("clients", byClient.size());
+        status.put("reseeding", buffer != null);
+        return status;
+    }
+
+    // ==================== TransactionListener ====================
+
+    @Override
+    public synchronized void onInserted(List<Transaction> transactions) {
+        for (Transaction t : transactions) {
+            record(new Change(t.getId(), t.getClient().getId(), t.getMontant(), 1));
+        }
+    }
+
+    @Override
+    public synchronized void onDeleted(Transaction transaction) {
+        record(new Change(transaction.getId(), transaction.getClient().getId(), transaction.getMontant(), -1));
+    }
+
+    @Override
+    public synchronized void onClientsDeleted(Set<Long> clientIds) {
+        // Idempotent, and no transaction can be added to a deleted client: apply everywhere
+        for (Long clientId : clientIds) {
+            remove(byClient, ranking, clientId);
+            if (buffer != null) {
+                buffer.add(new Change(null, clientId, 0, 0));
+            }
+        }
+    }
+
+    @Override
+    public synchronized void onDeletedBefore(LocalDate date) {
+        // Per-client amounts of the purged rows are unknown: recount
+        requestReseed();
+    }
+
+    @Override
+    public synchronized void onExternalChange() {
+        requestReseed();
+    }
+
+    private void requestReseed() {
+        if (buffer != null) {
+            reseedAgain = true;
+        } else {
+            scheduler.execute(this::reseed);
+        }
+    }
+
+    private void record(Change change) {
+        if (buffer != null) {
+            buffer.add(change);
+        }
+        apply(byClient, ranking, change);
+    }
+
+    // ==================== Reseed ====================
+
+    /**
+     * Replace the ranking with the database totals (plus the changes the query missed)
+     */
+    private void reseed() {
+        synchronized (this) {
+            if (buffer != null) {
+                return;
+            }
+            buffer = new ArrayList<>();
+            reseedAgain = false;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            int drift = transactionDAO.readClientTotals((totals, snapshot) -> {
+                Map<Long, Entry> freshByClient = new HashMap<>(totals.size() * 4 / 3 + 1);
+                TreeSet<Entry> freshRanking = new TreeSet<>(RANKING);
+                for (Object[] row : totals) {
+                    Entry entry = new Entry((Long) row[0], (Double) row[1], (Long) row[2]);
+                    freshByClient.put(entry.clientId, entry);
+                    freshRanking.add(entry);
+                }
+
+                // Which buffered ids are already in the totals: checked in the same snapshot
+                Set<Long> inSnapshot = new HashSet<>();
+                int checked = 0;
+                while (true) {
+                    List<Change> unchecked;
+                    synchronized (this) {
+                        if (checked == buffer.size()) {
+                            replay(buffer, inSnapshot, freshByClient, freshRanking);
+                            int changed = countDrift(byClient, freshByClient);
+                            byClient = freshByClient;
+                            ranking = freshRanking;
+                            buffer = null;
+                            ready = true;
+                            return changed;
+                        }
+                        unchecked = new ArrayList<>(buffer.subList(checked, buffer.size()));
+                    }
+                    Set<Long> ids = new HashSet<>();
+                    for (Change change : unchecked) {
+                        if (change.transactionId != null) {
+                            ids.add(change.transactionId);
+                        }
+                    }
+                    inSnapshot.addAll(snapshot.findExistingIds(ids));
+                    checked += unchecked.size();
+                }
+            });
+            System.out.println("✓ Top clients leaderboard reconciled in " +
+                               (System.currentTimeMillis() - start) + " ms (" + drift + " clients corrected)");
+        } catch (RuntimeException e) {
+            System.err.println("✗ Top clients leaderboard reseed failed: " + e.getMessage());
+        } finally {
+            boolean again;
+            synchronized (this) {
+                buffer = null;
+                again = reseedAgain;
+                reseedAgain = false;
+            }
+            if (again) {
+                scheduler.execute(this::reseed);
+            }
+        }
+    }
+
+    /**
+     * Apply buffered changes the snapshot does not include: inserts of ids it does
+     * not have, deletes of ids it has (or that were inserted after it)
+     */
+    private static void replay(List<Change> changes, Set<Long> inSnapshot,
+                               Map<Long, Entry> byClient, TreeSet<Entry> ranking) {
+        Set<Long> insertedAfter = new HashSet<>();
+        for (Change change : changes) {
+            if (change.transactionId == null) {
+                remove(byClient, ranking, change.clientId);
+            } else if (change.sign > 0) {
+                if (!inSnapshot.contains(change.transactionId)) {
+                    insertedAfter.add(change.transactionId);
+                    apply(byClient, ranking, change);
+                }
+            } else if (inSnapshot.contains(change.transactionId) || insertedAfter.contains(change.transactionId)) {
+                apply(byClient, ranking, change);
+            }
+        }
+    }
+
+    private static void apply(Map<Long, Entry> byClient, TreeSet<Entry> ranking, Change change) {
+        Entry entry = byClient.get(change.clientId);
+        if (entry == null) {
+            if (change.sign < 0) {
+                return;
+            }
+            entry = new Entry(change.clientId, 0.0, 0);
+            byClient.put(change.clientId, entry);
+        } else {
+            ranking.remove(entry); // before the key changes
+        }
+        entry.total += change.sign * change.amount;
+        entry.count += change.sign;
+        if (entry.count <= 0) {
+            byClient.remove(change.clientId);
+        } else {
+            ranking.add(entry);
+        }
+    }
+
+    private static void remove(Map<Long, Entry> byClient, TreeSet<Entry> ranking, Long clientId) {
+        Entry entry = byClient.remove(clientId);
+        if (entry != null) {
+            ranking.remove(entry);
+        }
+    }
+
+    /**
+     * Clients whose count or total (beyond rounding) differ - 0 when the events kept up
+     */
+    private static int countDrift(Map<Long, Entry> before, Map<Long, Entry> after) {
+        int drift = 0;
+        for (Entry entry : after.values()) {
+            Entry old = before.get(entry.clientId);
+            if (old == null || old.count != entry.count || Math.abs(old.total - entry.total) > 0.005) {
+                drift++;
+            }
+        }
+        for (Long clientId : before.keySet()) {
+            if (!after.containsKey(clientId)) {
+                drift++;
+            }
+        }
+        return drift;
+    }
+
+    /**
+     * Running total of one client (total is part of the ranking order: take the entry
+     * out of the TreeSet before changing it)
+     */
+    private static final class Entry {
+        final long clientId;
+        double total;
+        long count;
+
+        Entry(long clientId, double total, long count) {
+            this.clientId = clientId;
+            this.total = total;
+            this.count = count;
+        }
+    }
+
+    /**
+     * One committed insert (sign 1) or delete (sign -1); transactionId null = client deleted
+     */
+    private static final class Change {
+        final Long transactionId;
+        final long clientId;
+        final double amount;
+        final int sign;
+
+        Change(Long transactionId, long clientId, double amount, int sign) {
+            this.transactionId = transactionId;
+            this.clientId = clientId;
+            this.amount = amount;
+            this.sign = sign;
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.datainsight.analytics;
+
+import com.datainsight.cache.ClientCache;
+import com.datainsight.dao.TransactionDAO;
+import com.datainsight.dao.TransactionEvents;
+import com.datainsight.dao.TransactionListener;
+import com.datainsight.dto.ClientSummary;
+import com.datainsight.model.Transaction;
+import com.datainsight.util.AppConfig;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-day HyperLogLog sketches of paying clients: one for the day, one per
+ * country and one per category (2^precision bytes each, created on first use).
+ * Any date range and grouping is answered by merging day sketches.
+ *
+ * Inserts are added as they are committed (TransactionEvents); purges drop whole
+ * days. Sketches cannot forget a client, so single deletes, client deletions and
+ * country changes only mark the index dirty: it is rebuilt from the database every
+ * analytics.uniqueClients.rebuildMinutes while dirty. Adding a client twice is a
+ * no-op, so inserts committed during a rebuild are simply replayed on the new index.
+ */
+public final class UniqueClientsIndex implements TransactionListener {
+
+    private static volatile UniqueClientsIndex instance;
+
+    private final int precision = Math.max(HyperLogLog.MIN_PRECISION, Math.min(HyperLogLog.MAX_PRECISION,
+        AppConfig.getInt("analytics.uniqueClients.precision", 12)));
+    private final TransactionDAO transactionDAO = new TransactionDAO();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "unique-clients");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile ConcurrentSkipListMap<Integer, DaySketches> days = new ConcurrentSkipListMap<>();
+    private volatile boolean ready;
+    private boolean started;
+    private boolean dirty;
+    // Non-null while rebuilding: inserts to replay and the latest purge to re-apply
+    private List<Fact> pending;
+    private LocalDate pendingPurge;
+
+    private UniqueClientsIndex() {}
+
+    /**
+     * On by default: see analytics.uniqueClients.enabled
+     */
+    public static boolean isEnabled() {
+        return AppConfig.getBoolean("analytics.uniqueClients.enabled", true);
+    }
+
+    public static UniqueClientsIndex getInstance() {
+        UniqueClientsIndex index = instance;
+        if (index == null) {
+            synchronized (UniqueClientsIndex.class) {
+                index = instance;
+                if (index == null) {
+                    instance = index = new UniqueClientsIndex();
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Subscribe to DAO events, build now (in the background), rebuild when dirty
+     */
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        TransactionEvents.register(this);
+        long minutes = Math.max(1, AppConfig.getLong("analytics.uniqueClients.rebuildMinutes", 60));
+        scheduler.execute(this::rebuild);
+        scheduler.scheduleWithFixedDelay(() -> {
+            boolean needed;
+            synchronized (this) {
+                needed = dirty;
+            }
+            if (needed) {
+                rebuild();
+            }
+        }, minutes, minutes, TimeUnit.MINUTES);
+    }
+
+    public void shutdown() {
+        TransactionEvents.unregister(this);
+        scheduler.shutdownNow();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public double getRelativeError() {
+        return HyperLogLog.relativeError(precision);
+    }
+
+    /**
+     * Estimated distinct clients between two dates, same rows as
+     * TransactionDAO.countUniqueClients - null until the first build is done
+     */
+    public List<Object[]> estimate(String groupBy, LocalDate from, LocalDate to) {
+        if (!ready) {
+            return null;
+        }
+        NavigableMap<Integer, DaySketches> range =
+            days.subMap((int) from.toEpochDay(), true, (int) to.toEpochDay(), true);
+        List<Object[]> rows = new ArrayList<>();
+
+        if (groupBy == null) {
+            HyperLogLog union = new HyperLogLog(precision);
+            range.values().forEach(day -> union.merge(day.all));
+            rows.add(new Object[] { null, union.estimate() });
+        } else if (groupBy.equals("day")) {
+            for (Map.Entry<Integer, DaySketches> day : range.descendingMap().entrySet()) {
+                rows.add(new Object[] { LocalDate.ofEpochDay(day.getKey()), day.getValue().all.estimate() });
+            }
+        } else {
+            boolean byCountry = groupBy.equals("pays");
+            if (!byCountry && !groupBy.equals("categorie")) {
+                throw new IllegalArgumentException("Unknown groupBy: " + groupBy);
+            }
+            Map<String, HyperLogLog> unions = new HashMap<>();
+            for (DaySketches day : range.values()) {
+                for (Map.Entry<String, HyperLogLog> group : (byCountry ? day.byCountry : day.byCategory).entrySet()) {
+                    unions.computeIfAbsent(group.getKey(), key -> new HyperLogLog(precision))
+                          .merge(group.getValue());
+                }
+            }
+            unions.forEach((key, sketch) -> rows.add(new Object[] { key.isEmpty() ? null : key, sketch.estimate() }));
+            rows.sort((a, b) -> Long.compare((Long) b[1], (Long) a[1]));
+        }
+        return rows;
+    }
+
+    /**
+     * State and memory for monitoring
+     */
+    public synchronized Map<String, Object> getStatus() {
+        long sketches = 0;
+        for (DaySketches day : days.values()) {
+            sketches += 1 + day.byCountry.size() + day.byCategory.size();
+        }
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("ready", ready);
+        status.put("dirty", dirty);
+        status.put("rebuilding", pending != null);
+        status.put("days", days.size());
+        status.put("sketches", sketches);
+        status.put("bytes", sketches << precision);
+        status.put("relativeError", getRelativeError());
+        return status;
+    }
+
+    // ==================== TransactionListener ====================
+
+    @Override
+    public void onInserted(List<Transaction> transactions) {
+        // Resolve countries before taking the lock (may hit the database)
+        Set<Long> clientIds = new HashSet<>();
+        for (Transaction t : transactions) {
+            clientIds.add(t.getClient().getId());
+        }
+        Map<Long, ClientSummary> clients = ClientCache.getInstance().getAll(clientIds);
+
+        synchronized (this) {
+            for (Transaction t : transactions) {
+                ClientSummary client = clients.get(t.getClient().getId());
+                if (client != null) {
+                    Fact fact = new Fact(t.getDate(), client.getId(), client.getPays(), t.getCategorie());
+                    add(days, fact);
+                    if (pending != null) {
+                        pending.add(fact);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void onDeletedBefore(LocalDate date) {
+        days.headMap((int) date.toEpochDay()).clear();
+        if (pending != null) {
+            pendingPurge = date;
+        }
+    }
+
+    @Override
+    public synchronized void onDeleted(Transaction transaction) {
+        dirty = true;
+    }
+
+    @Override
+    public synchronized void onClientsDeleted(Set<Long> clientIds) {
+        dirty = true;
+    }
+
+    @Override
+    public synchronized void onClientCountryChanged(Long clientId, String pays) {
+        dirty = true;
+    }
+
+    @Override
+    public void onExternalChange() {
+        // Queued behind a rebuild already running: that one may predate the change
+        scheduler.execute(this::rebuild);
+    }
+
+    // ==================== Build ====================
+
+    /**
+     * Build a new index from every transaction, then swap it in
+     */
+    private void rebuild() {
+        synchronized (this) {
+            pending = new ArrayList<>();
+            pendingPurge = null;
+            dirty = false;
+        }
+        long start = System.currentTimeMillis();
+        ConcurrentSkipListMap<Integer, DaySketches> fresh = new ConcurrentSkipListMap<>();
+        try {
+            long rows = transactionDAO.streamFacts(row ->
+                add(fresh, new Fact((LocalDate) row[1], (Long) row[5], (String) row[6], (String) row[3])));
+            synchronized (this) {
+                pending.forEach(fact -> add(fresh, fact));
+                if (pendingPurge != null) {
+                    fresh.headMap((int) pendingPurge.toEpochDay()).clear();
+                }
+                days = fresh;
+                ready = true;
+            }
+            System.out.println("✓ Unique clients index built: " + rows + " transactions, " + fresh.size() +
+                               " days in " + (System.currentTimeMillis() - start) + " ms");
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                dirty = true; // retry on the next run
+            }
+            System.err.println("✗ Unique clients index build failed: " + e.getMessage());
+        } finally {
+            synchronized (this) {
+                pending = null;
+                pendingPurge = null;
+            }
+        }
+    }
+
+    private void add(ConcurrentSkipListMap<Integer, DaySketches> target, Fact fact) {
+        DaySketches day = target.computeIfAbsent((int) fact.date.toEpochDay(), d -> new DaySketches(precision));
+        day.all.add(fact.clientId);
+        day.byCountry.computeIfAbsent(keyOf(fact.pays), key -> new HyperLogLog(precision)).add(fact.clientId);
+        day.byCategory.computeIfAbsent(keyOf(fact.categorie), key -> new HyperLogLog(precision)).add(fact.clientId);
+    }
+
+    private static String keyOf(String value) {
+        return value != null ? value : ""; // ConcurrentHashMap has no null keys
+    }
+
+    private static final class DaySketches {
+        final HyperLogLog all;
+        final Map<String, HyperLogLog> byCountry = new ConcurrentHashMap<>();
+        final Map<String, HyperLogLog> byCategory = new ConcurrentHashMap<>();
+
+        DaySketches(int precision) {
+            this.all = new HyperLogLog(precision);
+        }
+    }
+
+    private static final class Fact {
+        final LocalDate date;
+        final long clientId;
+        final String pays;
+        final String categorie;
+
+        Fact(LocalDate date, long clientId, String pays, String categorie) {
+            this.date = date;
+            this.clientId = clientId;
+            this.pays = pays;
+            this.categorie = categorie;
+        }
+    }
+}
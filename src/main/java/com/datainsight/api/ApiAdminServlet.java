@@ -0,0 +1,223 @@
+package com.datainsight.api;
+
+import com.datainsight.analytics.AmountPercentilesIndex;
+import com.datainsight.analytics.ColumnarTransactionStore;
+import com.datainsight.analytics.TopClientsLeaderboard;
+import com.datainsight.analytics.UniqueClientsIndex;
+import com.datainsight.dao.PartitionMaintenance;
+import com.datainsight.dao.PurgeJob;
+import com.datainsight.dao.SalesRollupDAO;
+import com.datainsight.dto.ApiResponse;
+import com.datainsight.util.JsonUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * REST API for maintenance operations
+ * Base URL: /api/admin
+ */
+@WebServlet(urlPatterns = "/api/admin/*", loadOnStartup = 1)
+public class ApiAdminServlet extends HttpServlet {
+
+    private SalesRollupDAO salesRollupDAO;
+    private ObjectMapper objectMapper;
+
+    @Override
+    public void init() throws ServletException {
+        salesRollupDAO = new SalesRollupDAO();
+        objectMapper = JsonUtil.getObjectMapper();
+        System.out.println("✓ ApiAdminServlet initialized");
+    }
+
+    /**
+     * GET: Maintenance status
+     * /api/admin/rollup - number of rows in the daily sales rollup
+     * /api/admin/columnar - load state of the in-memory columnar store
+     * /api/admin/leaderboard - state of the top clients leaderboard
+     * /api/admin/unique-clients - state and memory of the unique clients sketches
+     * /api/admin/amount-percentiles - state of the amount percentile digests
+     * /api/admin/partitions - monthly partitions of the transactions table
+     * /api/admin/purge - progress of the last purge (null if none)
+     */
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+
+        // CORS
+        response.setHeader("Access-Control-Allow-Origin", "*");
+
+        try {
+            String pathInfo = request.getPathInfo();
+
+            if ("/rollup".equals(pathInfo)) {
+                Map<String, Object> status = new LinkedHashMap<>();
+                status.put("rows", salesRollupDAO.count());
+                objectMapper.writeValue(response.getWriter(), ApiResponse.success(status));
+            } else if ("/columnar".equals(pathInfo)) {
+                objectMapper.writeValue(response.getWriter(),
+                    ApiResponse.success(ColumnarTransactionStore.getInstance().getStatus()));
+            } else if ("/leaderboard".equals(pathInfo)) {
+                objectMapper.writeValue(response.getWriter(),
+                    ApiResponse.success(TopClientsLeaderboard.getInstance().getStatus()));
+            } else if ("/unique-clients".equals(pathInfo)) {
+                objectMapper.writeValue(response.getWriter(),
+                    ApiResponse.success(UniqueClientsIndex.getInstance().getStatus()));
+            } else if ("/amount-percentiles".equals(pathInfo)) {
+                objectMapper.writeValue(response.getWriter(),
+                    ApiResponse.success(AmountPercentilesIndex.getInstance().getStatus()));
+            } else if ("/partitions".equals(pathInfo)) {
+                objectMapper.writeValue(response.getWriter(),
+                    ApiResponse.success(PartitionMaintenance.getInstance().getStatus()));
+            } else if ("/purge".equals(pathInfo)) {
+                PurgeJob job = PurgeJob.current();
+                objectMapper.writeValue(response.getWriter(),
+                    ApiResponse.success(job != null ? job.getStatus() : null));
+            } else {
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                ApiResponse<String> apiResponse = ApiResponse.error("Endpoint not found");
+                objectMapper.writeValue(response.getWriter(), apiResponse);
+            }
+
+        } catch (Exception e) {
+            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            ApiResponse<String> apiResponse = ApiResponse.error("Server error: " + e.getMessage());
+            objectMapper.writeValue(response.getWriter(), apiResponse);
+        }
+    }
+
+    /**
+     * POST: Run a maintenance operation
+     * /api/admin/rollup/rebuild - rebuild the daily sales rollup from the transactions table
+     * /api/admin/partitions/convert - partition the transactions table by month (one-time, blocks writes)
+     * /api/admin/purge?before=YYYY-MM-DD | ?clientId=N [&chunkSize=&pauseMs=] - start a chunked purge
+     * /api/admin/purge/cancel - stop the running purge after its current chunk
+     * /api/admin/purge/resume - continue a cancelled or failed purge
+     */
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+
+        // CORS
+        response.setHeader("Access-Control-Allow-Origin", "*");
+
+        try {
+            String pathInfo = request.getPathInfo();
+
+            if ("/rollup/rebuild".equals(pathInfo)) {
+                long start = System.currentTimeMillis();
+                long rows = salesRollupDAO.rebuild();
+
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("rows", rows);
+                result.put("durationMs", System.currentTimeMillis() - start);
+                objectMapper.writeValue(response.getWriter(), ApiResponse.success("Rollup rebuilt", result));
+            } else if ("/purge".equals(pathInfo)) {
+                startPurge(request, response);
+            } else if ("/purge/cancel".equals(pathInfo)) {
+                PurgeJob job = PurgeJob.current();
+                if (job != null) {
+                    job.cancel();
+                }
+                objectMapper.writeValue(response.getWriter(),
+                    ApiResponse.success("Cancel requested", job != null ? job.getStatus() : null));
+            } else if ("/purge/resume".equals(pathInfo)) {
+                try {
+                    PurgeJob job = PurgeJob.resumeCurrent();
+                    response.setStatus(HttpServletResponse.SC_ACCEPTED);
+                    objectMapper.writeValue(response.getWriter(), ApiResponse.success("Purge resumed", job.getStatus()));
+                } catch (IllegalStateException e) {
+                    response.setStatus(HttpServletResponse.SC_CONFLICT);
+                    objectMapper.writeValue(response.getWriter(), ApiResponse.error(e.getMessage()));
+                }
+            } else if ("/partitions/convert".equals(pathInfo)) {
+                if (!PartitionMaintenance.isEnabled()) {
+                    response.setStatus(HttpServletResponse.SC_CONFLICT);
+                    objectMapper.writeValue(response.getWriter(),
+                        ApiResponse.error("Partitioning is disabled (transactions.partitions.enabled)"));
+                    return;
+                }
+                long start = System.currentTimeMillis();
+                int partitions = PartitionMaintenance.getInstance().convert();
+
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("partitions", partitions);
+                result.put("durationMs", System.currentTimeMillis() - start);
+                objectMapper.writeValue(response.getWriter(), ApiResponse.success(
+                    partitions > 0 ? "Transactions table partitioned" : "Already partitioned", result));
+            } else {
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                ApiResponse<String> apiResponse = ApiResponse.error("Endpoint not found");
+                objectMapper.writeValue(response.getWriter(), apiResponse);
+            }
+
+        } catch (Exception e) {
+            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            ApiResponse<String> apiResponse = ApiResponse.error("Server error: " + e.getMessage());
+            objectMapper.writeValue(response.getWriter(), apiResponse);
+        }
+    }
+
+    /**
+     * Start a purge in the background: 202 with its status, 409 if one is running
+     */
+    private void startPurge(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        PurgeJob job;
+        try {
+            String before = request.getParameter("before");
+            String clientId = request.getParameter("clientId");
+            String chunkSize = request.getParameter("chunkSize");
+            String pauseMs = request.getParameter("pauseMs");
+            Integer chunk = chunkSize != null && !chunkSize.isEmpty() ? Integer.valueOf(chunkSize) : null;
+            Long pause = pauseMs != null && !pauseMs.isEmpty() ? Long.valueOf(pauseMs) : null;
+            if (before != null && !before.isEmpty() && (clientId == null || clientId.isEmpty())) {
+                job = PurgeJob.olderThan(LocalDate.parse(before), chunk, pause);
+            } else if (clientId != null && !clientId.isEmpty() && (before == null || before.isEmpty())) {
+                job = PurgeJob.forClient(Long.valueOf(clientId), chunk, pause);
+            } else {
+                throw new IllegalArgumentException("give either 'before' or 'clientId'");
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            objectMapper.writeValue(response.getWriter(), ApiResponse.error("Invalid parameter: " + e.getMessage()));
+            return;
+        }
+
+        try {
+            PurgeJob.submit(job);
+        } catch (IllegalStateException e) {
+            response.setStatus(HttpServletResponse.SC_CONFLICT);
+            objectMapper.writeValue(response.getWriter(), ApiResponse.error(e.getMessage()));
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_ACCEPTED);
+        objectMapper.writeValue(response.getWriter(), ApiResponse.success("Purge started", job.getStatus()));
+    }
+
+    /**
+     * OPTIONS: Handle CORS preflight
+     */
+    @Override
+    protected void doOptions(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        response.setHeader("Access-Control-Allow-Origin", "*");
+        response.setHeader("Access-Control-Allow-Methods", "GET, POST, OPTIONS");
+        response.setHeader("Access-Control-Allow-Headers", "Content-Type");
+        response.setStatus(HttpServletResponse.SC_OK);
+    }
+}
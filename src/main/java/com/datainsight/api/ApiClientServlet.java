@@ -4,8 +4,9 @@ import com.datainsight.dao.ClientDAO;
 import com.datainsight.dto.ApiResponse;
 import com.datainsight.dto.ClientDTO;
 import com.datainsight.model.Client;
+import com.datainsight.util.AppConfig;
+import com.datainsight.util.JsonUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
@@ -14,33 +15,40 @@ import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
  * REST API for Client operations
  * Base URL: /api/clients
  */
-@WebServlet("/api/clients/*")
+@WebServlet(urlPatterns = "/api/clients/*", loadOnStartup = 1)
 public class ApiClientServlet extends HttpServlet {
 
+    // Clients deleted by one DELETE /api/clients?ids=...
+    private static final int MAX_DELETE_IDS = 1000;
+
     private ClientDAO clientDAO;
     private ObjectMapper objectMapper;
 
     @Override
     public void init() throws ServletException {
         clientDAO = new ClientDAO();
-        objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper = JsonUtil.getObjectMapper();
         System.out.println("✓ ApiClientServlet initialized");
     }
 
     /**
      * GET: Retrieve clients
-     * /api/clients - all clients
+     * /api/clients - all clients (paginated)
      * /api/clients/{id} - single client
      * /api/clients?pays={country} - filter by country
      * /api/clients?profession={profession} - filter by profession
+     * /api/clients?limit={n}&cursor={nextCursor} - page size / next page
      */
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response)
@@ -52,12 +60,19 @@ public class ApiClientServlet extends HttpServlet {
         // Enable CORS
         response.setHeader("Access-Control-Allow-Origin", "*");
         response.setHeader("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
-        response.setHeader("Access-Control-Allow-Headers", "Content-Type");
+        response.setHeader("Access-Control-Allow-Headers", "Content-Type, If-None-Match, If-Modified-Since");
 
         try {
             String pathInfo = request.getPathInfo();
             String pays = request.getParameter("pays");
             String profession = request.getParameter("profession");
+            String limitParam = request.getParameter("limit");
+            String cursorParam = request.getParameter("cursor");
+
+            // Unchanged since the client's copy: 304 without querying
+            if (HttpCaching.checkNotModified(request, response, null)) {
+                return;
+            }
 
             if (pathInfo != null && pathInfo.length() > 1) {
                 // GET single client by ID
@@ -73,40 +88,41 @@ public class ApiClientServlet extends HttpServlet {
                     ApiResponse<String> apiResponse = ApiResponse.error("Client not found");
                     objectMapper.writeValue(response.getWriter(), apiResponse);
                 }
-            } else if (pays != null && !pays.isEmpty()) {
+                return;
+            }
+
+            int limit = AppConfig.getInt("page.defaultSize", 100);
+            if (limitParam != null && !limitParam.isEmpty()) {
+                limit = Integer.parseInt(limitParam);
+            }
+            limit = ClientDAO.boundedPageSize(limit);
+            Long afterId = cursorParam != null && !cursorParam.isEmpty()
+                    ? Long.parseLong(cursorParam) : null;
+
+            List<Client> clients;
+            if (pays != null && !pays.isEmpty()) {
                 // Filter by country
-                List<Client> clients = clientDAO.findByPays(pays);
-                List<ClientDTO> dtos = clients.stream()
-                        .map(ClientDTO::fromEntity)
-                        .collect(Collectors.toList());
-                
-                ApiResponse<List<ClientDTO>> apiResponse = ApiResponse.success(dtos);
-                apiResponse.setCount(dtos.size());
-                objectMapper.writeValue(response.getWriter(), apiResponse);
-                
+                clients = clientDAO.findByPays(pays, afterId, limit);
             } else if (profession != null && !profession.isEmpty()) {
                 // Filter by profession
-                List<Client> clients = clientDAO.findByProfession(profession);
-                List<ClientDTO> dtos = clients.stream()
-                        .map(ClientDTO::fromEntity)
-                        .collect(Collectors.toList());
-                
-                ApiResponse<List<ClientDTO>> apiResponse = ApiResponse.success(dtos);
-                apiResponse.setCount(dtos.size());
-                objectMapper.writeValue(response.getWriter(), apiResponse);
-                
+                clients = clientDAO.findByProfession(profession, afterId, limit);
             } else {
                 // GET all clients
-                List<Client> clients = clientDAO.findAll();
-                List<ClientDTO> dtos = clients.stream()
-                        .map(ClientDTO::fromEntity)
-                        .collect(Collectors.toList());
-                
-                ApiResponse<List<ClientDTO>> apiResponse = ApiResponse.success(dtos);
-                apiResponse.setCount(dtos.size());
-                objectMapper.writeValue(response.getWriter(), apiResponse);
+                clients = clientDAO.findPage(afterId, limit);
             }
 
+            List<ClientDTO> dtos = clients.stream()
+                    .map(ClientDTO::fromEntity)
+                    .collect(Collectors.toList());
+
+            ApiResponse<List<ClientDTO>> apiResponse = ApiResponse.success(dtos);
+            apiResponse.setCount(dtos.size());
+            if (clients.size() == limit) {
+                // Full page: there may be more clients after the last one
+                apiResponse.setNextCursor(String.valueOf(clients.get(clients.size() - 1).getId()));
+            }
+            objectMapper.writeValue(response.getWriter(), apiResponse);
+
         } catch (NumberFormatException e) {
             response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
             ApiResponse<String> apiResponse = ApiResponse.error("Invalid ID format");
@@ -241,8 +257,8 @@ public class ApiClientServlet extends HttpServlet {
     }
 
     /**
-     * DELETE: Remove client
-     * URL: /api/clients/{id}
+     * DELETE: Remove client (with its transactions)
+     * URL: /api/clients/{id}, or /api/clients?ids=1,2,3 for several at once
      */
     @Override
     protected void doDelete(HttpServletRequest request, HttpServletResponse response)
@@ -256,6 +272,26 @@ public class ApiClientServlet extends HttpServlet {
 
         try {
             String pathInfo = request.getPathInfo();
+            String idsParam = request.getParameter("ids");
+            if ((pathInfo == null || pathInfo.length() <= 1) && idsParam != null) {
+                // Bulk: /api/clients?ids=1,2,3
+                Set<Long> ids = parseIds(idsParam);
+                if (ids == null || ids.size() > MAX_DELETE_IDS) {
+                    response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+                    ApiResponse<String> apiResponse = ApiResponse.error(ids == null
+                        ? "ids must be a comma-separated list of positive client IDs"
+                        : "Too many ids (max " + MAX_DELETE_IDS + ")");
+                    objectMapper.writeValue(response.getWriter(), apiResponse);
+                    return;
+                }
+                int deleted = clientDAO.delete(ids);
+
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("requested", ids.size());
+                result.put("deleted", deleted);
+                objectMapper.writeValue(response.getWriter(), ApiResponse.success("Clients deleted", result));
+                return;
+            }
             if (pathInfo == null || pathInfo.length() <= 1) {
                 response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
                 ApiResponse<String> apiResponse = ApiResponse.error("Client ID required");
@@ -291,6 +327,26 @@ public class ApiClientServlet extends HttpServlet {
         }
     }
 
+    /**
+     * Distinct ids of a comma-separated list, null when a part is not a positive number
+     */
+    private static Set<Long> parseIds(String param) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (String part : param.split(",", -1)) {
+            long id;
+            try {
+                id = Long.parseLong(part.trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            if (id <= 0) {
+                return null;
+            }
+            ids.add(id);
+        }
+        return ids;
+    }
+
     /**
      * OPTIONS: Handle CORS preflight
      */
@@ -299,7 +355,7 @@ public class ApiClientServlet extends HttpServlet {
             throws ServletException, IOException {
         response.setHeader("Access-Control-Allow-Origin", "*");
         response.setHeader("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
-        response.setHeader("Access-Control-Allow-Headers", "Content-Type");
+        response.setHeader("Access-Control-Allow-Headers", "Content-Type, If-None-Match, If-Modified-Since");
         response.setStatus(HttpServletResponse.SC_OK);
     }
 }
\ No newline at end of file
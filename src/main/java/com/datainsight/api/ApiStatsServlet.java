@@ -1,10 +1,21 @@
 package com.datainsight.api;
 
+import com.datainsight.analytics.DashboardAggregator;
+import com.datainsight.analytics.StatsService;
+import com.datainsight.cache.ClientCache;
+import com.datainsight.cache.DataVersion;
+import com.datainsight.cache.StatsCache;
 import com.datainsight.dao.ClientDAO;
-import com.datainsight.dao.TransactionDAO;
+import com.datainsight.dto.AmountPercentilesStats;
 import com.datainsight.dto.ApiResponse;
+import com.datainsight.dto.OverviewStats;
+import com.datainsight.dto.UniqueClientsStats;
+import com.datainsight.ingest.IngestQueue;
+import com.datainsight.model.Client;
+import com.datainsight.util.AppConfig;
+import com.datainsight.util.JpaUtil;
+import com.datainsight.util.JsonUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
@@ -12,27 +23,40 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.TreeSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
 
 /**
  * REST API for Analytics/Statistics
  * Base URL: /api/stats
  */
-@WebServlet("/api/stats/*")
+@WebServlet(urlPatterns = "/api/stats/*", loadOnStartup = 1)
 public class ApiStatsServlet extends HttpServlet {
 
-    private TransactionDAO transactionDAO;
-    private ClientDAO clientDAO;
+    // Endpoints whose response only depends on the data (and the date)
+    private static final Set<String> VERSIONED_PATHS = Set.of(
+        "/", "/overview", "/revenue-by-country", "/revenue-by-category", "/top-clients",
+        "/sales-by-month", "/sales-by-day", "/clients-by-country", "/clients-by-profession", "/unique-clients", "/amount-percentiles",
+        "/dashboard");
+
+    private StatsService statsService;
+    private DashboardAggregator dashboardAggregator;
     private ObjectMapper objectMapper;
 
     @Override
     public void init() throws ServletException {
-        transactionDAO = new TransactionDAO();
-        clientDAO = new ClientDAO();
-        objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
+        statsService = new StatsService();
+        dashboardAggregator = new DashboardAggregator();
+        objectMapper = JsonUtil.getObjectMapper();
         System.out.println("✓ ApiStatsServlet initialized");
     }
 
@@ -45,6 +69,11 @@ public class ApiStatsServlet extends HttpServlet {
      * /api/stats/sales-by-month - monthly sales
      * /api/stats/clients-by-country - client distribution by country
      * /api/stats/clients-by-profession - client distribution by profession
+     * /api/stats/unique-clients - distinct paying clients over a date range (groupBy, from, to)
+     * /api/stats/amount-percentiles - amount percentiles per category (categorie, p, from, to)
+     * /api/stats/ingest - async ingest queue metrics
+     * /api/stats/cache - client cache and second-level cache hit ratios per region
+     * /api/stats/dashboard - every dashboard section in one response (queries run concurrently)
      */
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response)
@@ -56,10 +85,20 @@ public class ApiStatsServlet extends HttpServlet {
         // CORS
         response.setHeader("Access-Control-Allow-Origin", "*");
         response.setHeader("Access-Control-Allow-Methods", "GET, OPTIONS");
-        response.setHeader("Access-Control-Allow-Headers", "Content-Type");
+        response.setHeader("Access-Control-Allow-Headers", "Content-Type, If-None-Match, If-Modified-Since");
 
         try {
             String pathInfo = request.getPathInfo();
+
+            // Data endpoints (not the live metrics): 304 while no write happened
+            if (pathInfo == null || VERSIONED_PATHS.contains(pathInfo)) {
+                long version = DataVersion.current();
+                if (HttpCaching.isNotModified(request, version, statsVariant())) {
+                    HttpCaching.notModified(response, version, statsVariant());
+                    return;
+                }
+                StatsCache.resetServedVersion();
+            }
             
             if (pathInfo == null || pathInfo.equals("/") || pathInfo.equals("/overview")) {
                 getOverview(response);
@@ -77,6 +116,17 @@ public class ApiStatsServlet extends HttpServlet {
                 getClientsByCountry(response);
             } else if (pathInfo.equals("/clients-by-profession")) {
                 getClientsByProfession(response);
+            } else if (pathInfo.equals("/unique-clients")) {
+                getUniqueClients(request, response);
+            } else if (pathInfo.equals("/amount-percentiles")) {
+                getAmountPercentiles(request, response);
+            } else if (pathInfo.equals("/ingest")) {
+                objectMapper.writeValue(response.getWriter(),
+                    ApiResponse.success(IngestQueue.getMetricsSnapshot()));
+            } else if (pathInfo.equals("/cache")) {
+                getCacheStats(response);
+            } else if (pathInfo.equals("/dashboard")) {
+                getDashboard(response);
             } else {
                 response.setStatus(HttpServletResponse.SC_NOT_FOUND);
                 ApiResponse<String> apiResponse = ApiResponse.error("Endpoint not found");
@@ -90,17 +140,100 @@ public class ApiStatsServlet extends HttpServlet {
         }
     }
 
+    /**
+     * Write a data endpoint response, tagged with the data version it was computed
+     * from (older than the current one when the stats cache served a stale value)
+     */
+    private void writeVersioned(HttpServletResponse response, Object body) throws IOException {
+        long served = StatsCache.servedVersion();
+        long version = served != Long.MAX_VALUE ? served : DataVersion.current();
+        HttpCaching.setValidators(response, version, statsVariant());
+        objectMapper.writeValue(response.getWriter(), body);
+    }
+
+    /**
+     * Stats depend on the date too ("last N days")
+     */
+    private static String statsVariant() {
+        return LocalDate.now().toString();
+    }
+
     /**
      * Global overview statistics
      */
     private void getOverview(HttpServletResponse response) throws IOException {
-        Map<String, Object> stats = new HashMap<>();
-        
-        stats.put("totalClients", clientDAO.count());
-        stats.put("totalTransactions", transactionDAO.count());
-        stats.put("totalRevenue", transactionDAO.getTotalRevenue());
-        stats.put("averageTransaction", transactionDAO.getAverageTransactionAmount());
+        OverviewStats stats = statsService.getOverview();
         
+        ApiResponse<OverviewStats> apiResponse = ApiResponse.success(stats);
+        writeVersioned(response, apiResponse);
+    }
+
+    /**
+     * Whole dashboard in one call - sections that missed their deadline are null
+     * and listed in "unavailable" with the reason
+     */
+    private void getDashboard(HttpServletResponse response) throws IOException {
+        DashboardAggregator.Result dashboard = dashboardAggregator.load();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put(DashboardAggregator.OVERVIEW, dashboard.get(DashboardAggregator.OVERVIEW));
+        result.put(DashboardAggregator.REVENUE_BY_COUNTRY,
+            revenueRows(dashboard.get(DashboardAggregator.REVENUE_BY_COUNTRY), "pays"));
+        result.put(DashboardAggregator.REVENUE_BY_CATEGORY,
+            revenueRows(dashboard.get(DashboardAggregator.REVENUE_BY_CATEGORY), "categorie"));
+        result.put(DashboardAggregator.TOP_CLIENTS,
+            topClientRows(dashboard.get(DashboardAggregator.TOP_CLIENTS)));
+        result.put(DashboardAggregator.SALES_BY_MONTH,
+            monthRows(dashboard.get(DashboardAggregator.SALES_BY_MONTH)));
+        result.put(DashboardAggregator.SALES_BY_DAY,
+            dayRows(dashboard.get(DashboardAggregator.SALES_BY_DAY)));
+        result.put(DashboardAggregator.CLIENTS_BY_COUNTRY,
+            distributionRows(dashboard.get(DashboardAggregator.CLIENTS_BY_COUNTRY), "pays"));
+        result.put(DashboardAggregator.CLIENTS_BY_PROFESSION,
+            distributionRows(dashboard.get(DashboardAggregator.CLIENTS_BY_PROFESSION), "profession"));
+        result.put("complete", dashboard.isComplete());
+        result.put("unavailable", dashboard.getUnavailable());
+        result.put("durationMs", dashboard.getDurationMs());
+
+        ApiResponse<Map<String, Object>> apiResponse = ApiResponse.success(result);
+        if (dashboard.isComplete()) {
+            // Partial results are never validated: the next poll retries the missing sections
+            long version = dashboard.getDataVersion();
+            HttpCaching.setValidators(response, version != Long.MAX_VALUE ? version : DataVersion.current(),
+                                      statsVariant());
+        }
+        objectMapper.writeValue(response.getWriter(), apiResponse);
+    }
+
+    /**
+     * In-process cache statistics
+     */
+    private void getCacheStats(HttpServletResponse response) throws IOException {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("clients", ClientCache.getInstance().getStats());
+        stats.put("stats", StatsCache.getInstance().getStats());
+
+        // Hibernate second-level / query cache regions
+        Statistics hibernate = JpaUtil.getStatistics();
+        Set<String> regions = new TreeSet<>(List.of(
+            Client.CACHE_REGION, ClientDAO.AGGREGATES_REGION, ClientDAO.PAGES_REGION));
+        regions.addAll(List.of(hibernate.getSecondLevelCacheRegionNames()));
+        Map<String, Object> regionStats = new LinkedHashMap<>();
+        for (String region : regions) {
+            CacheRegionStatistics rs = hibernate.getCacheRegionStatistics(region);
+            if (rs == null) {
+                continue; // region not used yet
+            }
+            long lookups = rs.getHitCount() + rs.getMissCount();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("hits", rs.getHitCount());
+            entry.put("misses", rs.getMissCount());
+            entry.put("puts", rs.getPutCount());
+            entry.put("hitRatio", lookups > 0 ? (double) rs.getHitCount() / lookups : 0.0);
+            regionStats.put(region, entry);
+        }
+        stats.put("secondLevel", regionStats);
+
         ApiResponse<Map<String, Object>> apiResponse = ApiResponse.success(stats);
         objectMapper.writeValue(response.getWriter(), apiResponse);
     }
@@ -109,41 +242,22 @@ public class ApiStatsServlet extends HttpServlet {
      * Revenue aggregated by country
      */
     private void getRevenueByCountry(HttpServletResponse response) throws IOException {
-        List<Object[]> data = transactionDAO.getRevenueByCountry();
-        
-        // Convert to structured format
-        List<Map<String, Object>> result = data.stream().map(row -> {
-            Map<String, Object> map = new HashMap<>();
-            map.put("pays", row[0]);
-            map.put("totalRevenue", row[1]);
-            map.put("averageAmount", row[2]);
-            map.put("transactionCount", row[3]);
-            return map;
-        }).toList();
+        List<Map<String, Object>> result = revenueRows(statsService.getRevenueByCountry(), "pays");
         
         ApiResponse<List<Map<String, Object>>> apiResponse = ApiResponse.success(result);
         apiResponse.setCount(result.size());
-        objectMapper.writeValue(response.getWriter(), apiResponse);
+        writeVersioned(response, apiResponse);
     }
 
     /**
      * Revenue aggregated by category
      */
     private void getRevenueByCategory(HttpServletResponse response) throws IOException {
-        List<Object[]> data = transactionDAO.getRevenueByCategory();
-        
-        List<Map<String, Object>> result = data.stream().map(row -> {
-            Map<String, Object> map = new HashMap<>();
-            map.put("categorie", row[0]);
-            map.put("totalRevenue", row[1]);
-            map.put("averageAmount", row[2]);
-            map.put("transactionCount", row[3]);
-            return map;
-        }).toList();
+        List<Map<String, Object>> result = revenueRows(statsService.getRevenueByCategory(), "categorie");
         
         ApiResponse<List<Map<String, Object>>> apiResponse = ApiResponse.success(result);
         apiResponse.setCount(result.size());
-        objectMapper.writeValue(response.getWriter(), apiResponse);
+        writeVersioned(response, apiResponse);
     }
 
     /**
@@ -157,42 +271,24 @@ public class ApiStatsServlet extends HttpServlet {
         if (limitParam != null && !limitParam.isEmpty()) {
             limit = Integer.parseInt(limitParam);
         }
+        limit = Math.max(1, Math.min(limit, AppConfig.getInt("stats.topClients.maxLimit", 100)));
         
-        List<Object[]> data = transactionDAO.getTopClients(limit);
-        
-        List<Map<String, Object>> result = data.stream().map(row -> {
-            Map<String, Object> map = new HashMap<>();
-            map.put("nom", row[0]);
-            map.put("prenom", row[1]);
-            map.put("pays", row[2]);
-            map.put("totalSpent", row[3]);
-            map.put("transactionCount", row[4]);
-            return map;
-        }).toList();
+        List<Map<String, Object>> result = topClientRows(statsService.getTopClients(limit));
         
         ApiResponse<List<Map<String, Object>>> apiResponse = ApiResponse.success(result);
         apiResponse.setCount(result.size());
-        objectMapper.writeValue(response.getWriter(), apiResponse);
+        writeVersioned(response, apiResponse);
     }
 
     /**
      * Sales aggregated by month
      */
     private void getSalesByMonth(HttpServletResponse response) throws IOException {
-        List<Object[]> data = transactionDAO.getSalesByMonth();
-        
-        List<Map<String, Object>> result = data.stream().map(row -> {
-            Map<String, Object> map = new HashMap<>();
-            map.put("year", row[0]);
-            map.put("month", row[1]);
-            map.put("totalRevenue", row[2]);
-            map.put("transactionCount", row[3]);
-            return map;
-        }).toList();
+        List<Map<String, Object>> result = monthRows(statsService.getSalesByMonth());
         
         ApiResponse<List<Map<String, Object>>> apiResponse = ApiResponse.success(result);
         apiResponse.setCount(result.size());
-        objectMapper.writeValue(response.getWriter(), apiResponse);
+        writeVersioned(response, apiResponse);
     }
 
     /**
@@ -206,56 +302,312 @@ public class ApiStatsServlet extends HttpServlet {
         if (daysParam != null && !daysParam.isEmpty()) {
             days = Integer.parseInt(daysParam);
         }
+        // Part of the stats cache key: bounded like top-clients' limit
+        days = Math.max(1, Math.min(days, AppConfig.getInt("stats.salesByDay.maxDays", 366)));
         
-        List<Object[]> data = transactionDAO.getSalesByDay(days);
-        
-        List<Map<String, Object>> result = data.stream().map(row -> {
-            Map<String, Object> map = new HashMap<>();
-            map.put("date", row[0]);
-            map.put("totalRevenue", row[1]);
-            map.put("transactionCount", row[2]);
-            return map;
-        }).toList();
+        List<Map<String, Object>> result = dayRows(statsService.getSalesByDay(days));
         
         ApiResponse<List<Map<String, Object>>> apiResponse = ApiResponse.success(result);
         apiResponse.setCount(result.size());
-        objectMapper.writeValue(response.getWriter(), apiResponse);
+        writeVersioned(response, apiResponse);
     }
 
     /**
      * Client distribution by country
      */
     private void getClientsByCountry(HttpServletResponse response) throws IOException {
-        List<Object[]> data = clientDAO.countByCountry();
-        
-        List<Map<String, Object>> result = data.stream().map(row -> {
-            Map<String, Object> map = new HashMap<>();
-            map.put("pays", row[0]);
-            map.put("clientCount", row[1]);
-            return map;
-        }).toList();
+        List<Map<String, Object>> result = distributionRows(statsService.getClientsByCountry(), "pays");
         
         ApiResponse<List<Map<String, Object>>> apiResponse = ApiResponse.success(result);
         apiResponse.setCount(result.size());
-        objectMapper.writeValue(response.getWriter(), apiResponse);
+        writeVersioned(response, apiResponse);
     }
 
     /**
      * Client distribution by profession
      */
     private void getClientsByProfession(HttpServletResponse response) throws IOException {
-        List<Object[]> data = clientDAO.countByProfession();
+        List<Map<String, Object>> result = distributionRows(statsService.getClientsByProfession(), "profession");
         
-        List<Map<String, Object>> result = data.stream().map(row -> {
+        ApiResponse<List<Map<String, Object>>> apiResponse = ApiResponse.success(result);
+        apiResponse.setCount(result.size());
+        writeVersioned(response, apiResponse);
+    }
+
+    /**
+     * Distinct paying clients between from and to (default: the last 30 days)
+     * groupBy: none, pays/country, categorie/category or day/date
+     */
+    private void getUniqueClients(HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+
+        String groupBy;
+        LocalDate from;
+        LocalDate to;
+        try {
+            groupBy = parseGroupBy(request.getParameter("groupBy"));
+            String toParam = request.getParameter("to");
+            String fromParam = request.getParameter("from");
+            to = toParam != null && !toParam.isEmpty() ? LocalDate.parse(toParam) : LocalDate.now();
+            from = fromParam != null && !fromParam.isEmpty() ? LocalDate.parse(fromParam) : to.minusDays(29);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            objectMapper.writeValue(response.getWriter(), ApiResponse.error("Invalid parameter: " + e.getMessage()));
+            return;
+        }
+        if (from.isAfter(to)) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            objectMapper.writeValue(response.getWriter(), ApiResponse.error("'from' must not be after 'to'"));
+            return;
+        }
+
+        UniqueClientsStats stats;
+        try {
+            stats = statsService.getUniqueClients(groupBy, from, to);
+        } catch (RuntimeException e) {
+            if (!JpaUtil.isQueryTimeout(e)) {
+                throw e;
+            }
+            exactQueryTimedOut(response, "analytics.uniqueClients.enabled", "/api/admin/unique-clients");
+            return;
+        }
+        String key = groupBy == null ? null : groupBy.equals("day") ? "date" : groupBy;
+        List<Map<String, Object>> rows = stats.getRows().stream().map(row -> {
+            Map<String, Object> map = new LinkedHashMap<>();
+            if (key != null) {
+                map.put(key, row[0]);
+            }
+            map.put("uniqueClients", row[1]);
+            return map;
+        }).toList();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("groupBy", groupBy);
+        result.put("from", from);
+        result.put("to", to);
+        result.put("estimated", stats.isEstimated());
+        result.put("relativeError", stats.getRelativeError());
+        result.put("rows", rows);
+
+        ApiResponse<Map<String, Object>> apiResponse = ApiResponse.success(result);
+        apiResponse.setCount(rows.size());
+        writeVersioned(response, apiResponse);
+    }
+
+    /**
+     * Amount percentiles per category, e.g. ?categorie=Immobilier&p=50,90,99&from=2024-01&to=2024-06
+     * Default: p50, p90 and p99 of every category over all months
+     */
+    private void getAmountPercentiles(HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+
+        String categorie = request.getParameter("categorie");
+        if (categorie != null && categorie.trim().isEmpty()) {
+            categorie = null;
+        }
+        // Part of the stats cache key: only categories that exist are accepted
+        if (categorie != null && !isKnownCategorie(categorie.trim())) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            objectMapper.writeValue(response.getWriter(), ApiResponse.error("Unknown categorie: " + categorie));
+            return;
+        }
+        categorie = categorie != null ? categorie.trim() : null;
+        double[] percentiles;
+        YearMonth from;
+        YearMonth to;
+        try {
+            percentiles = parsePercentiles(request.getParameter("p"));
+            String fromParam = request.getParameter("from");
+            String toParam = request.getParameter("to");
+            from = fromParam != null && !fromParam.isEmpty() ? YearMonth.parse(fromParam) : null;
+            to = toParam != null && !toParam.isEmpty() ? YearMonth.parse(toParam) : null;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            objectMapper.writeValue(response.getWriter(), ApiResponse.error("Invalid parameter: " + e.getMessage()));
+            return;
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            objectMapper.writeValue(response.getWriter(), ApiResponse.error("'from' must not be after 'to'"));
+            return;
+        }
+
+        AmountPercentilesStats stats;
+        try {
+            stats = statsService.getAmountPercentiles(categorie, from, to, percentiles);
+        } catch (RuntimeException e) {
+            if (!JpaUtil.isQueryTimeout(e)) {
+                throw e;
+            }
+            exactQueryTimedOut(response, "analytics.amountPercentiles.enabled", "/api/admin/amount-percentiles");
+            return;
+        }
+        List<Map<String, Object>> rows = stats.getRows().stream().map(row -> {
+            double[] values = (double[]) row[2];
+            Map<String, Object> byPercentile = new LinkedHashMap<>();
+            for (int i = 0; i < percentiles.length; i++) {
+                byPercentile.put("p" + formatPercentile(percentiles[i]), Math.round(values[i] * 100) / 100.0);
+            }
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("categorie", row[0]);
+            map.put("transactionCount", row[1]);
+            map.put("percentiles", byPercentile);
+            return map;
+        }).toList();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("categorie", categorie);
+        result.put("from", from != null ? from.toString() : null);
+        result.put("to", to != null ? to.toString() : null);
+        result.put("estimated", stats.isEstimated());
+        result.put("rows", rows);
+
+        ApiResponse<Map<String, Object>> apiResponse = ApiResponse.success(result);
+        apiResponse.setCount(rows.size());
+        writeVersioned(response, apiResponse);
+    }
+
+    /**
+     * 503 when the exact database fallback of an in-memory index ran out of time
+     * (stats.exactQueryTimeoutMs): the index is off or not built yet
+     */
+    private void exactQueryTimedOut(HttpServletResponse response, String property, String statusPath)
+            throws IOException {
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        objectMapper.writeValue(response.getWriter(), ApiResponse.error(
+            "Exact database computation timed out: set " + property + "=true and retry once the index is built" +
+            " (GET " + statusPath + ")"));
+    }
+
+    /**
+     * "99,50,90,50" -> {50, 90, 99}; each in (0, 100], at most 20
+     * Rounded to 0.1, sorted and deduplicated: one stats cache key per distinct list
+     */
+    private static double[] parsePercentiles(String param) {
+        if (param == null || param.isEmpty()) {
+            return new double[] { 50, 90, 99 };
+        }
+        String[] parts = param.split(",");
+        if (parts.length > 20) {
+            throw new IllegalArgumentException("at most 20 percentiles");
+        }
+        TreeSet<Double> percentiles = new TreeSet<>();
+        for (String part : parts) {
+            double p = Math.round(Double.parseDouble(part.trim()) * 10) / 10.0;
+            if (!(p > 0 && p <= 100)) {
+                throw new IllegalArgumentException("percentiles must be in (0, 100]");
+            }
+            percentiles.add(p);
+        }
+        return percentiles.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+    /**
+     * Category present in the transactions (from the cached revenue by category)
+     */
+    private boolean isKnownCategorie(String categorie) {
+        for (Object[] row : statsService.getRevenueByCategory()) {
+            if (categorie.equals(row[0])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 50.0 -> "50", 99.9 -> "99.9"
+     */
+    private static String formatPercentile(double p) {
+        return p == Math.rint(p) ? Long.toString((long) p) : Double.toString(p);
+    }
+
+    private static String parseGroupBy(String groupBy) {
+        if (groupBy == null || groupBy.isEmpty() || groupBy.equals("none")) {
+            return null;
+        }
+        switch (groupBy) {
+            case "pays":
+            case "country":
+                return "pays";
+            case "categorie":
+            case "category":
+                return "categorie";
+            case "day":
+            case "date":
+                return "day";
+            default:
+                throw new IllegalArgumentException("groupBy must be pays, categorie or day");
+        }
+    }
+
+    // ==================== Row mapping (null rows = section unavailable) ====================
+
+    private static List<Map<String, Object>> revenueRows(List<Object[]> data, String key) {
+        if (data == null) {
+            return null;
+        }
+        return data.stream().map(row -> {
+            Map<String, Object> map = new HashMap<>();
+            map.put(key, row[0]);
+            map.put("totalRevenue", row[1]);
+            map.put("averageAmount", row[2]);
+            map.put("transactionCount", row[3]);
+            return map;
+        }).toList();
+    }
+
+    private static List<Map<String, Object>> topClientRows(List<Object[]> data) {
+        if (data == null) {
+            return null;
+        }
+        return data.stream().map(row -> {
+            Map<String, Object> map = new HashMap<>();
+            map.put("nom", row[0]);
+            map.put("prenom", row[1]);
+            map.put("pays", row[2]);
+            map.put("totalSpent", row[3]);
+            map.put("transactionCount", row[4]);
+            return map;
+        }).toList();
+    }
+
+    private static List<Map<String, Object>> monthRows(List<Object[]> data) {
+        if (data == null) {
+            return null;
+        }
+        return data.stream().map(row -> {
+            Map<String, Object> map = new HashMap<>();
+            map.put("year", row[0]);
+            map.put("month", row[1]);
+            map.put("totalRevenue", row[2]);
+            map.put("transactionCount", row[3]);
+            return map;
+        }).toList();
+    }
+
+    private static List<Map<String, Object>> dayRows(List<Object[]> data) {
+        if (data == null) {
+            return null;
+        }
+        return data.stream().map(row -> {
+            Map<String, Object> map = new HashMap<>();
+            map.put("date", row[0]);
+            map.put("totalRevenue", row[1]);
+            map.put("transactionCount", row[2]);
+            return map;
+        }).toList();
+    }
+
+    private static List<Map<String, Object>> distributionRows(List<Object[]> data, String key) {
+        if (data == null) {
+            return null;
+        }
+        return data.stream().map(row -> {
             Map<String, Object> map = new HashMap<>();
-            map.put("profession", row[0]);
+            map.put(key, row[0]);
             map.put("clientCount", row[1]);
             return map;
         }).toList();
-        
-        ApiResponse<List<Map<String, Object>>> apiResponse = ApiResponse.success(result);
-        apiResponse.setCount(result.size());
-        objectMapper.writeValue(response.getWriter(), apiResponse);
     }
 
     /**
@@ -266,7 +618,7 @@ public class ApiStatsServlet extends HttpServlet {
             throws ServletException, IOException {
         response.setHeader("Access-Control-Allow-Origin", "*");
         response.setHeader("Access-Control-Allow-Methods", "GET, OPTIONS");
-        response.setHeader("Access-Control-Allow-Headers", "Content-Type");
+        response.setHeader("Access-Control-Allow-Headers", "Content-Type, If-None-Match, If-Modified-Since");
         response.setStatus(HttpServletResponse.SC_OK);
     }
 }
\ No newline at end of file
@@ -1,13 +1,21 @@
 package com.datainsight.api;
 
-import com.datainsight.dao.ClientDAO;
+import com.datainsight.cache.ClientCache;
+import com.datainsight.dao.TransactionCursor;
 import com.datainsight.dao.TransactionDAO;
 import com.datainsight.dto.ApiResponse;
+import com.datainsight.dto.BatchItemResult;
+import com.datainsight.dto.ClientSummary;
 import com.datainsight.dto.TransactionDTO;
+import com.datainsight.ingest.IngestQueue;
 import com.datainsight.model.Client;
 import com.datainsight.model.Transaction;
+import com.datainsight.util.AppConfig;
+import com.datainsight.util.JsonUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
@@ -15,28 +23,46 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
  * REST API for Transaction operations
  * Base URL: /api/transactions
  */
-@WebServlet("/api/transactions/*")
+@WebServlet(urlPatterns = "/api/transactions/*", loadOnStartup = 1)
 public class ApiTransactionServlet extends HttpServlet {
 
+    private static final int MAX_LIMIT = 1000;
+    private static final int EXPORT_FLUSH_ROWS = 1000;
+    private static final String CSV_HEADER =
+        "id,date,montant,categorie,description,modePaiement,referenceTransaction," +
+        "clientId,clientNom,clientPrenom,clientPays\r\n";
+    private static final int DEFAULT_BATCH_MAX_ITEMS = 5000;
+
     private TransactionDAO transactionDAO;
-    private ClientDAO clientDAO;
+    private ClientCache clientCache;
     private ObjectMapper objectMapper;
 
     @Override
     public void init() throws ServletException {
         transactionDAO = new TransactionDAO();
-        clientDAO = new ClientDAO();
-        objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
+        clientCache = ClientCache.getInstance();
+        objectMapper = JsonUtil.getObjectMapper();
         System.out.println("✓ ApiTransactionServlet initialized");
     }
 
@@ -46,7 +72,10 @@ public class ApiTransactionServlet extends HttpServlet {
      * /api/transactions/{id} - single transaction
      * /api/transactions?categorie={cat} - filter by category
      * /api/transactions?clientId={id} - filter by client
+     * /api/transactions?from={date}&to={date} - filter by date range
      * /api/transactions?limit={n} - limit results
+     * /api/transactions?cursor={nextCursor} - next page (keyset pagination)
+     * /api/transactions/export?from={date}&to={date}&format=ndjson|csv - streaming export
      */
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response)
@@ -58,17 +87,29 @@ public class ApiTransactionServlet extends HttpServlet {
         // CORS
         response.setHeader("Access-Control-Allow-Origin", "*");
         response.setHeader("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
-        response.setHeader("Access-Control-Allow-Headers", "Content-Type");
+        response.setHeader("Access-Control-Allow-Headers", "Content-Type, If-None-Match, If-Modified-Since");
 
         try {
             String pathInfo = request.getPathInfo();
+            if ("/export".equals(pathInfo)) {
+                exportTransactions(request, response);
+                return;
+            }
+
+            // Unchanged since the client's copy: 304 without querying
+            if (HttpCaching.checkNotModified(request, response, null)) {
+                return;
+            }
+
             String categorie = request.getParameter("categorie");
             String clientIdParam = request.getParameter("clientId");
+            String fromParam = request.getParameter("from");
+            String toParam = request.getParameter("to");
             String limitParam = request.getParameter("limit");
 
             int limit = 100; // Default
             if (limitParam != null && !limitParam.isEmpty()) {
-                limit = Integer.parseInt(limitParam);
+                limit = Math.max(1, Math.min(Integer.parseInt(limitParam), MAX_LIMIT));
             }
 
             if (pathInfo != null && pathInfo.length() > 1) {
@@ -85,45 +126,50 @@ public class ApiTransactionServlet extends HttpServlet {
                     ApiResponse<String> apiResponse = ApiResponse.error("Transaction not found");
                     objectMapper.writeValue(response.getWriter(), apiResponse);
                 }
-            } else if (clientIdParam != null && !clientIdParam.isEmpty()) {
+                return;
+            }
+
+            TransactionCursor cursor = TransactionCursor.decode(request.getParameter("cursor"));
+            List<Transaction> transactions;
+
+            if (clientIdParam != null && !clientIdParam.isEmpty()) {
                 // Filter by client
                 Long clientId = Long.parseLong(clientIdParam);
-                List<Transaction> transactions = transactionDAO.findByClient(clientId);
-                List<TransactionDTO> dtos = transactions.stream()
-                        .map(TransactionDTO::fromEntity)
-                        .collect(Collectors.toList());
-                
-                ApiResponse<List<TransactionDTO>> apiResponse = ApiResponse.success(dtos);
-                apiResponse.setCount(dtos.size());
-                objectMapper.writeValue(response.getWriter(), apiResponse);
-                
+                transactions = transactionDAO.findByClient(clientId, cursor, limit);
             } else if (categorie != null && !categorie.isEmpty()) {
                 // Filter by category
-                List<Transaction> transactions = transactionDAO.findByCategorie(categorie, limit);
-                List<TransactionDTO> dtos = transactions.stream()
-                        .map(TransactionDTO::fromEntity)
-                        .collect(Collectors.toList());
-                
-                ApiResponse<List<TransactionDTO>> apiResponse = ApiResponse.success(dtos);
-                apiResponse.setCount(dtos.size());
-                objectMapper.writeValue(response.getWriter(), apiResponse);
-                
+                transactions = transactionDAO.findByCategorie(categorie, cursor, limit);
+            } else if (fromParam != null && !fromParam.isEmpty() &&
+                       toParam != null && !toParam.isEmpty()) {
+                // Filter by date range
+                transactions = transactionDAO.findByDateRange(
+                    LocalDate.parse(fromParam), LocalDate.parse(toParam), cursor, limit);
             } else {
                 // GET recent transactions
-                List<Transaction> transactions = transactionDAO.findRecent(limit);
-                List<TransactionDTO> dtos = transactions.stream()
-                        .map(TransactionDTO::fromEntity)
-                        .collect(Collectors.toList());
-                
-                ApiResponse<List<TransactionDTO>> apiResponse = ApiResponse.success(dtos);
-                apiResponse.setCount(dtos.size());
-                objectMapper.writeValue(response.getWriter(), apiResponse);
+                transactions = transactionDAO.findRecent(cursor, limit);
             }
 
-        } catch (NumberFormatException e) {
+            List<TransactionDTO> dtos = transactions.stream()
+                    .map(TransactionDTO::fromEntity)
+                    .collect(Collectors.toList());
+
+            ApiResponse<List<TransactionDTO>> apiResponse = ApiResponse.success(dtos);
+            apiResponse.setCount(dtos.size());
+            if (transactions.size() == limit) {
+                // Full page: there may be more rows after the last one
+                Transaction last = transactions.get(transactions.size() - 1);
+                apiResponse.setNextCursor(TransactionCursor.after(last).encode());
+            }
+            objectMapper.writeValue(response.getWriter(), apiResponse);
+
+        } catch (NumberFormatException | DateTimeParseException e) {
             response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
             ApiResponse<String> apiResponse = ApiResponse.error("Invalid parameter format");
             objectMapper.writeValue(response.getWriter(), apiResponse);
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            ApiResponse<String> apiResponse = ApiResponse.error(e.getMessage());
+            objectMapper.writeValue(response.getWriter(), apiResponse);
         } catch (Exception e) {
             response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             ApiResponse<String> apiResponse = ApiResponse.error("Server error: " + e.getMessage());
@@ -131,6 +177,108 @@ public class ApiTransactionServlet extends HttpServlet {
         }
     }
 
+    /**
+     * Streaming export of a date range as NDJSON (default) or CSV
+     * Rows are written to the output stream as they are read from the cursor,
+     * so the first bytes leave before the query has finished. A failure after the
+     * first rows cannot change the 200 status any more: the body then ends with an
+     * error record ({"success":false,...} line in NDJSON, "#ERROR" line in CSV).
+     */
+    private void exportTransactions(HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+
+        String fromParam = request.getParameter("from");
+        String toParam = request.getParameter("to");
+        String format = request.getParameter("format");
+        boolean csv = "csv".equalsIgnoreCase(format);
+
+        if (fromParam == null || fromParam.isEmpty() || toParam == null || toParam.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            ApiResponse<String> apiResponse = ApiResponse.error("Missing required parameters: from, to");
+            objectMapper.writeValue(response.getWriter(), apiResponse);
+            return;
+        }
+        if (format != null && !format.isEmpty() && !csv && !"ndjson".equalsIgnoreCase(format)) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            ApiResponse<String> apiResponse = ApiResponse.error("Unsupported format (ndjson, csv)");
+            objectMapper.writeValue(response.getWriter(), apiResponse);
+            return;
+        }
+
+        LocalDate from = LocalDate.parse(fromParam);
+        LocalDate to = LocalDate.parse(toParam);
+
+        response.setContentType(csv ? "text/csv" : "application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Content-Disposition",
+            "attachment; filename=\"transactions-" + from + "-" + to + (csv ? ".csv" : ".ndjson") + "\"");
+
+        Writer writer = new BufferedWriter(
+            new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8), 64 * 1024);
+
+        long[] written = {0};
+        try {
+            transactionDAO.streamByDateRange(from, to, dto -> {
+                try {
+                    if (csv && written[0] == 0) {
+                        writer.write(CSV_HEADER);
+                    }
+                    writer.write(csv ? toCsvLine(dto) : objectMapper.writeValueAsString(dto) + "\n");
+                    if (++written[0] % EXPORT_FLUSH_ROWS == 1) {
+                        writer.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (csv && written[0] == 0) {
+                writer.write(CSV_HEADER);
+            }
+            writer.flush();
+        } catch (UncheckedIOException e) {
+            // Client went away mid-export: the DAO has cancelled the query
+            System.err.println("✗ Export aborted after " + written[0] + " rows: " + e.getMessage());
+        } catch (RuntimeException e) {
+            System.err.println("✗ Export failed after " + written[0] + " rows: " + e.getMessage());
+            if (written[0] == 0 && !response.isCommitted()) {
+                // Nothing sent yet: still possible to answer with a proper error
+                response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                response.setContentType("application/json");
+                writer.write(objectMapper.writeValueAsString(
+                    ApiResponse.error("Export failed: " + e.getMessage())));
+                writer.flush();
+            } else {
+                // Rows already sent: mark the body as truncated
+                String message = "Export incomplete: failed after " + written[0] + " rows: " + e.getMessage();
+                writer.write(csv ? "#ERROR," + csvField(message) + "\r\n"
+                                 : objectMapper.writeValueAsString(ApiResponse.error(message)) + "\n");
+                writer.flush();
+            }
+        }
+    }
+
+    /**
+     * One CSV record (RFC 4180 quoting)
+     */
+    private String toCsvLine(TransactionDTO dto) {
+        return dto.getId() + "," + dto.getDate() + "," + dto.getMontant() + "," +
+               csvField(dto.getCategorie()) + "," + csvField(dto.getDescription()) + "," +
+               csvField(dto.getModePaiement()) + "," + csvField(dto.getReferenceTransaction()) + "," +
+               dto.getClientId() + "," + csvField(dto.getClientNom()) + "," +
+               csvField(dto.getClientPrenom()) + "," + csvField(dto.getClientPays()) + "\r\n";
+    }
+
+    private String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 ||
+            value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
     /**
      * POST: Create new transaction
      * Body: JSON TransactionDTO
@@ -146,24 +294,31 @@ public class ApiTransactionServlet extends HttpServlet {
         response.setHeader("Access-Control-Allow-Origin", "*");
 
         try {
+            if ("/batch".equals(request.getPathInfo())) {
+                ingestBatch(request, response);
+                return;
+            }
+
             // Read JSON body
             BufferedReader reader = request.getReader();
             TransactionDTO dto = objectMapper.readValue(reader, TransactionDTO.class);
 
             // Validate
-            if (dto.getClientId() == null ||
-                dto.getDate() == null ||
-                dto.getMontant() == null ||
-                dto.getCategorie() == null || dto.getCategorie().trim().isEmpty()) {
+            String invalid = validate(dto);
+            if (invalid != null) {
                 response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
-                ApiResponse<String> apiResponse = ApiResponse.error(
-                    "Missing required fields: clientId, date, montant, categorie");
+                ApiResponse<String> apiResponse = ApiResponse.error(invalid);
                 objectMapper.writeValue(response.getWriter(), apiResponse);
                 return;
             }
 
-            // Find client
-            Client client = clientDAO.findById(dto.getClientId());
+            if (IngestQueue.isEnabled()) {
+                enqueueTransaction(dto, response);
+                return;
+            }
+
+            // Check client (cached summary, no EntityManager on a hit)
+            ClientSummary client = clientCache.get(dto.getClientId());
             if (client == null) {
                 response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
                 ApiResponse<String> apiResponse = ApiResponse.error("Client not found");
@@ -172,21 +327,11 @@ public class ApiTransactionServlet extends HttpServlet {
             }
 
             // Create entity
-            Transaction transaction = new Transaction(
-                dto.getDate(),
-                dto.getMontant(),
-                dto.getCategorie(),
-                dto.getDescription(),
-                client
-            );
-            
-            if (dto.getModePaiement() != null) {
-                transaction.setModePaiement(dto.getModePaiement());
-            }
+            Transaction transaction = toEntity(dto, null);
 
-            // Save
-            Transaction saved = transactionDAO.create(transaction);
-            TransactionDTO resultDto = TransactionDTO.fromEntity(saved);
+            // Save (client attached by reference, no SELECT)
+            Transaction saved = transactionDAO.create(transaction, client.getId());
+            TransactionDTO resultDto = TransactionDTO.fromEntity(saved, client);
 
             response.setStatus(HttpServletResponse.SC_CREATED);
             ApiResponse<TransactionDTO> apiResponse = ApiResponse.success("Transaction created", resultDto);
@@ -199,6 +344,173 @@ public class ApiTransactionServlet extends HttpServlet {
         }
     }
 
+    /**
+     * Async mode: queue the transaction for group commit and answer 202 with its reference
+     * (429 + Retry-After when the ingest buffer is full)
+     */
+    private void enqueueTransaction(TransactionDTO dto, HttpServletResponse response)
+            throws IOException {
+
+        if (clientCache.get(dto.getClientId()) == null) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            objectMapper.writeValue(response.getWriter(), ApiResponse.error("Client not found"));
+            return;
+        }
+
+        // Detached stub: the FK needs the id, not the client row
+        Client client = new Client();
+        client.setId(dto.getClientId());
+        Transaction transaction = toEntity(dto, client);
+
+        if (!IngestQueue.getInstance().submit(transaction)) {
+            response.setStatus(429); // Too Many Requests
+            response.setHeader("Retry-After",
+                String.valueOf(AppConfig.getInt("ingest.async.retryAfterSeconds", 1)));
+            objectMapper.writeValue(response.getWriter(),
+                ApiResponse.error("Ingest queue full, retry later"));
+            return;
+        }
+
+        Map<String, Object> accepted = new LinkedHashMap<>();
+        accepted.put("referenceTransaction", transaction.getReferenceTransaction());
+        accepted.put("status", "queued");
+        response.setStatus(HttpServletResponse.SC_ACCEPTED);
+        objectMapper.writeValue(response.getWriter(), ApiResponse.success("Transaction queued", accepted));
+    }
+
+    /**
+     * POST /api/transactions/batch - JSON array or NDJSON body of up to
+     * ingest.batch.maxItems transactions.
+     * Items are bound one at a time from the stream (no tree of the whole body),
+     * client IDs are checked in ClientCache (misses: one IN query) and valid rows are inserted in
+     * JDBC batches in a single commit. The response lists every item's outcome.
+     */
+    private void ingestBatch(HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+
+        int maxItems = AppConfig.getInt("ingest.batch.maxItems", DEFAULT_BATCH_MAX_ITEMS);
+        List<TransactionDTO> items = new ArrayList<>();
+        List<BatchItemResult> results = new ArrayList<>();
+
+        // readValues walks the elements of a top-level array or a sequence of root values
+        try (InputStream in = request.getInputStream();
+             MappingIterator<TransactionDTO> it =
+                 objectMapper.readerFor(TransactionDTO.class).readValues(in)) {
+            while (it.hasNextValue()) {
+                if (items.size() >= maxItems) {
+                    response.setStatus(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+                    objectMapper.writeValue(response.getWriter(),
+                        ApiResponse.error("Batch too large: at most " + maxItems + " transactions"));
+                    return;
+                }
+                try {
+                    items.add(it.nextValue());
+                } catch (JsonMappingException e) {
+                    // Bad field in one item: record it, the iterator skips to the next value
+                    results.add(BatchItemResult.failed(items.size(), "Invalid transaction: " +
+                        e.getOriginalMessage()));
+                    items.add(null);
+                }
+            }
+        } catch (JsonProcessingException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            objectMapper.writeValue(response.getWriter(),
+                ApiResponse.error("Malformed JSON at item " + items.size() + ": " + e.getOriginalMessage()));
+            return;
+        }
+
+        if (items.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            objectMapper.writeValue(response.getWriter(), ApiResponse.error("Empty batch"));
+            return;
+        }
+
+        // Validate and collect the referenced clients
+        Set<Long> clientIds = new HashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            TransactionDTO dto = items.get(i);
+            if (dto == null) {
+                continue;
+            }
+            String invalid = validate(dto);
+            if (invalid != null) {
+                results.add(BatchItemResult.failed(i, invalid));
+                items.set(i, null);
+            } else {
+                clientIds.add(dto.getClientId());
+            }
+        }
+        Map<Long, ClientSummary> existing = clientCache.getAll(clientIds);
+
+        List<Transaction> transactions = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            TransactionDTO dto = items.get(i);
+            if (dto == null) {
+                continue;
+            }
+            if (!existing.containsKey(dto.getClientId())) {
+                results.add(BatchItemResult.failed(i, "Client not found: " + dto.getClientId()));
+                continue;
+            }
+            // Detached stub: the FK needs the id, not the client row
+            Client client = new Client();
+            client.setId(dto.getClientId());
+            transactions.add(toEntity(dto, client));
+            indexes.add(i);
+        }
+
+        transactionDAO.insertAll(transactions);
+        for (int k = 0; k < transactions.size(); k++) {
+            Transaction saved = transactions.get(k);
+            results.add(BatchItemResult.created(indexes.get(k), saved.getId(),
+                                                saved.getReferenceTransaction()));
+        }
+        results.sort((a, b) -> Integer.compare(a.getIndex(), b.getIndex()));
+
+        int failed = results.size() - transactions.size();
+        if (transactions.isEmpty() && failed > 0) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        } else if (failed == 0) {
+            response.setStatus(HttpServletResponse.SC_CREATED);
+        }
+        ApiResponse<List<BatchItemResult>> apiResponse = ApiResponse.success(
+            transactions.size() + " transaction(s) created, " + failed + " rejected", results);
+        apiResponse.setSuccess(failed == 0);
+        apiResponse.setCount(results.size());
+        objectMapper.writeValue(response.getWriter(), apiResponse);
+    }
+
+    /**
+     * Required-field check shared by single and batch POST (null = valid)
+     */
+    private static String validate(TransactionDTO dto) {
+        if (dto.getClientId() == null ||
+            dto.getDate() == null ||
+            dto.getMontant() == null ||
+            dto.getCategorie() == null || dto.getCategorie().trim().isEmpty()) {
+            return "Missing required fields: clientId, date, montant, categorie";
+        }
+        return null;
+    }
+
+    /**
+     * Build a new Transaction entity from a request DTO
+     */
+    private static Transaction toEntity(TransactionDTO dto, Client client) {
+        Transaction transaction = new Transaction(
+            dto.getDate(),
+            dto.getMontant(),
+            dto.getCategorie(),
+            dto.getDescription(),
+            client
+        );
+        if (dto.getModePaiement() != null) {
+            transaction.setModePaiement(dto.getModePaiement());
+        }
+        return transaction;
+    }
+
     /**
      * DELETE: Remove transaction
      * URL: /api/transactions/{id}
@@ -258,7 +570,7 @@ public class ApiTransactionServlet extends HttpServlet {
             throws ServletException, IOException {
         response.setHeader("Access-Control-Allow-Origin", "*");
         response.setHeader("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
-        response.setHeader("Access-Control-Allow-Headers", "Content-Type");
+        response.setHeader("Access-Control-Allow-Headers", "Content-Type, If-None-Match, If-Modified-Since");
         response.setStatus(HttpServletResponse.SC_OK);
     }
 }
\ No newline at end of file
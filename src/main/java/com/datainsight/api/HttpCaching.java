@@ -0,0 +1,103 @@
+package com.datainsight.api;
+
+import com.datainsight.cache.DataVersion;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Conditional GET support (ETag / Last-Modified / 304) based on DataVersion
+ * A representation is tagged with the data version it was computed from, so
+ * validating a poll costs one counter read - no query, no serialization.
+ * Tags are weak (the body carries a timestamp) and include the instance start,
+ * since the version counter restarts at 0 with the application.
+ */
+final class HttpCaching {
+
+    private static final String INSTANCE = Long.toString(System.currentTimeMillis(), 36);
+
+    // Private constructor - static utility
+    private HttpCaching() {}
+
+    /**
+     * Weak ETag for a data version; variant distinguishes representations that
+     * also depend on something else (e.g. the current date), may be null
+     */
+    static String etag(long version, String variant) {
+        return "W/\"" + INSTANCE + "-" + version + (variant != null ? "-" + variant : "") + "\"";
+    }
+
+    /**
+     * Answer 304 when the client already has the representation of the current
+     * data version; otherwise set the validators and return false (write the body)
+     */
+    static boolean checkNotModified(HttpServletRequest request, HttpServletResponse response, String variant) {
+        long version = DataVersion.current();
+        if (isNotModified(request, version, variant)) {
+            notModified(response, version, variant);
+            return true;
+        }
+        setValidators(response, version, variant);
+        return false;
+    }
+
+    /**
+     * True when If-None-Match (or, without it, If-Modified-Since) matches the given version
+     */
+    static boolean isNotModified(HttpServletRequest request, long version, String variant) {
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            String etag = etag(version, variant);
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.equals("*") || tag.equals(etag) || ("W/" + tag).equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long lastModified = lastModified(version);
+        if (lastModified < 0) {
+            return false;
+        }
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = request.getDateHeader("If-Modified-Since");
+        } catch (IllegalArgumentException e) {
+            return false; // unparseable date: ignore the condition
+        }
+        return ifModifiedSince >= 0 && lastModified / 1000 * 1000 <= ifModifiedSince;
+    }
+
+    /**
+     * ETag (and Last-Modified when it is safe) for a representation of the given version
+     * Must be called before the body is written.
+     */
+    static void setValidators(HttpServletResponse response, long version, String variant) {
+        response.setHeader("ETag", etag(version, variant));
+        // Cached copies must be revalidated on every use; let browser scripts read the validators
+        response.setHeader("Cache-Control", "no-cache");
+        response.setHeader("Access-Control-Expose-Headers", "ETag, Last-Modified");
+        long lastModified = lastModified(version);
+        if (lastModified >= 0) {
+            response.setDateHeader("Last-Modified", lastModified);
+        }
+    }
+
+    static void notModified(HttpServletResponse response, long version, String variant) {
+        setValidators(response, version, variant);
+        response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+    }
+
+    /**
+     * Time of the write that produced this version, or -1 when it cannot be used:
+     * the version is no longer current, or it is less than a second old (Last-Modified
+     * has one-second precision, so a second write in the same second would be missed)
+     */
+    private static long lastModified(long version) {
+        long lastModified = DataVersion.lastModified();
+        if (DataVersion.current() != version || System.currentTimeMillis() - lastModified < 1000) {
+            return -1;
+        }
+        return lastModified;
+    }
+}
@@ -0,0 +1,177 @@
+package com.datainsight.cache;
+
+import com.datainsight.dao.ClientDAO;
+import com.datainsight.dto.ClientSummary;
+import com.datainsight.util.AppConfig;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded in-process cache of ClientSummary by id
+ * Used on the insert path to check that a client exists (and get its display
+ * fields) without opening an EntityManager. Striped LRU: each stripe is an
+ * access-ordered LinkedHashMap with its own lock, so readers of different ids
+ * rarely contend. Only existing clients are cached; ClientDAO invalidates
+ * entries on update and delete.
+ */
+public final class ClientCache {
+
+    private static final int STRIPES = 16; // power of two
+    private static final ClientCache INSTANCE =
+        new ClientCache(AppConfig.getInt("cache.clients.maxSize", 10000));
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final int maxSize;
+    private final ClientDAO clientDAO = new ClientDAO();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private ClientCache(int maxSize) {
+        this.maxSize = Math.max(STRIPES, maxSize);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(this.maxSize / STRIPES);
+        }
+    }
+
+    public static ClientCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Client summary, loaded on miss - null when the client does not exist
+     */
+    public ClientSummary get(Long id) {
+        Stripe stripe = stripeFor(id);
+        long version;
+        synchronized (stripe) {
+            ClientSummary cached = stripe.map.get(id);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+            version = stripe.version;
+        }
+        misses.increment();
+
+        ClientSummary loaded = clientDAO.findSummary(id);
+        if (loaded != null) {
+            stripe.putIfCurrent(id, loaded, version);
+        }
+        return loaded;
+    }
+
+    /**
+     * Summaries of the given ids that exist - all misses are loaded with one IN query
+     */
+    public Map<Long, ClientSummary> getAll(Collection<Long> ids) {
+        Map<Long, ClientSummary> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        Map<Stripe, Long> versions = new HashMap<>();
+
+        for (Long id : ids) {
+            Stripe stripe = stripeFor(id);
+            synchronized (stripe) {
+                ClientSummary cached = stripe.map.get(id);
+                if (cached != null) {
+                    found.put(id, cached);
+                } else {
+                    missing.add(id);
+                    versions.putIfAbsent(stripe, stripe.version);
+                }
+            }
+        }
+        hits.add(found.size());
+        misses.add(missing.size());
+
+        if (!missing.isEmpty()) {
+            for (ClientSummary loaded : clientDAO.findSummaries(missing)) {
+                Stripe stripe = stripeFor(loaded.getId());
+                stripe.putIfCurrent(loaded.getId(), loaded, versions.get(stripe));
+                found.put(loaded.getId(), loaded);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Drop one client (after update or delete)
+     */
+    public void invalidate(Long id) {
+        Stripe stripe = stripeFor(id);
+        synchronized (stripe) {
+            stripe.map.remove(id);
+            stripe.version++;
+        }
+    }
+
+    /**
+     * Drop everything
+     */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.map.clear();
+                stripe.version++;
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.map.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Hit/miss counters and occupancy
+     */
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size());
+        stats.put("maxSize", maxSize);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRatio", hitCount + missCount > 0 ? (double) hitCount / (hitCount + missCount) : 0.0);
+        return stats;
+    }
+
+    private Stripe stripeFor(Long id) {
+        long h = id * 0x9E3779B97F4A7C15L; // spread sequential ids across stripes
+        return stripes[(int) (h >>> 60) & (STRIPES - 1)];
+    }
+
+    /**
+     * One LRU segment; version changes on every invalidation so a load that
+     * raced with an update/delete is not cached
+     */
+    private static final class Stripe {
+        private final LinkedHashMap<Long, ClientSummary> map;
+        private long version;
+
+        Stripe(int capacity) {
+            this.map = new LinkedHashMap<>(capacity * 4 / 3 + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, ClientSummary> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+
+        synchronized void putIfCurrent(Long id, ClientSummary summary, long expectedVersion) {
+            if (version == expectedVersion) {
+                map.put(id, summary);
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.datainsight.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Global data version - bumped by the DAOs after every committed write
+ * Cached analytics computed under an older version are stale.
+ */
+public final class DataVersion {
+
+    private static final AtomicLong version = new AtomicLong();
+    private static volatile long lastModified = System.currentTimeMillis();
+
+    // Private constructor - static utility
+    private DataVersion() {}
+
+    public static long current() {
+        return version.get();
+    }
+
+    /**
+     * Time of the last write (epoch ms), or of application start
+     */
+    public static long lastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Version first: a reader that sees lastModified of this write also sees its version
+     */
+    public static void bump() {
+        version.incrementAndGet();
+        lastModified = System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,226 @@
+package com.datainsight.cache;
+
+import com.datainsight.util.AppConfig;
+import com.datainsight.util.JpaUtil;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Cache of analytics results keyed by query name and parameters
+ * An entry is fresh while DataVersion has not moved since it was computed.
+ * Stale entries are either recomputed by the caller or, with stale-while-revalidate,
+ * served as is while a single background refresh runs (bounded by maxStaleMs).
+ * Concurrent misses of one key share a single computation. At most maxEntries keys
+ * are kept: the least recently used one is dropped to make room.
+ */
+public final class StatsCache {
+
+    private static final StatsCache INSTANCE = new StatsCache();
+    // Oldest data version handed out on the current thread (see servedVersion)
+    private static final ThreadLocal<long[]> oldestServed = ThreadLocal.withInitial(() -> new long[] { Long.MAX_VALUE });
+
+    private final boolean enabled = AppConfig.getBoolean("stats.cache.enabled", true);
+    private final boolean staleWhileRevalidate = AppConfig.getBoolean("stats.cache.staleWhileRevalidate", true);
+    private final long maxStaleMs = AppConfig.getLong("stats.cache.maxStaleMs", 60000);
+    private final int maxEntries = AppConfig.getInt("stats.cache.maxEntries", 256);
+
+    // Access-ordered LRU, guarded by itself
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            if (size() > maxEntries) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    };
+    private final ConcurrentHashMap<String, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor refresher;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private StatsCache() {
+        refresher = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(64), task -> {
+            Thread thread = new Thread(task, "stats-cache-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.allowCoreThreadTimeOut(true);
+    }
+
+    public static StatsCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Stop background refreshes (application shutdown)
+     */
+    public static void shutdown() {
+        INSTANCE.refresher.shutdownNow();
+    }
+
+    /**
+     * Start tracking the data version of the results returned to this thread
+     */
+    public static void resetServedVersion() {
+        oldestServed.get()[0] = Long.MAX_VALUE;
+    }
+
+    /**
+     * Oldest DataVersion among the results returned to this thread since the last
+     * reset (Long.MAX_VALUE if none) - lower than current when a stale value was served
+     */
+    public static long servedVersion() {
+        return oldestServed.get()[0];
+    }
+
+    private static void served(long version) {
+        long[] oldest = oldestServed.get();
+        if (version < oldest[0]) {
+            oldest[0] = version;
+        }
+    }
+
+    /**
+     * Cached value of the key, computed with the loader when missing or stale
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Supplier<T> loader) {
+        if (!enabled) {
+            long version = DataVersion.current();
+            T value = loader.get();
+            served(Math.min(version, JpaUtil.requestSnapshotVersion()));
+            return value;
+        }
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry != null) {
+            if (entry.version == DataVersion.current()) {
+                hits.increment();
+                served(entry.version);
+                return (T) entry.value;
+            }
+            if (staleWhileRevalidate && System.currentTimeMillis() - entry.computedAt <= maxStaleMs) {
+                staleHits.increment();
+                refreshInBackground(key, loader);
+                served(entry.version);
+                return (T) entry.value;
+            }
+        }
+        misses.increment();
+        Entry loaded = load(key, loader);
+        served(loaded.version);
+        return (T) loaded.value;
+    }
+
+    /**
+     * Hit counters and occupancy
+     */
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long staleCount = staleHits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + staleCount + missCount;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("staleWhileRevalidate", staleWhileRevalidate);
+        synchronized (entries) {
+            stats.put("size", entries.size());
+        }
+        stats.put("maxEntries", maxEntries);
+        stats.put("dataVersion", DataVersion.current());
+        stats.put("hits", hitCount);
+        stats.put("staleHits", staleCount);
+        stats.put("misses", missCount);
+        stats.put("refreshes", refreshes.sum());
+        stats.put("evictions", evictions.sum());
+        stats.put("hitRatio", lookups > 0 ? (double) (hitCount + staleCount) / lookups : 0.0);
+        return stats;
+    }
+
+    /**
+     * Compute (or join the computation already running for) the key
+     */
+    private Entry load(String key, Supplier<?> loader) {
+        CompletableFuture<Entry> mine = new CompletableFuture<>();
+        CompletableFuture<Entry> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            return join(running);
+        }
+        try {
+            // Version read first: a write during the computation leaves the entry stale.
+            // Inside a request's read-only snapshot, the data is only as new as the snapshot.
+            long version = Math.min(DataVersion.current(), JpaUtil.requestSnapshotVersion());
+            Entry computed = new Entry(loader.get(), version, System.currentTimeMillis());
+            synchronized (entries) {
+                entries.put(key, computed);
+            }
+            mine.complete(computed);
+            return computed;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private void refreshInBackground(String key, Supplier<?> loader) {
+        if (inFlight.containsKey(key)) {
+            return; // already being recomputed
+        }
+        try {
+            refresher.execute(() -> {
+                try {
+                    load(key, loader);
+                    refreshes.increment();
+                } catch (RuntimeException e) {
+                    System.err.println("✗ Stats cache refresh of " + key + " failed: " + e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Refresh queue full: the next request tries again
+        }
+    }
+
+    private static Entry join(CompletableFuture<Entry> running) {
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a stats computation", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause
+                                                    : new RuntimeException(cause);
+        }
+    }
+
+    private static final class Entry {
+        final Object value;
+        final long version;
+        final long computedAt;
+
+        Entry(Object value, long version, long computedAt) {
+            this.value = value;
+            this.version = version;
+            this.computedAt = computedAt;
+        }
+    }
+}
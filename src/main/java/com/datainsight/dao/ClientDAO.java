@@ -1,16 +1,32 @@
 package com.datainsight.dao;
 
+import com.datainsight.cache.ClientCache;
+import com.datainsight.dto.ClientSummary;
 import com.datainsight.model.Client;
+import com.datainsight.util.AppConfig;
 import com.datainsight.util.JpaUtil;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.TypedQuery;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.jpa.HibernateHints;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * DAO for Client entity - handles CRUD operations
  */
 public class ClientDAO {
 
+    // Query cache regions (size limits in application.conf); invalidated by
+    // Hibernate whenever the clients table is written through a Session
+    public static final String AGGREGATES_REGION = "client-aggregates";
+    public static final String PAGES_REGION = "client-pages";
+
     /**
      * Create new client
      */
@@ -20,6 +36,7 @@ public class ClientDAO {
             em.getTransaction().begin();
             em.persist(client);
             em.getTransaction().commit();
+            TransactionEvents.afterCommit();
             return client;
         } catch (Exception e) {
             if (em.getTransaction().isActive()) {
@@ -31,64 +48,161 @@ public class ClientDAO {
         }
     }
 
+    /**
+     * BULK INSERT: insert clients through a StatelessSession in one database transaction
+     * No first-level cache, no dirty checking, no flush/clear: rows go straight
+     * into JDBC batches of JpaUtil.JDBC_BATCH_SIZE. Ids are assigned on the entities.
+     * Returns the number of inserted rows.
+     */
+    public int insertAll(Iterable<Client> clients) {
+        StatelessSession session = JpaUtil.openStatelessSession();
+        try {
+            session.beginTransaction();
+            int inserted = 0;
+            for (Client client : clients) {
+                session.insert(client);
+                inserted++;
+            }
+            session.getTransaction().commit();
+            // StatelessSession writes bypass the query cache invalidation
+            TransactionEvents.afterCommit(ClientDAO::evictQueryRegions);
+            return inserted;
+        } catch (Exception e) {
+            if (session.getTransaction().isActive()) {
+                session.getTransaction().rollback();
+            }
+            throw new RuntimeException("Failed to insert clients", e);
+        } finally {
+            session.close();
+        }
+    }
+
     /**
      * Find client by ID
      */
     public Client findById(Long id) {
-        EntityManager em = JpaUtil.getEntityManager();
+        EntityManager em = JpaUtil.getReadEntityManager();
         try {
             return em.find(Client.class, id);
+        } finally {
+            JpaUtil.release(em);
+        }
+    }
+
+    /**
+     * Client summary (id, nom, prenom, pays) without loading the entity - null if not found
+     * Always read outside the request snapshot: ClientCache keeps the result.
+     */
+    public ClientSummary findSummary(Long id) {
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            List<ClientSummary> result = em.createQuery(
+                "SELECT new com.datainsight.dto.ClientSummary(c.id, c.nom, c.prenom, c.pays) " +
+                "FROM Client c WHERE c.id = :id", ClientSummary.class)
+                .setParameter("id", id)
+                .getResultList();
+            return result.isEmpty() ? null : result.get(0);
         } finally {
             em.close();
         }
     }
 
     /**
-     * Find all clients
+     * Summaries of the given client IDs that exist - one IN query on the primary key
      */
-    public List<Client> findAll() {
+    public List<ClientSummary> findSummaries(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
         EntityManager em = JpaUtil.getEntityManager();
+        try {
+            return em.createQuery(
+                "SELECT new com.datainsight.dto.ClientSummary(c.id, c.nom, c.prenom, c.pays) " +
+                "FROM Client c WHERE c.id IN :ids", ClientSummary.class)
+                .setParameter("ids", ids)
+                .getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Find a page of clients (newest first) after a keyset cursor
+     * afterId = id of the last client of the previous page (null = first page)
+     */
+    public List<Client> findPage(Long afterId, int size) {
+        EntityManager em = JpaUtil.getReadEntityManager();
         try {
             TypedQuery<Client> query = em.createQuery(
-                "SELECT c FROM Client c ORDER BY c.id DESC", Client.class);
+                "SELECT c FROM Client c " +
+                (afterId != null ? "WHERE c.id < :afterId " : "") +
+                "ORDER BY c.id DESC", Client.class);
+            if (afterId != null) {
+                query.setParameter("afterId", afterId);
+            }
+            query.setMaxResults(boundedPageSize(size));
             return query.getResultList();
         } finally {
-            em.close();
+            JpaUtil.release(em);
         }
     }
 
     /**
-     * Find clients by country
+     * Find clients by country (page after a keyset cursor, range scan on idx_pays)
      */
-    public List<Client> findByPays(String pays) {
-        EntityManager em = JpaUtil.getEntityManager();
+    public List<Client> findByPays(String pays, Long afterId, int size) {
+        EntityManager em = JpaUtil.getReadEntityManager();
         try {
             TypedQuery<Client> query = em.createQuery(
-                "SELECT c FROM Client c WHERE c.pays = :pays ORDER BY c.nom", 
+                "SELECT c FROM Client c WHERE c.pays = :pays " +
+                (afterId != null ? "AND c.id < :afterId " : "") +
+                "ORDER BY c.id DESC", 
                 Client.class);
             query.setParameter("pays", pays);
+            if (afterId != null) {
+                query.setParameter("afterId", afterId);
+            }
+            query.setHint(HibernateHints.HINT_CACHEABLE, true);
+            query.setHint(HibernateHints.HINT_CACHE_REGION, PAGES_REGION);
+            query.setMaxResults(boundedPageSize(size));
             return query.getResultList();
         } finally {
-            em.close();
+            JpaUtil.release(em);
         }
     }
 
     /**
-     * Find clients by profession
+     * Find clients by profession (page after a keyset cursor, range scan on idx_profession)
      */
-    public List<Client> findByProfession(String profession) {
-        EntityManager em = JpaUtil.getEntityManager();
+    public List<Client> findByProfession(String profession, Long afterId, int size) {
+        EntityManager em = JpaUtil.getReadEntityManager();
         try {
             TypedQuery<Client> query = em.createQuery(
-                "SELECT c FROM Client c WHERE c.profession = :profession ORDER BY c.nom", 
+                "SELECT c FROM Client c WHERE c.profession = :profession " +
+                (afterId != null ? "AND c.id < :afterId " : "") +
+                "ORDER BY c.id DESC", 
                 Client.class);
             query.setParameter("profession", profession);
+            if (afterId != null) {
+                query.setParameter("afterId", afterId);
+            }
+            query.setHint(HibernateHints.HINT_CACHEABLE, true);
+            query.setHint(HibernateHints.HINT_CACHE_REGION, PAGES_REGION);
+            query.setMaxResults(boundedPageSize(size));
             return query.getResultList();
         } finally {
-            em.close();
+            JpaUtil.release(em);
         }
     }
 
+    /**
+     * Clamp a requested page size to [1, page.maxSize]
+     */
+    public static int boundedPageSize(int requested) {
+        int max = AppConfig.getInt("page.maxSize", 500);
+        return Math.max(1, Math.min(requested, max));
+    }
+
     /**
      * Update client
      */
@@ -96,8 +210,22 @@ public class ClientDAO {
         EntityManager em = JpaUtil.getEntityManager();
         try {
             em.getTransaction().begin();
+            Client current = em.find(Client.class, client.getId());
+            String oldPays = current != null ? current.getPays() : null;
             Client updated = em.merge(client);
+            if (oldPays != null && !oldPays.equals(updated.getPays())) {
+                // Move the client's sales to the new country in the rollup
+                Session session = em.unwrap(Session.class);
+                SalesRollupDAO.applyClient(session, updated.getId(), oldPays, -1);
+                SalesRollupDAO.applyClient(session, updated.getId(), updated.getPays(), 1);
+            }
             em.getTransaction().commit();
+            TransactionEvents.afterCommit(() -> {
+                ClientCache.getInstance().invalidate(updated.getId());
+                if (oldPays != null && !oldPays.equals(updated.getPays())) {
+                    TransactionEvents.fireClientCountryChanged(updated.getId(), updated.getPays());
+                }
+            });
             return updated;
         } catch (Exception e) {
             if (em.getTransaction().isActive()) {
@@ -110,37 +238,121 @@ public class ClientDAO {
     }
 
     /**
-     * Delete client
+     * Delete client (and its transactions) - see delete(Collection)
      */
     public void delete(Long id) {
+        delete(List.of(id));
+    }
+
+    /**
+     * BULK DELETE: clients and all their transactions in one database transaction
+     * Nothing is loaded: the rollup is updated by one statement per 1000 clients,
+     * then the transactions and the clients go with bulk DELETEs on client_id / id
+     * (children first). Hibernate evicts the affected second-level and query cache
+     * regions for bulk statements; ClientCache and the listeners are told after commit.
+     * Returns the number of clients deleted (unknown ids are ignored).
+     */
+    public int delete(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Long> all = new ArrayList<>(new LinkedHashSet<>(ids));
         EntityManager em = JpaUtil.getEntityManager();
         try {
             em.getTransaction().begin();
-            Client client = em.find(Client.class, id);
-            if (client != null) {
-                em.remove(client);
+            List<Long> existing = new ArrayList<>();
+            for (int from = 0; from < all.size(); from += 1000) {
+                existing.addAll(em.createQuery(
+                    "SELECT c.id FROM Client c WHERE c.id IN :ids", Long.class)
+                    .setParameter("ids", all.subList(from, Math.min(from + 1000, all.size())))
+                    .getResultList());
+            }
+            int deleted = 0;
+            if (!existing.isEmpty()) {
+                SalesRollupDAO.applyClients(em.unwrap(Session.class), existing, -1);
+                for (int from = 0; from < existing.size(); from += 1000) {
+                    List<Long> chunk = existing.subList(from, Math.min(from + 1000, existing.size()));
+                    em.createQuery("DELETE FROM Transaction t WHERE t.client.id IN :ids")
+                        .setParameter("ids", chunk)
+                        .executeUpdate();
+                    deleted += em.createQuery("DELETE FROM Client c WHERE c.id IN :ids")
+                        .setParameter("ids", chunk)
+                        .executeUpdate();
+                }
             }
             em.getTransaction().commit();
+            TransactionEvents.afterCommit(() -> {
+                for (Long id : all) {
+                    ClientCache.getInstance().invalidate(id);
+                }
+                TransactionEvents.fireClientsDeleted(Set.copyOf(existing));
+            });
+            return deleted;
         } catch (Exception e) {
             if (em.getTransaction().isActive()) {
                 em.getTransaction().rollback();
             }
-            throw new RuntimeException("Failed to delete client", e);
+            throw new RuntimeException("Failed to delete clients", e);
         } finally {
             em.close();
         }
     }
 
+    /**
+     * Lowest and highest client ID ({min, max}), or null when there are no clients
+     */
+    public long[] getIdBounds() {
+        EntityManager em = JpaUtil.getReadEntityManager();
+        try {
+            Object[] row = em.createQuery(
+                "SELECT MIN(c.id), MAX(c.id) FROM Client c", Object[].class)
+                .getSingleResult();
+            if (row[0] == null) {
+                return null;
+            }
+            return new long[] { (Long) row[0], (Long) row[1] };
+        } finally {
+            JpaUtil.release(em);
+        }
+    }
+
+    /**
+     * Client IDs in (afterId, maxId], ascending - used to walk an ID range in chunks
+     */
+    public List<Long> findIdsInRange(long afterId, long maxId, int size) {
+        EntityManager em = JpaUtil.getReadEntityManager();
+        try {
+            return em.createQuery(
+                "SELECT c.id FROM Client c WHERE c.id > :afterId AND c.id <= :maxId " +
+                "ORDER BY c.id", Long.class)
+                .setParameter("afterId", afterId)
+                .setParameter("maxId", maxId)
+                .setMaxResults(size)
+                .getResultList();
+        } finally {
+            JpaUtil.release(em);
+        }
+    }
+
+    /**
+     * Drop cached client query results (after writes Hibernate does not track)
+     */
+    public static void evictQueryRegions() {
+        org.hibernate.Cache cache = JpaUtil.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        cache.evictQueryRegion(AGGREGATES_REGION);
+        cache.evictQueryRegion(PAGES_REGION);
+    }
+
     /**
      * Count total clients
      */
     public long count() {
-        EntityManager em = JpaUtil.getEntityManager();
+        EntityManager em = JpaUtil.getReadEntityManager();
         try {
             return em.createQuery("SELECT COUNT(c) FROM Client c", Long.class)
                     .getSingleResult();
         } finally {
-            em.close();
+            JpaUtil.release(em);
         }
     }
 
@@ -148,14 +360,16 @@ public class ClientDAO {
      * Count clients by country
      */
     public List<Object[]> countByCountry() {
-        EntityManager em = JpaUtil.getEntityManager();
+        EntityManager em = JpaUtil.getReadEntityManager();
         try {
             TypedQuery<Object[]> query = em.createQuery(
                 "SELECT c.pays, COUNT(c) FROM Client c GROUP BY c.pays ORDER BY COUNT(c) DESC", 
                 Object[].class);
+            query.setHint(HibernateHints.HINT_CACHEABLE, true);
+            query.setHint(HibernateHints.HINT_CACHE_REGION, AGGREGATES_REGION);
             return query.getResultList();
         } finally {
-            em.close();
+            JpaUtil.release(em);
         }
     }
 
@@ -163,14 +377,16 @@ public class ClientDAO {
      * Count clients by profession
      */
     public List<Object[]> countByProfession() {
-        EntityManager em = JpaUtil.getEntityManager();
+        EntityManager em = JpaUtil.getReadEntityManager();
         try {
         	TypedQuery<Object[]> query = em.createQuery(
                     "SELECT c.profession, COUNT(c) FROM Client c GROUP BY c.profession ORDER BY COUNT(c) DESC", 
                     Object[].class);
+                query.setHint(HibernateHints.HINT_CACHEABLE, true);
+                query.setHint(HibernateHints.HINT_CACHE_REGION, AGGREGATES_REGION);
                 return query.getResultList();
             } finally {
-                em.close();
+                JpaUtil.release(em);
             }
         }
 
@@ -178,15 +394,17 @@ public class ClientDAO {
          * Get average age by country
          */
         public List<Object[]> getAverageAgeByCountry() {
-            EntityManager em = JpaUtil.getEntityManager();
+            EntityManager em = JpaUtil.getReadEntityManager();
             try {
                 TypedQuery<Object[]> query = em.createQuery(
                     "SELECT c.pays, AVG(c.age), COUNT(c) FROM Client c " +
                     "GROUP BY c.pays ORDER BY AVG(c.age) DESC", 
                     Object[].class);
+                query.setHint(HibernateHints.HINT_CACHEABLE, true);
+                query.setHint(HibernateHints.HINT_CACHE_REGION, AGGREGATES_REGION);
                 return query.getResultList();
             } finally {
-                em.close();
+                JpaUtil.release(em);
             }
         }
     }
\ No newline at end of file
@@ -0,0 +1,122 @@
+package com.datainsight.dao;
+
+import com.datainsight.cache.ClientCache;
+import com.datainsight.util.AppConfig;
+import com.datainsight.util.JpaUtil;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes made by another process (PurgeJob or DataGenerator run from the command
+ * line) reach the web application through a counter row in the database.
+ * Those tools call publish() once they have written; the application reads the
+ * counter every data.externalChanges.checkSeconds and, when it moved, drops the
+ * Hibernate second-level cache and ClientCache, has the in-memory views rebuilt
+ * from the database (TransactionListener.onExternalChange) and bumps DataVersion
+ * so cached stats and ETags go stale. Writes of the application itself never touch
+ * the counter: they are published in process (TransactionEvents).
+ */
+public final class ExternalChanges {
+
+    private static final String CREATE_TABLE =
+        "CREATE TABLE IF NOT EXISTS data_changes (id TINYINT PRIMARY KEY, version BIGINT NOT NULL)";
+
+    private static ScheduledExecutorService scheduler;
+    private static long seen = -1;
+
+    // Private constructor - static utility
+    private ExternalChanges() {}
+
+    /**
+     * Tell running applications that the data changed under them
+     */
+    public static void publish() {
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            em.getTransaction().begin();
+            em.createNativeQuery(CREATE_TABLE).executeUpdate();
+            em.createNativeQuery(
+                "INSERT INTO data_changes (id, version) VALUES (1, 1) " +
+                "ON DUPLICATE KEY UPDATE version = version + 1")
+                .executeUpdate();
+            em.getTransaction().commit();
+        } catch (Exception e) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            throw new RuntimeException("Failed to publish external changes", e);
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Start watching the counter (application startup)
+     */
+    public static synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        long seconds = Math.max(1, AppConfig.getLong("data.externalChanges.checkSeconds", 10));
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "external-changes");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                check();
+            } catch (RuntimeException e) {
+                System.err.println("✗ External changes check failed: " + e.getMessage());
+            }
+        }, 0, seconds, TimeUnit.SECONDS);
+    }
+
+    public static synchronized void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private static void check() {
+        long version = readVersion();
+        if (seen < 0) {
+            seen = version; // baseline: the views were just loaded
+            return;
+        }
+        if (version == seen) {
+            return;
+        }
+        seen = version;
+        System.out.println("✓ Data changed by another process: reloading caches and in-memory views");
+        TransactionEvents.afterCommit(() -> {
+            JpaUtil.getEntityManagerFactory().unwrap(SessionFactory.class).getCache().evictAllRegions();
+            ClientCache.getInstance().clear();
+            TransactionEvents.fireExternalChange();
+        });
+    }
+
+    private static long readVersion() {
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            if (seen < 0) {
+                em.getTransaction().begin();
+                em.createNativeQuery(CREATE_TABLE).executeUpdate();
+                em.getTransaction().commit();
+            }
+            Object version = em.createNativeQuery("SELECT MAX(version) FROM data_changes").getSingleResult();
+            return version != null ? ((Number) version).longValue() : 0;
+        } catch (Exception e) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            throw new RuntimeException("Failed to read external changes", e);
+        } finally {
+            em.close();
+        }
+    }
+}
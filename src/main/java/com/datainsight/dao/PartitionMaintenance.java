@@ -0,0 +1,324 @@
+package com.datainsight.dao;
+
+import com.datainsight.model.Transaction;
+import com.datainsight.util.AppConfig;
+import com.datainsight.util.JpaUtil;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Monthly RANGE partitions of the transactions table on date
+ * Partition pYYYYMM holds that month (the first one also holds anything older),
+ * pmax catches dates beyond the last month created. Future months are split off
+ * pmax ahead of time (transactions.partitions.monthsAhead) while it is still empty,
+ * which costs no row copy. Retention drops whole months (deleteOlderThan) instead
+ * of deleting their rows one by one; queries bounded on date only read the
+ * partitions of their range.
+ *
+ * MySQL does not allow foreign keys on partitioned tables and requires the date
+ * in every unique key: convert() drops the client_id foreign key, replaces any
+ * other unique key by the (reference_transaction, date) one of the mapping
+ * (Transaction.REFERENCE_KEY) and makes the primary key (id, date). hbm2ddl then
+ * logs a warning at each start when it tries to add the foreign key back. Conversion copies the
+ * table once and blocks writes meanwhile: run it from /api/admin/partitions/convert
+ * during maintenance. Until then everything works on the plain table.
+ */
+public final class PartitionMaintenance {
+
+    private static final String MAX_PARTITION = "pmax";
+    private static final DateTimeFormatter NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private static volatile PartitionMaintenance instance;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "partition-maintenance");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private boolean started;
+
+    private PartitionMaintenance() {}
+
+    /**
+     * Off by default: see transactions.partitions.enabled
+     */
+    public static boolean isEnabled() {
+        return AppConfig.getBoolean("transactions.partitions.enabled", false);
+    }
+
+    public static PartitionMaintenance getInstance() {
+        PartitionMaintenance maintenance = instance;
+        if (maintenance == null) {
+            synchronized (PartitionMaintenance.class) {
+                maintenance = instance;
+                if (maintenance == null) {
+                    instance = maintenance = new PartitionMaintenance();
+                }
+            }
+        }
+        return maintenance;
+    }
+
+    /**
+     * Create the coming months now and once a day
+     */
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                if (isPartitioned()) {
+                    int created = ensureFuturePartitions();
+                    if (created > 0) {
+                        System.out.println("✓ Transactions partitions created: " + created);
+                    }
+                }
+            } catch (RuntimeException e) {
+                System.err.println("✗ Partition maintenance failed: " + e.getMessage());
+            }
+        }, 0, 1, TimeUnit.DAYS);
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * True once convert() has run
+     */
+    public boolean isPartitioned() {
+        return !listPartitions().isEmpty();
+    }
+
+    /**
+     * {name, upper bound (exclusive, null for pmax), estimated rows} per partition, in order
+     */
+    public List<Object[]> listPartitions() {
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            List<?> rows = em.createNativeQuery(
+                "SELECT PARTITION_NAME, PARTITION_DESCRIPTION, TABLE_ROWS " +
+                "FROM information_schema.PARTITIONS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'transactions' " +
+                "AND PARTITION_NAME IS NOT NULL " +
+                "ORDER BY PARTITION_ORDINAL_POSITION")
+                .getResultList();
+            List<Object[]> partitions = new ArrayList<>(rows.size());
+            for (Object row : rows) {
+                Object[] columns = (Object[]) row;
+                partitions.add(new Object[] { columns[0], parseBound((String) columns[1]),
+                                              columns[2] != null ? ((Number) columns[2]).longValue() : 0L });
+            }
+            return partitions;
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Status for monitoring: partitions with bounds and estimated rows
+     */
+    public Map<String, Object> getStatus() {
+        List<Map<String, Object>> partitions = new ArrayList<>();
+        for (Object[] partition : listPartitions()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("name", partition[0]);
+            entry.put("lessThan", partition[1] != null ? partition[1].toString() : "MAXVALUE");
+            entry.put("estimatedRows", partition[2]);
+            partitions.add(entry);
+        }
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", isEnabled());
+        status.put("partitioned", !partitions.isEmpty());
+        status.put("monthsAhead", monthsAhead());
+        status.put("partitions", partitions);
+        return status;
+    }
+
+    /**
+     * Partition the plain table: one partition per month from the oldest
+     * transaction to monthsAhead after the current one, then pmax
+     * Returns the number of partitions (0 if the table was already partitioned)
+     */
+    public synchronized int convert() {
+        if (isPartitioned()) {
+            return 0;
+        }
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            Object oldest = em.createNativeQuery("SELECT MIN(date) FROM transactions").getSingleResult();
+            YearMonth first = oldest != null ? YearMonth.from(toLocalDate(oldest)) : YearMonth.now();
+            YearMonth last = YearMonth.now().plusMonths(monthsAhead());
+
+            List<String> foreignKeys = strings(em.createNativeQuery(
+                "SELECT CONSTRAINT_NAME FROM information_schema.TABLE_CONSTRAINTS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'transactions' " +
+                "AND CONSTRAINT_TYPE = 'FOREIGN KEY'").getResultList());
+            List<String> uniqueKeys = strings(em.createNativeQuery(
+                "SELECT CONSTRAINT_NAME FROM information_schema.TABLE_CONSTRAINTS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'transactions' " +
+                "AND CONSTRAINT_TYPE = 'UNIQUE'").getResultList());
+
+            List<String> statements = new ArrayList<>();
+            for (String foreignKey : foreignKeys) {
+                statements.add("ALTER TABLE transactions DROP FOREIGN KEY `" + foreignKey + "`");
+            }
+            StringBuilder alter = new StringBuilder("ALTER TABLE transactions ");
+            // e.g. the single-column key of tables created before the (reference, date) mapping
+            for (String uniqueKey : uniqueKeys) {
+                if (!uniqueKey.equals(Transaction.REFERENCE_KEY)) {
+                    alter.append("DROP INDEX `").append(uniqueKey).append("`, ");
+                }
+            }
+            if (!uniqueKeys.contains(Transaction.REFERENCE_KEY)) {
+                alter.append("ADD UNIQUE KEY ").append(Transaction.REFERENCE_KEY)
+                     .append(" (reference_transaction, date), ");
+            }
+            alter.append("DROP PRIMARY KEY, ADD PRIMARY KEY (id, date) ")
+                 .append("PARTITION BY RANGE COLUMNS(date) (");
+            int count = 0;
+            for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+                alter.append(definition(month)).append(", ");
+                count++;
+            }
+            alter.append("PARTITION ").append(MAX_PARTITION).append(" VALUES LESS THAN (MAXVALUE))");
+            statements.add(alter.toString());
+
+            long start = System.currentTimeMillis();
+            execute(em, statements);
+            System.out.println("✓ Transactions table partitioned: " + (count + 1) + " partitions in " +
+                               (System.currentTimeMillis() - start) + " ms");
+            return count + 1;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to partition the transactions table", e);
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Split the months up to monthsAhead after the current one off pmax
+     * Returns the number of partitions created
+     */
+    public synchronized int ensureFuturePartitions() {
+        YearMonth target = YearMonth.now().plusMonths(monthsAhead());
+        YearMonth next = null;
+        for (Object[] partition : listPartitions()) {
+            LocalDate bound = (LocalDate) partition[1];
+            if (bound != null) {
+                next = YearMonth.from(bound); // first month not covered yet
+            }
+        }
+        if (next == null || next.isAfter(target)) {
+            return 0;
+        }
+        StringBuilder reorganize = new StringBuilder("ALTER TABLE transactions REORGANIZE PARTITION ")
+            .append(MAX_PARTITION).append(" INTO (");
+        int count = 0;
+        for (YearMonth month = next; !month.isAfter(target); month = month.plusMonths(1)) {
+            reorganize.append(definition(month)).append(", ");
+            count++;
+        }
+        reorganize.append("PARTITION ").append(MAX_PARTITION).append(" VALUES LESS THAN (MAXVALUE))");
+
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            execute(em, List.of(reorganize.toString()));
+            return count;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to create transactions partitions", e);
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Drop the partitions whose months all end before the date - returns the
+     * number of transactions they held. DDL: commits on its own, not undoable.
+     */
+    synchronized long dropPartitionsBefore(LocalDate date) {
+        List<String> names = new ArrayList<>();
+        for (Object[] partition : listPartitions()) {
+            LocalDate bound = (LocalDate) partition[1];
+            if (bound != null && !bound.isAfter(date)) {
+                names.add((String) partition[0]);
+            }
+        }
+        if (names.isEmpty()) {
+            return 0;
+        }
+        String list = String.join(", ", names);
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            long rows = ((Number) em.createNativeQuery(
+                "SELECT COUNT(*) FROM transactions PARTITION (" + list + ")").getSingleResult()).longValue();
+            execute(em, List.of("ALTER TABLE transactions DROP PARTITION " + list));
+            System.out.println("✓ Dropped transactions partitions " + list + " (" + rows + " rows)");
+            return rows;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to drop transactions partitions", e);
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Months kept ahead of the current one
+     */
+    private static int monthsAhead() {
+        return Math.max(1, AppConfig.getInt("transactions.partitions.monthsAhead", 3));
+    }
+
+    private static String definition(YearMonth month) {
+        return "PARTITION " + NAME.format(month) + " VALUES LESS THAN ('" + month.plusMonths(1).atDay(1) + "')";
+    }
+
+    /**
+     * PARTITION_DESCRIPTION of a RANGE COLUMNS partition: 'YYYY-MM-DD' or MAXVALUE
+     */
+    private static LocalDate parseBound(String description) {
+        if (description == null || description.equals("MAXVALUE")) {
+            return null;
+        }
+        return LocalDate.parse(description.replace("'", ""));
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate) {
+            return (LocalDate) value;
+        }
+        return ((java.sql.Date) value).toLocalDate();
+    }
+
+    private static List<String> strings(List<?> values) {
+        List<String> strings = new ArrayList<>(values.size());
+        values.forEach(value -> strings.add((String) value));
+        return strings;
+    }
+
+    /**
+     * DDL straight on the JDBC connection (MySQL commits it implicitly)
+     */
+    private static void execute(EntityManager em, List<String> statements) {
+        em.unwrap(Session.class).doWork(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : statements) {
+                    statement.execute(sql);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,301 @@
+package com.datainsight.dao;
+
+import com.datainsight.model.Transaction;
+import com.datainsight.util.AppConfig;
+import com.datainsight.util.JpaUtil;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Throttled bulk deletion: transactions older than a date, or a client with all
+ * its transactions
+ * Rows are deleted in primary-key order by chunks of chunkSize, each in its own
+ * short database transaction (rollup and listeners updated like a single delete),
+ * with pauseMs between chunks so that regular traffic keeps its locks and
+ * connections. On a partitioned table the whole months are dropped first.
+ *
+ * Progress (last id, rows deleted) survives cancel() and failures: resumeCurrent()
+ * goes on from there. Running the same purge again after a restart also just continues,
+ * since only the rows still matching are left.
+ *
+ * One job at a time in the application (submit / current); main() runs one from
+ * the command line.
+ */
+public final class PurgeJob implements Runnable {
+
+    public enum State { PENDING, RUNNING, CANCELLED, FAILED, DONE }
+
+    private static PurgeJob current;
+
+    private final LocalDate before;
+    private final Long clientId;
+    private final int chunkSize;
+    private final long pauseMs;
+    private final TransactionDAO transactionDAO = new TransactionDAO();
+
+    private volatile State state = State.PENDING;
+    private volatile boolean cancelRequested;
+    private volatile long lastId;
+    private volatile long deleted;
+    private volatile long estimatedTotal = -1;
+    private volatile long activeMs;
+    private volatile long runStartedAt;
+    private volatile String error;
+    private boolean partitionsDropped;
+
+    private PurgeJob(LocalDate before, Long clientId, int chunkSize, long pauseMs) {
+        this.before = before;
+        this.clientId = clientId;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.pauseMs = Math.max(0, pauseMs);
+    }
+
+    /**
+     * Transactions dated before the date; chunkSize / pauseMs null = purge.* settings
+     */
+    public static PurgeJob olderThan(LocalDate date, Integer chunkSize, Long pauseMs) {
+        return new PurgeJob(date, null, chunkSize != null ? chunkSize : defaultChunkSize(),
+                            pauseMs != null ? pauseMs : defaultPauseMs());
+    }
+
+    /**
+     * A client: its transactions by chunks, then the client itself
+     */
+    public static PurgeJob forClient(Long clientId, Integer chunkSize, Long pauseMs) {
+        return new PurgeJob(null, clientId, chunkSize != null ? chunkSize : defaultChunkSize(),
+                            pauseMs != null ? pauseMs : defaultPauseMs());
+    }
+
+    private static int defaultChunkSize() {
+        return AppConfig.getInt("purge.chunkSize", 5000);
+    }
+
+    private static long defaultPauseMs() {
+        return AppConfig.getLong("purge.pauseMs", 200);
+    }
+
+    // ==================== Background execution ====================
+
+    /**
+     * Run the job on a background thread - fails if another purge is running
+     */
+    public static synchronized PurgeJob submit(PurgeJob job) {
+        if (current != null && current.state == State.RUNNING) {
+            throw new IllegalStateException("A purge is already running");
+        }
+        current = job;
+        job.startThread();
+        return job;
+    }
+
+    /**
+     * Continue the last cancelled or failed purge from where it stopped
+     */
+    public static synchronized PurgeJob resumeCurrent() {
+        if (current == null || (current.state != State.CANCELLED && current.state != State.FAILED)) {
+            throw new IllegalStateException("No cancelled or failed purge to resume");
+        }
+        current.startThread();
+        return current;
+    }
+
+    /**
+     * Last submitted purge, or null
+     */
+    public static synchronized PurgeJob current() {
+        return current;
+    }
+
+    /**
+     * Stop the running purge after its current chunk (application shutdown)
+     */
+    public static synchronized void shutdown() {
+        if (current != null) {
+            current.cancel();
+        }
+    }
+
+    private void startThread() {
+        state = State.RUNNING; // before the thread starts: a second submit sees it
+        Thread thread = new Thread(this, "purge");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop after the chunk in progress (its transaction still commits)
+     */
+    public void cancel() {
+        cancelRequested = true;
+    }
+
+    // ==================== Run ====================
+
+    /**
+     * Delete until nothing matches, the job is cancelled or a chunk fails
+     */
+    @Override
+    public void run() {
+        state = State.RUNNING;
+        cancelRequested = false;
+        error = null;
+        runStartedAt = System.currentTimeMillis();
+        long lastReport = runStartedAt;
+        try {
+            if (estimatedTotal < 0) {
+                estimatedTotal = deleted + transactionDAO.countPurgeable(before, clientId);
+            }
+            if (before != null && !partitionsDropped) {
+                dropPartitions();
+            }
+            while (!cancelRequested) {
+                List<Transaction> chunk = transactionDAO.findPurgeChunk(before, clientId, lastId, chunkSize);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                deleted += transactionDAO.deleteAll(chunk);
+                lastId = chunk.get(chunk.size() - 1).getId();
+
+                if (System.currentTimeMillis() - lastReport >= 10_000) {
+                    lastReport = System.currentTimeMillis();
+                    System.out.println("✓ Purge " + describe() + ": " + progress());
+                }
+                if (pauseMs > 0 && !cancelRequested) {
+                    Thread.sleep(pauseMs);
+                }
+            }
+            if (cancelRequested) {
+                state = State.CANCELLED;
+                System.out.println("✓ Purge " + describe() + " cancelled: " + progress());
+                return;
+            }
+            finish();
+            state = State.DONE;
+            System.out.println("✓ Purge " + describe() + " done: " + progress());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            state = State.CANCELLED;
+        } catch (RuntimeException e) {
+            error = e.getMessage();
+            state = State.FAILED;
+            System.err.println("✗ Purge " + describe() + " failed after " + deleted + " rows: " + e.getMessage());
+        } finally {
+            activeMs += System.currentTimeMillis() - runStartedAt;
+            runStartedAt = 0;
+        }
+    }
+
+    /**
+     * Whole months go with their partitions (no-op on a plain table): deleteOlderThan
+     * up to the 1st of the month only drops partitions
+     */
+    private void dropPartitions() {
+        if (PartitionMaintenance.getInstance().isPartitioned()) {
+            deleted += transactionDAO.deleteOlderThan(before.withDayOfMonth(1));
+        }
+        partitionsDropped = true;
+    }
+
+    private void finish() {
+        if (before != null) {
+            // Lets the in-memory views drop whole days instead of row by row
+            TransactionEvents.afterCommit(() -> TransactionEvents.fireDeletedBefore(before));
+        } else {
+            new ClientDAO().delete(clientId);
+        }
+    }
+
+    // ==================== Progress ====================
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Live progress: rows/s over the running time, remaining rows and time
+     */
+    public Map<String, Object> getStatus() {
+        long running = activeMs + (runStartedAt > 0 ? System.currentTimeMillis() - runStartedAt : 0);
+        double rate = running > 0 ? deleted * 1000.0 / running : 0.0;
+        long remaining = Math.max(0, estimatedTotal - deleted);
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("state", state);
+        status.put("before", before != null ? before.toString() : null);
+        status.put("clientId", clientId);
+        status.put("chunkSize", chunkSize);
+        status.put("pauseMs", pauseMs);
+        status.put("deleted", deleted);
+        status.put("estimatedTotal", Math.max(0, estimatedTotal));
+        status.put("remaining", remaining);
+        status.put("rowsPerSecond", Math.round(rate));
+        status.put("etaSeconds", rate > 0 ? Math.round(remaining / rate) : null);
+        status.put("lastId", lastId);
+        status.put("runningMs", running);
+        status.put("error", error);
+        return status;
+    }
+
+    private String describe() {
+        return before != null ? "before " + before : "of client " + clientId;
+    }
+
+    private String progress() {
+        Map<String, Object> status = getStatus();
+        return status.get("deleted") + " rows deleted, " + status.get("rowsPerSecond") + " rows/s, " +
+               status.get("remaining") + " remaining";
+    }
+
+    /**
+     * Command line: PurgeJob --before YYYY-MM-DD | --client ID [--chunk N] [--pause MS]
+     * Events do not reach a running application directly: once done, the job
+     * publishes an ExternalChanges signal and the application drops its caches and
+     * rebuilds its in-memory views within data.externalChanges.checkSeconds.
+     */
+    public static void main(String[] args) {
+        LocalDate before = null;
+        Long clientId = null;
+        Integer chunkSize = null;
+        Long pauseMs = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--before": before = LocalDate.parse(args[i + 1]); break;
+                case "--client": clientId = Long.parseLong(args[i + 1]); break;
+                case "--chunk": chunkSize = Integer.parseInt(args[i + 1]); break;
+                case "--pause": pauseMs = Long.parseLong(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if ((before == null) == (clientId == null)) {
+            System.err.println("Usage: PurgeJob --before YYYY-MM-DD | --client ID [--chunk N] [--pause MS]");
+            System.exit(2);
+        }
+
+        PurgeJob job = before != null ? olderThan(before, chunkSize, pauseMs)
+                                      : forClient(clientId, chunkSize, pauseMs);
+        try {
+            job.run();
+            System.out.println(job.getStatus());
+        } finally {
+            publishChanges(job);
+            JpaUtil.close();
+        }
+        System.exit(job.getState() == State.DONE ? 0 : 1);
+    }
+
+    /**
+     * Chunks committed before a failure are gone too: publish whenever rows were deleted
+     */
+    private static void publishChanges(PurgeJob job) {
+        if (job.deleted == 0) {
+            return;
+        }
+        try {
+            ExternalChanges.publish();
+        } catch (RuntimeException e) {
+            System.err.println("✗ Running applications not notified: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.datainsight.dao;
+
+import com.datainsight.util.JpaUtil;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.SharedSessionContract;
+import org.hibernate.query.NativeQuery;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DAO for the daily_sales_rollup table (see DailySalesRollup)
+ * The apply* methods run inside the caller's database transaction, so the
+ * rollup always commits or rolls back together with the transactions rows.
+ * Deltas are computed by MySQL from the rows themselves (client pays included)
+ * and merged with INSERT ... ON DUPLICATE KEY UPDATE.
+ */
+public class SalesRollupDAO {
+
+    private static final String TABLE = "daily_sales_rollup";
+    private static final int IDS_PER_STATEMENT = 1000;
+
+    /**
+     * Upsert template: %1$s = pays expression, %2$s = WHERE clause.
+     * :sign is +1 to add rows, -1 to remove them.
+     */
+    private static final String UPSERT =
+        "INSERT INTO daily_sales_rollup " +
+        "(day, categorie, pays, mode_paiement, transaction_count, total_amount) " +
+        "SELECT * FROM (" +
+        "  SELECT t.date AS d, t.categorie AS cat, %1$s AS p, COALESCE(t.mode_paiement, '') AS m, " +
+        "         :sign * COUNT(*) AS n, :sign * SUM(t.montant) AS s " +
+        "  FROM transactions t JOIN clients c ON c.id = t.client_id " +
+        "  WHERE %2$s " +
+        "  GROUP BY t.date, t.categorie, p, m" +
+        ") AS delta " +
+        "ON DUPLICATE KEY UPDATE transaction_count = transaction_count + delta.n, " +
+        "total_amount = total_amount + delta.s";
+
+    /**
+     * Native statement on the rollup table only: without a declared query space,
+     * Hibernate would evict every second-level and query cache region after it
+     * (Hibernate returns a NativeQuery for every native mutation)
+     */
+    private static NativeQuery<?> mutation(SharedSessionContract session, String sql) {
+        return ((NativeQuery<?>) session.createNativeMutationQuery(sql)).addSynchronizedQuerySpace(TABLE);
+    }
+
+    /**
+     * Add (sign = 1) or remove (sign = -1) the given transactions - rows must exist
+     * (call after inserting, before deleting)
+     */
+    static void applyTransactions(SharedSessionContract session, List<Long> transactionIds, int sign) {
+        String sql = String.format(UPSERT, "c.pays", "t.id IN (:ids)");
+        for (int from = 0; from < transactionIds.size(); from += IDS_PER_STATEMENT) {
+            List<Long> chunk = transactionIds.subList(from,
+                Math.min(from + IDS_PER_STATEMENT, transactionIds.size()));
+            mutation(session, sql)
+                .setParameter("sign", sign)
+                .setParameterList("ids", chunk)
+                .executeUpdate();
+        }
+    }
+
+    /**
+     * Add or remove all transactions of one client, counted under the given country
+     * (used when a client moves to another country)
+     */
+    static void applyClient(SharedSessionContract session, Long clientId, String pays, int sign) {
+        mutation(session, String.format(UPSERT, ":pays", "t.client_id = :clientId"))
+            .setParameter("sign", sign)
+            .setParameter("pays", pays)
+            .setParameter("clientId", clientId)
+            .executeUpdate();
+    }
+
+    /**
+     * Add or remove all transactions of the given clients, under their current country
+     * (used when clients are deleted in bulk - rows must still exist)
+     */
+    static void applyClients(SharedSessionContract session, List<Long> clientIds, int sign) {
+        String sql = String.format(UPSERT, "c.pays", "t.client_id IN (:ids)");
+        for (int from = 0; from < clientIds.size(); from += IDS_PER_STATEMENT) {
+            List<Long> chunk = clientIds.subList(from,
+                Math.min(from + IDS_PER_STATEMENT, clientIds.size()));
+            mutation(session, sql)
+                .setParameter("sign", sign)
+                .setParameterList("ids", chunk)
+                .executeUpdate();
+        }
+    }
+
+    /**
+     * Drop whole days (all their transactions are being deleted)
+     */
+    static void deleteDaysBefore(SharedSessionContract session, LocalDate day) {
+        mutation(session, "DELETE FROM daily_sales_rollup WHERE day < :day")
+            .setParameter("day", day)
+            .executeUpdate();
+    }
+
+    /**
+     * Rebuild the rollup from scratch in one database transaction
+     * Returns the number of rollup rows
+     */
+    public long rebuild() {
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            em.getTransaction().begin();
+            Session session = em.unwrap(Session.class);
+            mutation(session, "DELETE FROM daily_sales_rollup").executeUpdate();
+            mutation(session, String.format(UPSERT, "c.pays", "1 = 1"))
+                .setParameter("sign", 1)
+                .executeUpdate();
+            em.getTransaction().commit();
+            TransactionEvents.afterCommit();
+            return count();
+        } catch (Exception e) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            throw new RuntimeException("Failed to rebuild sales rollup", e);
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * First start after an upgrade: fill the rollup if it is empty but transactions exist
+     */
+    public void rebuildIfEmpty() {
+        EntityManager em = JpaUtil.getEntityManager();
+        boolean needed;
+        try {
+            needed = em.createNativeQuery("SELECT 1 FROM daily_sales_rollup LIMIT 1").getResultList().isEmpty()
+                  && !em.createNativeQuery("SELECT 1 FROM transactions LIMIT 1").getResultList().isEmpty();
+        } finally {
+            em.close();
+        }
+        if (needed) {
+            long start = System.currentTimeMillis();
+            long rows = rebuild();
+            System.out.println("✓ Sales rollup built: " + rows + " rows in " +
+                               (System.currentTimeMillis() - start) + " ms");
+        }
+    }
+
+    /**
+     * Number of rollup rows
+     */
+    public long count() {
+        EntityManager em = JpaUtil.getReadEntityManager();
+        try {
+            return em.createQuery("SELECT COUNT(r) FROM DailySalesRollup r", Long.class)
+                    .getSingleResult();
+        } finally {
+            JpaUtil.release(em);
+        }
+    }
+}
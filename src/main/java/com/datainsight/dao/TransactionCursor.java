@@ -0,0 +1,64 @@
+package com.datainsight.dao;
+
+import com.datainsight.model.Transaction;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+/**
+ * Keyset pagination cursor for transaction lists ordered by (date DESC, id DESC)
+ * Encoded as an opaque URL-safe token holding the last (date, id) returned
+ */
+public final class TransactionCursor {
+
+    private final LocalDate date;
+    private final Long id;
+
+    public TransactionCursor(LocalDate date, Long id) {
+        this.date = date;
+        this.id = id;
+    }
+
+    /**
+     * Cursor positioned right after the given transaction
+     */
+    public static TransactionCursor after(Transaction transaction) {
+        return new TransactionCursor(transaction.getDate(), transaction.getId());
+    }
+
+    /**
+     * Decode a token produced by {@link #encode()}
+     * Returns null for a missing token (first page)
+     */
+    public static TransactionCursor decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(':');
+            LocalDate date = LocalDate.ofEpochDay(Long.parseLong(raw.substring(0, sep)));
+            Long id = Long.parseLong(raw.substring(sep + 1));
+            return new TransactionCursor(date, id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    /**
+     * Opaque token for the API (base64url of "epochDay:id")
+     */
+    public String encode() {
+        String raw = date.toEpochDay() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
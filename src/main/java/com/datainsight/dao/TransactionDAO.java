@@ -1,17 +1,42 @@
 package com.datainsight.dao;
 
+import com.datainsight.dto.OverviewStats;
+import com.datainsight.dto.TransactionDTO;
+import com.datainsight.model.Client;
 import com.datainsight.model.Transaction;
 import com.datainsight.util.JpaUtil;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.TypedQuery;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.SelectionQuery;
+import java.sql.ResultSet;
+import java.sql.Statement;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 
 /**
  * DAO for Transaction entity - handles CRUD and analytics queries
  */
 public class TransactionDAO {
 
+    /**
+     * Keyset predicate for (date DESC, id DESC) ordering.
+     * The redundant "date <= :cursorDate" bound lets MySQL turn it into an index range.
+     */
+    private static final String SEEK_PREDICATE =
+        "t.date <= :cursorDate AND (t.date < :cursorDate OR t.id < :cursorId) ";
+
     /**
      * Create new transaction
      */
@@ -20,7 +45,35 @@ public class TransactionDAO {
         try {
             em.getTransaction().begin();
             em.persist(transaction);
+            em.flush();
+            SalesRollupDAO.applyTransactions(em.unwrap(Session.class), List.of(transaction.getId()), 1);
+            em.getTransaction().commit();
+            TransactionEvents.afterCommit(() -> TransactionEvents.fireInserted(List.of(transaction)));
+            return transaction;
+        } catch (Exception e) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            throw new RuntimeException("Failed to create transaction", e);
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Create new transaction for a client known to exist (e.g. checked in ClientCache)
+     * The client is attached with getReference: no SELECT of the client row.
+     */
+    public Transaction create(Transaction transaction, Long clientId) {
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            em.getTransaction().begin();
+            transaction.setClient(em.getReference(Client.class, clientId));
+            em.persist(transaction);
+            em.flush();
+            SalesRollupDAO.applyTransactions(em.unwrap(Session.class), List.of(transaction.getId()), 1);
             em.getTransaction().commit();
+            TransactionEvents.afterCommit(() -> TransactionEvents.fireInserted(List.of(transaction)));
             return transaction;
         } catch (Exception e) {
             if (em.getTransaction().isActive()) {
@@ -32,15 +85,55 @@ public class TransactionDAO {
         }
     }
 
+    /**
+     * BULK INSERT: insert transactions through a StatelessSession in one database transaction
+     * No first-level cache, no dirty checking, no flush/clear: rows go straight
+     * into JDBC batches of JpaUtil.JDBC_BATCH_SIZE. Ids are assigned on the entities.
+     * The client of each transaction only needs its id (a detached Client works).
+     * The daily sales rollup is updated in the same database transaction.
+     * Returns the number of inserted rows.
+     */
+    public int insertAll(Iterable<Transaction> transactions) {
+        StatelessSession session = JpaUtil.openStatelessSession();
+        try {
+            session.beginTransaction();
+            List<Long> ids = new ArrayList<>();
+            List<Transaction> inserted = TransactionEvents.hasListeners() ? new ArrayList<>() : null;
+            for (Transaction transaction : transactions) {
+                session.insert(transaction);
+                ids.add(transaction.getId());
+                if (inserted != null) {
+                    inserted.add(transaction);
+                }
+            }
+            // Preparing the rollup statement first executes the pending insert batch
+            SalesRollupDAO.applyTransactions(session, ids, 1);
+            session.getTransaction().commit();
+            TransactionEvents.afterCommit(() -> {
+                if (inserted != null) {
+                    TransactionEvents.fireInserted(inserted);
+                }
+            });
+            return ids.size();
+        } catch (Exception e) {
+            if (session.getTransaction().isActive()) {
+                session.getTransaction().rollback();
+            }
+            throw new RuntimeException("Failed to insert transactions", e);
+        } finally {
+            session.close();
+        }
+    }
+
     /**
      * Find transaction by ID
      */
     public Transaction findById(Long id) {
-        EntityManager em = JpaUtil.getEntityManager();
+        EntityManager em = JpaUtil.getReadEntityManager();
         try {
             return em.find(Transaction.class, id);
         } finally {
-            em.close();
+            JpaUtil.release(em);
         }
     }
 
@@ -48,33 +141,48 @@ public class TransactionDAO {
      * Find recent transactions (with JOIN FETCH to avoid N+1)
      */
     public List<Transaction> findRecent(int limit) {
-        EntityManager em = JpaUtil.getEntityManager();
+        return findRecent(null, limit);
+    }
+
+    /**
+     * Find recent transactions after a keyset cursor (null = first page)
+     * Each page is a single range scan on idx_date
+     */
+    public List<Transaction> findRecent(TransactionCursor after, int limit) {
+        EntityManager em = JpaUtil.getReadEntityManager();
         try {
             TypedQuery<Transaction> query = em.createQuery(
                 "SELECT t FROM Transaction t JOIN FETCH t.client " +
+                (after != null ? "WHERE " + SEEK_PREDICATE : "") +
                 "ORDER BY t.date DESC, t.id DESC", 
                 Transaction.class);
+            bindCursor(query, after);
             query.setMaxResults(limit);
             return query.getResultList();
         } finally {
-            em.close();
+            JpaUtil.release(em);
         }
     }
 
     /**
-     * Find transactions by client ID
+     * Find transactions by client ID after a keyset cursor (null = first page)
+     * Each page is a single range scan on idx_client_date
      */
-    public List<Transaction> findByClient(Long clientId) {
-        EntityManager em = JpaUtil.getEntityManager();
+    public List<Transaction> findByClient(Long clientId, TransactionCursor after, int limit) {
+        EntityManager em = JpaUtil.getReadEntityManager();
         try {
             TypedQuery<Transaction> query = em.createQuery(
-                "SELECT t FROM Transaction t WHERE t.client.id = :clientId " +
-                "ORDER BY t.date DESC", 
+                "SELECT t FROM Transaction t JOIN FETCH t.client " +
+                "WHERE t.client.id = :clientId " +
+                (after != null ? "AND " + SEEK_PREDICATE : "") +
+                "ORDER BY t.date DESC, t.id DESC", 
                 Transaction.class);
             query.setParameter("clientId", clientId);
+            bindCursor(query, after);
+            query.setMaxResults(limit);
             return query.getResultList();
         } finally {
-            em.close();
+            JpaUtil.release(em);
         }
     }
 
@@ -82,35 +190,169 @@ public class TransactionDAO {
      * Find transactions by category
      */
     public List<Transaction> findByCategorie(String categorie, int limit) {
-        EntityManager em = JpaUtil.getEntityManager();
+        return findByCategorie(categorie, null, limit);
+    }
+
+    /**
+     * Find transactions by category after a keyset cursor (null = first page)
+     * Each page is a single range scan on idx_categorie_date
+     */
+    public List<Transaction> findByCategorie(String categorie, TransactionCursor after, int limit) {
+        EntityManager em = JpaUtil.getReadEntityManager();
         try {
             TypedQuery<Transaction> query = em.createQuery(
                 "SELECT t FROM Transaction t JOIN FETCH t.client " +
-                "WHERE t.categorie = :categorie ORDER BY t.date DESC", 
+                "WHERE t.categorie = :categorie " +
+                (after != null ? "AND " + SEEK_PREDICATE : "") +
+                "ORDER BY t.date DESC, t.id DESC", 
                 Transaction.class);
             query.setParameter("categorie", categorie);
+            bindCursor(query, after);
             query.setMaxResults(limit);
             return query.getResultList();
         } finally {
+            JpaUtil.release(em);
+        }
+    }
+
+    /**
+     * STREAMING: Export transactions of a date range row by row
+     * Forward-only MySQL streaming cursor + DTO projection: nothing is kept in
+     * the persistence context, so heap use is flat whatever the range size.
+     * Returns the number of rows handed to the consumer; when the consumer throws
+     * (client gone), the query is cancelled and the exception rethrown.
+     */
+    public long streamByDateRange(LocalDate startDate, LocalDate endDate,
+                                  Consumer<TransactionDTO> consumer) {
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            Session session = em.unwrap(Session.class);
+            em.getTransaction().begin(); // one connection for CONNECTION_ID() and the query
+            return scroll(session, session.createQuery(
+                    "SELECT new com.datainsight.dto.TransactionDTO(" +
+                    "t.id, t.date, t.montant, t.categorie, t.description, t.modePaiement, " +
+                    "t.referenceTransaction, t.createdAt, c.id, c.nom, c.prenom, c.pays) " +
+                    "FROM Transaction t JOIN t.client c " +
+                    "WHERE t.date BETWEEN :startDate AND :endDate " +
+                    "ORDER BY t.date, t.id", 
+                    TransactionDTO.class)
+                    .setParameter("startDate", startDate)
+                    .setParameter("endDate", endDate)
+                    .setReadOnly(true)
+                    .setCacheMode(CacheMode.IGNORE)
+                    .setFetchSize(Integer.MIN_VALUE), // MySQL: stream rows instead of buffering
+                    consumer);
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback(); // read only
+            }
             em.close();
         }
     }
 
     /**
-     * Find transactions by date range
+     * STREAMING: Every transaction as an analytics fact, in id order
+     * Row = {id, date, montant, categorie, modePaiement, clientId, pays}
+     * Used to bulk-load the in-memory columnar store; same streaming cursor as above.
      */
-    public List<Transaction> findByDateRange(LocalDate startDate, LocalDate endDate) {
+    public long streamFacts(Consumer<Object[]> consumer) {
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            Session session = em.unwrap(Session.class);
+            em.getTransaction().begin();
+            return scroll(session, session.createQuery(
+                    "SELECT t.id, t.date, t.montant, t.categorie, t.modePaiement, c.id, c.pays " +
+                    "FROM Transaction t JOIN t.client c " +
+                    "ORDER BY t.id", 
+                    Object[].class)
+                    .setReadOnly(true)
+                    .setCacheMode(CacheMode.IGNORE)
+                    .setFetchSize(Integer.MIN_VALUE),
+                    consumer);
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+
+    /**
+     * Hand every row of a streaming query to the consumer - the session must be in a
+     * transaction (the query runs on the connection CONNECTION_ID() was read from)
+     * Closing a MySQL streaming result reads all the rows not fetched yet, so when
+     * the consumer fails the query is killed first: the close then returns at once
+     * instead of draining the rest of the range.
+     */
+    private static <T> long scroll(Session session, SelectionQuery<T> query, Consumer<T> consumer) {
+        long connectionId = session.doReturningWork(connection -> {
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT CONNECTION_ID()")) {
+                resultSet.next();
+                return resultSet.getLong(1);
+            }
+        });
+        long count = 0;
+        try (ScrollableResults<T> rows = query.scroll(ScrollMode.FORWARD_ONLY)) {
+            try {
+                while (rows.next()) {
+                    consumer.accept(rows.get());
+                    count++;
+                }
+            } catch (RuntimeException e) {
+                killQuery(connectionId);
+                throw e;
+            }
+        }
+        return count;
+    }
+
+    private static void killQuery(long connectionId) {
         EntityManager em = JpaUtil.getEntityManager();
+        try {
+            em.unwrap(Session.class).doWork(connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("KILL QUERY " + connectionId);
+                }
+            });
+        } catch (RuntimeException e) {
+            System.err.println("✗ Could not cancel streaming query: " + e.getMessage());
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Find transactions by date range after a keyset cursor (null = first page)
+     * Each page is a single range scan on idx_date
+     */
+    public List<Transaction> findByDateRange(LocalDate startDate, LocalDate endDate,
+                                             TransactionCursor after, int limit) {
+        EntityManager em = JpaUtil.getReadEntityManager();
         try {
             TypedQuery<Transaction> query = em.createQuery(
                 "SELECT t FROM Transaction t JOIN FETCH t.client " +
-                "WHERE t.date BETWEEN :startDate AND :endDate ORDER BY t.date DESC", 
+                "WHERE t.date BETWEEN :startDate AND :endDate " +
+                (after != null ? "AND " + SEEK_PREDICATE : "") +
+                "ORDER BY t.date DESC, t.id DESC", 
                 Transaction.class);
             query.setParameter("startDate", startDate);
             query.setParameter("endDate", endDate);
+            bindCursor(query, after);
+            query.setMaxResults(limit);
             return query.getResultList();
         } finally {
-            em.close();
+            JpaUtil.release(em);
+        }
+    }
+
+    /**
+     * Bind keyset cursor parameters used by SEEK_PREDICATE
+     */
+    private void bindCursor(TypedQuery<?> query, TransactionCursor after) {
+        if (after != null) {
+            query.setParameter("cursorDate", after.getDate());
+            query.setParameter("cursorId", after.getId());
         }
     }
 
@@ -118,28 +360,79 @@ public class TransactionDAO {
      * Count total transactions
      */
     public long count() {
-        EntityManager em = JpaUtil.getEntityManager();
+        EntityManager em = JpaUtil.getReadEntityManager();
         try {
             return em.createQuery("SELECT COUNT(t) FROM Transaction t", Long.class)
                     .getSingleResult();
         } finally {
-            em.close();
+            JpaUtil.release(em);
         }
     }
 
     /**
-     * ANALYTICS: Revenue by country (total and average)
+     * ANALYTICS: Revenue by country (total and average, from the daily sales rollup)
      */
     public List<Object[]> getRevenueByCountry() {
-        EntityManager em = JpaUtil.getEntityManager();
+        EntityManager em = JpaUtil.getReadEntityManager();
         try {
             TypedQuery<Object[]> query = em.createQuery(
-                "SELECT t.client.pays, SUM(t.montant), AVG(t.montant), COUNT(t) " +
-                "FROM Transaction t " +
-                "GROUP BY t.client.pays " +
-                "ORDER BY SUM(t.montant) DESC", 
+                "SELECT r.id.pays, SUM(r.totalAmount), " +
+                "SUM(r.totalAmount) / SUM(r.transactionCount), SUM(r.transactionCount) " +
+                "FROM DailySalesRollup r " +
+                "GROUP BY r.id.pays " +
+                "HAVING SUM(r.transactionCount) > 0 " +
+                "ORDER BY SUM(r.totalAmount) DESC", 
                 Object[].class);
             return query.getResultList();
+        } finally {
+            JpaUtil.release(em);
+        }
+    }
+
+    /**
+     * Ids lookups against the snapshot of readClientTotals
+     */
+    public interface SnapshotReader {
+        /**
+         * The given transaction ids that exist in the snapshot
+         */
+        Set<Long> findExistingIds(Collection<Long> transactionIds);
+    }
+
+    /**
+     * ANALYTICS: Total spending of every client {clientId, SUM(montant), COUNT}, then
+     * the handler runs inside the same read-only database transaction. With InnoDB
+     * REPEATABLE READ every read there sees the data as of the totals query, so the
+     * handler can tell which recently written ids the totals already include.
+     */
+    public <R> R readClientTotals(BiFunction<List<Object[]>, SnapshotReader, R> handler) {
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            em.getTransaction().begin();
+            List<Object[]> totals = em.createQuery(
+                "SELECT t.client.id, SUM(t.montant), COUNT(t) " +
+                "FROM Transaction t " +
+                "GROUP BY t.client.id", 
+                Object[].class)
+                .getResultList();
+            R result = handler.apply(totals, ids -> {
+                Set<Long> existing = new HashSet<>();
+                List<Long> all = new ArrayList<>(ids);
+                for (int from = 0; from < all.size(); from += 1000) {
+                    existing.addAll(em.createQuery(
+                        "SELECT t.id FROM Transaction t WHERE t.id IN :ids", Long.class)
+                        .setParameter("ids", all.subList(from, Math.min(from + 1000, all.size())))
+                        .getResultList());
+                }
+                return existing;
+            });
+            em.getTransaction().commit();
+            return result;
+        } catch (Exception e) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            throw new RuntimeException("Failed to read client totals", e);
         } finally {
             em.close();
         }
@@ -149,7 +442,7 @@ public class TransactionDAO {
      * ANALYTICS: Top clients by total spending
      */
     public List<Object[]> getTopClients(int limit) {
-        EntityManager em = JpaUtil.getEntityManager();
+        EntityManager em = JpaUtil.getReadEntityManager();
         try {
             TypedQuery<Object[]> query = em.createQuery(
                 "SELECT t.client.nom, t.client.prenom, t.client.pays, " +
@@ -161,94 +454,199 @@ public class TransactionDAO {
             query.setMaxResults(limit);
             return query.getResultList();
         } finally {
-            em.close();
+            JpaUtil.release(em);
         }
     }
 
     /**
-     * ANALYTICS: Revenue by category
+     * ANALYTICS: Revenue by category (from the daily sales rollup)
      */
     public List<Object[]> getRevenueByCategory() {
-        EntityManager em = JpaUtil.getEntityManager();
+        EntityManager em = JpaUtil.getReadEntityManager();
         try {
             TypedQuery<Object[]> query = em.createQuery(
-                "SELECT t.categorie, SUM(t.montant), AVG(t.montant), COUNT(t) " +
-                "FROM Transaction t " +
-                "GROUP BY t.categorie " +
-                "ORDER BY SUM(t.montant) DESC", 
+                "SELECT r.id.categorie, SUM(r.totalAmount), " +
+                "SUM(r.totalAmount) / SUM(r.transactionCount), SUM(r.transactionCount) " +
+                "FROM DailySalesRollup r " +
+                "GROUP BY r.id.categorie " +
+                "HAVING SUM(r.transactionCount) > 0 " +
+                "ORDER BY SUM(r.totalAmount) DESC", 
                 Object[].class);
             return query.getResultList();
         } finally {
-            em.close();
+            JpaUtil.release(em);
         }
     }
 
     /**
-     * ANALYTICS: Sales by month
+     * ANALYTICS: Sales by month (from the daily sales rollup)
      */
     public List<Object[]> getSalesByMonth() {
-        EntityManager em = JpaUtil.getEntityManager();
+        EntityManager em = JpaUtil.getReadEntityManager();
         try {
             TypedQuery<Object[]> query = em.createQuery(
-                "SELECT YEAR(t.date), MONTH(t.date), SUM(t.montant), COUNT(t) " +
-                "FROM Transaction t " +
-                "GROUP BY YEAR(t.date), MONTH(t.date) " +
-                "ORDER BY YEAR(t.date) DESC, MONTH(t.date) DESC", 
+                "SELECT YEAR(r.id.day), MONTH(r.id.day), SUM(r.totalAmount), SUM(r.transactionCount) " +
+                "FROM DailySalesRollup r " +
+                "GROUP BY YEAR(r.id.day), MONTH(r.id.day) " +
+                "HAVING SUM(r.transactionCount) > 0 " +
+                "ORDER BY YEAR(r.id.day) DESC, MONTH(r.id.day) DESC", 
                 Object[].class);
             return query.getResultList();
         } finally {
-            em.close();
+            JpaUtil.release(em);
         }
     }
 
     /**
-     * ANALYTICS: Sales by day (last N days)
+     * ANALYTICS: Sales by day (last N days, from the daily sales rollup)
      */
     public List<Object[]> getSalesByDay(int days) {
-        EntityManager em = JpaUtil.getEntityManager();
+        EntityManager em = JpaUtil.getReadEntityManager();
         try {
             LocalDate since = LocalDate.now().minusDays(days);
             TypedQuery<Object[]> query = em.createQuery(
-                "SELECT t.date, SUM(t.montant), COUNT(t) " +
-                "FROM Transaction t " +
-                "WHERE t.date >= :since " +
-                "GROUP BY t.date " +
-                "ORDER BY t.date DESC", 
+                "SELECT r.id.day, SUM(r.totalAmount), SUM(r.transactionCount) " +
+                "FROM DailySalesRollup r " +
+                "WHERE r.id.day >= :since " +
+                "GROUP BY r.id.day " +
+                "HAVING SUM(r.transactionCount) > 0 " +
+                "ORDER BY r.id.day DESC", 
                 Object[].class);
             query.setParameter("since", since);
             return query.getResultList();
         } finally {
-            em.close();
+            JpaUtil.release(em);
         }
     }
 
     /**
-     * ANALYTICS: Total revenue
+     * ANALYTICS: Exact number of distinct paying clients between two dates
+     * groupBy: null (one row {null, count}), "pays", "categorie" or "day"
+     * Rows {key, COUNT(DISTINCT client)}; days latest first, others by count.
+     * Scans every transaction of the range - see UniqueClientsIndex for the fast path.
      */
-    public Double getTotalRevenue() {
-        EntityManager em = JpaUtil.getEntityManager();
+    public List<Object[]> countUniqueClients(String groupBy, LocalDate from, LocalDate to) {
+        String key;
+        String order;
+        if (groupBy == null) {
+            return List.<Object[]>of(new Object[] { null, countUniqueClients(from, to) });
+        } else if (groupBy.equals("pays")) {
+            key = "t.client.pays";
+            order = "ORDER BY COUNT(DISTINCT t.client.id) DESC";
+        } else if (groupBy.equals("categorie")) {
+            key = "t.categorie";
+            order = "ORDER BY COUNT(DISTINCT t.client.id) DESC";
+        } else if (groupBy.equals("day")) {
+            key = "t.date";
+            order = "ORDER BY t.date DESC";
+        } else {
+            throw new IllegalArgumentException("Unknown groupBy: " + groupBy);
+        }
+        EntityManager em = JpaUtil.getReadEntityManager();
         try {
-            Double result = em.createQuery(
-                "SELECT SUM(t.montant) FROM Transaction t", Double.class)
+            return em.createQuery(
+                "SELECT " + key + ", COUNT(DISTINCT t.client.id) " +
+                "FROM Transaction t " +
+                "WHERE t.date BETWEEN :from AND :to " +
+                "GROUP BY " + key + " " + order, 
+                Object[].class)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .getResultList();
+        } finally {
+            JpaUtil.release(em);
+        }
+    }
+
+    private long countUniqueClients(LocalDate from, LocalDate to) {
+        EntityManager em = JpaUtil.getReadEntityManager();
+        try {
+            return em.createQuery(
+                "SELECT COUNT(DISTINCT t.client.id) FROM Transaction t " +
+                "WHERE t.date BETWEEN :from AND :to", 
+                Long.class)
+                .setParameter("from", from)
+                .setParameter("to", to)
                 .getSingleResult();
-            return result != null ? result : 0.0;
         } finally {
-            em.close();
+            JpaUtil.release(em);
         }
     }
 
     /**
-     * ANALYTICS: Average transaction amount
+     * ANALYTICS: Exact amount percentiles (nearest rank) per category between two
+     * dates (null = unbounded), for one category or all of them (categorie null)
+     * Rows {categorie, COUNT, double[] values in the order of percentiles}, by category.
+     * One sort of the category's amounts per percentile - see AmountPercentilesIndex
+     * for the fast path.
      */
-    public Double getAverageTransactionAmount() {
-        EntityManager em = JpaUtil.getEntityManager();
+    public List<Object[]> getAmountPercentiles(String categorie, LocalDate from, LocalDate to,
+                                               double[] percentiles) {
+        String range = (from != null ? "AND t.date >= :from " : "") +
+                       (to != null ? "AND t.date <= :to " : "");
+        EntityManager em = JpaUtil.getReadEntityManager();
+        try {
+            TypedQuery<Object[]> counts = em.createQuery(
+                "SELECT t.categorie, COUNT(t) FROM Transaction t " +
+                "WHERE " + (categorie != null ? "t.categorie = :categorie " : "1 = 1 ") + range +
+                "GROUP BY t.categorie ORDER BY t.categorie", 
+                Object[].class);
+            bindRange(counts, categorie, from, to);
+
+            List<Object[]> rows = new ArrayList<>();
+            for (Object[] count : counts.getResultList()) {
+                String category = (String) count[0];
+                long n = (Long) count[1];
+                double[] values = new double[percentiles.length];
+                for (int i = 0; i < percentiles.length; i++) {
+                    long rank = Math.max(1, (long) Math.ceil(percentiles[i] / 100 * n));
+                    TypedQuery<Double> amount = em.createQuery(
+                        "SELECT t.montant FROM Transaction t " +
+                        "WHERE " + (category != null ? "t.categorie = :categorie " : "t.categorie IS NULL ") + range +
+                        "ORDER BY t.montant", 
+                        Double.class);
+                    bindRange(amount, category, from, to);
+                    amount.setFirstResult((int) Math.min(rank - 1, Integer.MAX_VALUE));
+                    amount.setMaxResults(1);
+                    List<Double> found = amount.getResultList();
+                    values[i] = found.isEmpty() || found.get(0) == null ? Double.NaN : found.get(0);
+                }
+                rows.add(new Object[] { category, n, values });
+            }
+            return rows;
+        } finally {
+            JpaUtil.release(em);
+        }
+    }
+
+    private static void bindRange(TypedQuery<?> query, String categorie, LocalDate from, LocalDate to) {
+        if (categorie != null) {
+            query.setParameter("categorie", categorie);
+        }
+        if (from != null) {
+            query.setParameter("from", from);
+        }
+        if (to != null) {
+            query.setParameter("to", to);
+        }
+    }
+
+    /**
+     * ANALYTICS: Global overview - transaction count, sum, average, min and max
+     * in one scan, plus the client count, in a single round-trip
+     */
+    public OverviewStats getOverview() {
+        EntityManager em = JpaUtil.getReadEntityManager();
         try {
-            Double result = em.createQuery(
-                "SELECT AVG(t.montant) FROM Transaction t", Double.class)
+            return em.createQuery(
+                "SELECT new com.datainsight.dto.OverviewStats(" +
+                "(SELECT COUNT(c) FROM Client c), " +
+                "COUNT(t), SUM(t.montant), AVG(t.montant), MIN(t.montant), MAX(t.montant)) " +
+                "FROM Transaction t", 
+                OverviewStats.class)
                 .getSingleResult();
-            return result != null ? result : 0.0;
         } finally {
-            em.close();
+            JpaUtil.release(em);
         }
     }
 
@@ -261,9 +659,15 @@ public class TransactionDAO {
             em.getTransaction().begin();
             Transaction transaction = em.find(Transaction.class, id);
             if (transaction != null) {
+                SalesRollupDAO.applyTransactions(em.unwrap(Session.class), List.of(id), -1);
                 em.remove(transaction);
             }
             em.getTransaction().commit();
+            TransactionEvents.afterCommit(() -> {
+                if (transaction != null) {
+                    TransactionEvents.fireDeleted(transaction);
+                }
+            });
         } catch (Exception e) {
             if (em.getTransaction().isActive()) {
                 em.getTransaction().rollback();
@@ -275,22 +679,117 @@ public class TransactionDAO {
     }
 
     /**
-     * Delete old transactions (cleanup)
+     * Delete the given transactions in one short database transaction (rollup included)
+     * Used by PurgeJob for each chunk.
+     */
+    public int deleteAll(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>(transactions.size());
+        transactions.forEach(t -> ids.add(t.getId()));
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            em.getTransaction().begin();
+            SalesRollupDAO.applyTransactions(em.unwrap(Session.class), ids, -1);
+            int deleted = em.createQuery(
+                "DELETE FROM Transaction t WHERE t.id IN :ids")
+                .setParameter("ids", ids)
+                .executeUpdate();
+            em.getTransaction().commit();
+            TransactionEvents.afterCommit(() -> transactions.forEach(TransactionEvents::fireDeleted));
+            return deleted;
+        } catch (Exception e) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            throw new RuntimeException("Failed to delete transactions", e);
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Next chunk to purge after afterId, in id order (keyset walk on the primary key):
+     * transactions older than the date, or of the client (exactly one of them non-null)
+     */
+    public List<Transaction> findPurgeChunk(LocalDate before, Long clientId, long afterId, int limit) {
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            TypedQuery<Transaction> query = em.createQuery(
+                "SELECT t FROM Transaction t " +
+                "WHERE " + (before != null ? "t.date < :before " : "t.client.id = :clientId ") +
+                "AND t.id > :afterId " +
+                "ORDER BY t.id", 
+                Transaction.class);
+            if (before != null) {
+                query.setParameter("before", before);
+            } else {
+                query.setParameter("clientId", clientId);
+            }
+            query.setParameter("afterId", afterId);
+            query.setMaxResults(limit);
+            query.setHint(HibernateHints.HINT_READ_ONLY, true);
+            return query.getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Number of transactions a purge would delete (same criteria as findPurgeChunk)
      */
-    public int deleteOlderThan(LocalDate date) {
+    public long countPurgeable(LocalDate before, Long clientId) {
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            TypedQuery<Long> query = em.createQuery(
+                "SELECT COUNT(t) FROM Transaction t " +
+                "WHERE " + (before != null ? "t.date < :before" : "t.client.id = :clientId"), 
+                Long.class);
+            if (before != null) {
+                query.setParameter("before", before);
+            } else {
+                query.setParameter("clientId", clientId);
+            }
+            return query.getSingleResult();
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Delete old transactions (cleanup) in a single database transaction
+     * On a partitioned table whole months are dropped with their partitions first
+     * (see PartitionMaintenance); only the rows of the month of the date, if it is
+     * not the 1st, are deleted row by row - that DELETE only touches their partition.
+     * For millions of rows on a plain table use PurgeJob (short chunked transactions).
+     */
+    public long deleteOlderThan(LocalDate date) {
+        PartitionMaintenance partitions = PartitionMaintenance.getInstance();
+        long dropped = partitions.isPartitioned() ? partitions.dropPartitionsBefore(date) : 0;
+
         EntityManager em = JpaUtil.getEntityManager();
         try {
             em.getTransaction().begin();
+            SalesRollupDAO.deleteDaysBefore(em.unwrap(Session.class), date);
             int deleted = em.createQuery(
                 "DELETE FROM Transaction t WHERE t.date < :date")
                 .setParameter("date", date)
                 .executeUpdate();
             em.getTransaction().commit();
-            return deleted;
+            TransactionEvents.afterCommit(() -> TransactionEvents.fireDeletedBefore(date));
+            return dropped + deleted;
         } catch (Exception e) {
             if (em.getTransaction().isActive()) {
                 em.getTransaction().rollback();
             }
+            if (dropped > 0) {
+                // The dropped months are gone whatever happens here: tell the listeners
+                LocalDate droppedBefore = date.withDayOfMonth(1);
+                TransactionEvents.afterCommit(() -> TransactionEvents.fireDeletedBefore(droppedBefore));
+                throw new RuntimeException("Failed to delete old transactions (" + dropped +
+                    " before " + droppedBefore + " already dropped, rebuild the sales rollup)", e);
+            }
             throw new RuntimeException("Failed to delete old transactions", e);
         } finally {
             em.close();
@@ -0,0 +1,96 @@
+package com.datainsight.dao;
+
+import com.datainsight.cache.DataVersion;
+import com.datainsight.model.Transaction;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Registry of TransactionListeners - the DAOs publish every committed change here
+ * so in-memory analytics can follow the database without polling it
+ */
+public final class TransactionEvents {
+
+    private static final CopyOnWriteArrayList<TransactionListener> listeners = new CopyOnWriteArrayList<>();
+
+    // Private constructor - static utility
+    private TransactionEvents() {}
+
+    public static void register(TransactionListener listener) {
+        listeners.addIfAbsent(listener);
+    }
+
+    public static void unregister(TransactionListener listener) {
+        listeners.remove(listener);
+    }
+
+    public static boolean hasListeners() {
+        return !listeners.isEmpty();
+    }
+
+    /**
+     * Publish a committed write: updates (listener events, cache invalidation) run
+     * first, then DataVersion moves. A reader that sees the new version (StatsCache,
+     * ETags) also sees the in-memory views updated; one that computes meanwhile is
+     * stamped with the old version and recomputed.
+     */
+    static void afterCommit(Runnable updates) {
+        try {
+            updates.run();
+        } finally {
+            DataVersion.bump();
+        }
+    }
+
+    /**
+     * Committed write nobody in memory needs to hear about
+     */
+    static void afterCommit() {
+        DataVersion.bump();
+    }
+
+    static void fireInserted(List<Transaction> transactions) {
+        if (!transactions.isEmpty()) {
+            fire(listener -> listener.onInserted(transactions));
+        }
+    }
+
+    static void fireDeleted(Transaction transaction) {
+        fire(listener -> listener.onDeleted(transaction));
+    }
+
+    static void fireDeletedBefore(LocalDate date) {
+        fire(listener -> listener.onDeletedBefore(date));
+    }
+
+    static void fireClientsDeleted(Set<Long> clientIds) {
+        if (!clientIds.isEmpty()) {
+            fire(listener -> listener.onClientsDeleted(clientIds));
+        }
+    }
+
+    static void fireClientCountryChanged(Long clientId, String pays) {
+        fire(listener -> listener.onClientCountryChanged(clientId, pays));
+    }
+
+    static void fireExternalChange() {
+        fire(TransactionListener::onExternalChange);
+    }
+
+    /**
+     * The write is already committed: a failing listener is logged, never propagated
+     */
+    private static void fire(Consumer<TransactionListener> event) {
+        for (TransactionListener listener : listeners) {
+            try {
+                event.accept(listener);
+            } catch (RuntimeException e) {
+                System.err.println("✗ Transaction listener " + listener.getClass().getSimpleName() +
+                                   " failed: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.datainsight.dao;
+
+import com.datainsight.model.Transaction;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Callback for committed changes to transactions (register with TransactionEvents)
+ * Called on the writing thread right after commit - implementations must be quick
+ * and must not throw. Every method is optional.
+ */
+public interface TransactionListener {
+
+    /**
+     * New transactions (ids assigned; the client may be an id-only reference)
+     */
+    default void onInserted(List<Transaction> transactions) {}
+
+    /**
+     * One transaction deleted (detached state as it was before the delete)
+     */
+    default void onDeleted(Transaction transaction) {}
+
+    /**
+     * All transactions dated before the given day deleted
+     */
+    default void onDeletedBefore(LocalDate date) {}
+
+    /**
+     * Clients and all of their transactions deleted (one call per delete, whatever
+     * the number of clients)
+     */
+    default void onClientsDeleted(Set<Long> clientIds) {}
+
+    /**
+     * A client moved to another country (its transactions now count for the new one)
+     */
+    default void onClientCountryChanged(Long clientId, String pays) {}
+
+    /**
+     * Another process (PurgeJob or DataGenerator from the command line) changed
+     * the data: what is held in memory must be rebuilt from the database
+     */
+    default void onExternalChange() {}
+}
@@ -0,0 +1,55 @@
+package com.datainsight.dto;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Transaction amount percentiles per category over a month range
+ * Values are either exact (database, nearest rank) or t-digest estimates.
+ */
+public final class AmountPercentilesStats {
+
+    private final String categorie;
+    private final YearMonth from;
+    private final YearMonth to;
+    private final double[] percentiles;
+    private final boolean estimated;
+    private final List<Object[]> rows;
+
+    public AmountPercentilesStats(String categorie, YearMonth from, YearMonth to, double[] percentiles,
+                                  boolean estimated, List<Object[]> rows) {
+        this.categorie = categorie;
+        this.from = from;
+        this.to = to;
+        this.percentiles = percentiles;
+        this.estimated = estimated;
+        this.rows = rows;
+    }
+
+    public String getCategorie() {
+        return categorie;
+    }
+
+    public YearMonth getFrom() {
+        return from;
+    }
+
+    public YearMonth getTo() {
+        return to;
+    }
+
+    public double[] getPercentiles() {
+        return percentiles;
+    }
+
+    public boolean isEstimated() {
+        return estimated;
+    }
+
+    /**
+     * {categorie, count, double[] values in the order of percentiles} rows
+     */
+    public List<Object[]> getRows() {
+        return rows;
+    }
+}
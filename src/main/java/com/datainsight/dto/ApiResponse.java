@@ -12,6 +12,7 @@ public class ApiResponse<T> {
     private T data;
     private LocalDateTime timestamp;
     private Integer count;
+    private String nextCursor;
     
     public ApiResponse() {
         this.timestamp = LocalDateTime.now();
@@ -77,4 +78,12 @@ public class ApiResponse<T> {
     public void setCount(Integer count) {
         this.count = count;
     }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 }
\ No newline at end of file
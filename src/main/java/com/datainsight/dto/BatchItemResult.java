@@ -0,0 +1,74 @@
+package com.datainsight.dto;
+
+/**
+ * Outcome of one item of a batch ingestion request
+ */
+public class BatchItemResult {
+
+    private int index;
+    private boolean success;
+    private Long id;
+    private String referenceTransaction;
+    private String error;
+
+    // Constructors
+    public BatchItemResult() {}
+
+    public static BatchItemResult created(int index, Long id, String referenceTransaction) {
+        BatchItemResult result = new BatchItemResult();
+        result.index = index;
+        result.success = true;
+        result.id = id;
+        result.referenceTransaction = referenceTransaction;
+        return result;
+    }
+
+    public static BatchItemResult failed(int index, String error) {
+        BatchItemResult result = new BatchItemResult();
+        result.index = index;
+        result.success = false;
+        result.error = error;
+        return result;
+    }
+
+    // Getters and Setters
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getReferenceTransaction() {
+        return referenceTransaction;
+    }
+
+    public void setReferenceTransaction(String referenceTransaction) {
+        this.referenceTransaction = referenceTransaction;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
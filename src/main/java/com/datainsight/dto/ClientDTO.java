@@ -1,6 +1,7 @@
 package com.datainsight.dto;
 
 import com.datainsight.model.Client;
+import org.hibernate.Hibernate;
 import java.time.LocalDateTime;
 
 /**
@@ -33,8 +34,11 @@ public class ClientDTO {
         this.email = client.getEmail();
         this.dateInscription = client.getDateInscription();
         this.statut = client.getStatut();
-        this.nombreTransactions = client.getTransactions() != null ? 
-            client.getTransactions().size() : 0;
+        // Only read the collection if already loaded: a lazy load per client
+        // turns every page into N+1 queries (or fails once the EntityManager is closed)
+        this.nombreTransactions = client.getTransactions() != null &&
+            Hibernate.isInitialized(client.getTransactions()) ?
+            client.getTransactions().size() : null;
     }
     
     // Static factory method
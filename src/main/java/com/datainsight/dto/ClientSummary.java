@@ -0,0 +1,36 @@
+package com.datainsight.dto;
+
+/**
+ * Immutable client identity (id + display fields) - what a transaction needs from its client
+ */
+public final class ClientSummary {
+
+    private final Long id;
+    private final String nom;
+    private final String prenom;
+    private final String pays;
+
+    // Used by JPQL constructor expressions
+    public ClientSummary(Long id, String nom, String prenom, String pays) {
+        this.id = id;
+        this.nom = nom;
+        this.prenom = prenom;
+        this.pays = pays;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getNom() {
+        return nom;
+    }
+
+    public String getPrenom() {
+        return prenom;
+    }
+
+    public String getPays() {
+        return pays;
+    }
+}
@@ -0,0 +1,50 @@
+package com.datainsight.dto;
+
+/**
+ * Global figures shown on the dashboards - produced by one query (TransactionDAO.getOverview)
+ * Amount fields are 0 when there are no transactions.
+ */
+public final class OverviewStats {
+
+    private final long totalClients;
+    private final long totalTransactions;
+    private final double totalRevenue;
+    private final double averageTransaction;
+    private final double minTransaction;
+    private final double maxTransaction;
+
+    // Used by JPQL constructor expressions (aggregates of an empty table are null)
+    public OverviewStats(Long totalClients, Long totalTransactions, Double totalRevenue,
+                         Double averageTransaction, Double minTransaction, Double maxTransaction) {
+        this.totalClients = totalClients != null ? totalClients : 0;
+        this.totalTransactions = totalTransactions != null ? totalTransactions : 0;
+        this.totalRevenue = totalRevenue != null ? totalRevenue : 0.0;
+        this.averageTransaction = averageTransaction != null ? averageTransaction : 0.0;
+        this.minTransaction = minTransaction != null ? minTransaction : 0.0;
+        this.maxTransaction = maxTransaction != null ? maxTransaction : 0.0;
+    }
+
+    public long getTotalClients() {
+        return totalClients;
+    }
+
+    public long getTotalTransactions() {
+        return totalTransactions;
+    }
+
+    public double getTotalRevenue() {
+        return totalRevenue;
+    }
+
+    public double getAverageTransaction() {
+        return averageTransaction;
+    }
+
+    public double getMinTransaction() {
+        return minTransaction;
+    }
+
+    public double getMaxTransaction() {
+        return maxTransaction;
+    }
+}
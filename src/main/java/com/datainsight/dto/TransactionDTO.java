@@ -1,6 +1,8 @@
 package com.datainsight.dto;
 
+import com.datainsight.model.Client;
 import com.datainsight.model.Transaction;
+import org.hibernate.Hibernate;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
@@ -37,18 +39,51 @@ public class TransactionDTO {
         this.referenceTransaction = transaction.getReferenceTransaction();
         this.createdAt = transaction.getCreatedAt();
         
-        if (transaction.getClient() != null) {
-            this.clientId = transaction.getClient().getId();
-            this.clientNom = transaction.getClient().getNom();
-            this.clientPrenom = transaction.getClient().getPrenom();
-            this.clientPays = transaction.getClient().getPays();
+        Client client = transaction.getClient();
+        if (client != null) {
+            this.clientId = client.getId();
+            // An uninitialized reference (getReference) only knows its id
+            if (Hibernate.isInitialized(client)) {
+                this.clientNom = client.getNom();
+                this.clientPrenom = client.getPrenom();
+                this.clientPays = client.getPays();
+            }
         }
     }
     
+    // Flat constructor - used by JPQL constructor expressions (no entity hydration)
+    public TransactionDTO(Long id, LocalDate date, Double montant, String categorie,
+                          String description, String modePaiement, String referenceTransaction,
+                          LocalDateTime createdAt, Long clientId, String clientNom,
+                          String clientPrenom, String clientPays) {
+        this.id = id;
+        this.date = date;
+        this.montant = montant;
+        this.categorie = categorie;
+        this.description = description;
+        this.modePaiement = modePaiement;
+        this.referenceTransaction = referenceTransaction;
+        this.createdAt = createdAt;
+        this.clientId = clientId;
+        this.clientNom = clientNom;
+        this.clientPrenom = clientPrenom;
+        this.clientPays = clientPays;
+    }
+    
     // Static factory method
     public static TransactionDTO fromEntity(Transaction transaction) {
         return new TransactionDTO(transaction);
     }
+
+    // Client fields taken from a cached summary instead of the client entity
+    public static TransactionDTO fromEntity(Transaction transaction, ClientSummary client) {
+        TransactionDTO dto = new TransactionDTO(transaction);
+        dto.clientId = client.getId();
+        dto.clientNom = client.getNom();
+        dto.clientPrenom = client.getPrenom();
+        dto.clientPays = client.getPays();
+        return dto;
+    }
     
     // Getters and Setters
     public Long getId() {
@@ -0,0 +1,57 @@
+package com.datainsight.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Distinct paying clients over a date range, optionally grouped
+ * Counts are either exact (database) or HyperLogLog estimates; relativeError is
+ * the standard error of an estimate (about 68% of estimates are within it,
+ * 95% within twice it) and null for exact counts.
+ */
+public final class UniqueClientsStats {
+
+    private final String groupBy;
+    private final LocalDate from;
+    private final LocalDate to;
+    private final boolean estimated;
+    private final Double relativeError;
+    private final List<Object[]> rows;
+
+    public UniqueClientsStats(String groupBy, LocalDate from, LocalDate to,
+                              boolean estimated, Double relativeError, List<Object[]> rows) {
+        this.groupBy = groupBy;
+        this.from = from;
+        this.to = to;
+        this.estimated = estimated;
+        this.relativeError = relativeError;
+        this.rows = rows;
+    }
+
+    public String getGroupBy() {
+        return groupBy;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public boolean isEstimated() {
+        return estimated;
+    }
+
+    public Double getRelativeError() {
+        return relativeError;
+    }
+
+    /**
+     * {key, count} rows - key is null without grouping
+     */
+    public List<Object[]> getRows() {
+        return rows;
+    }
+}
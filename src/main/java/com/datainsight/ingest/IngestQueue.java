@@ -0,0 +1,215 @@
+package com.datainsight.ingest;
+
+import com.datainsight.dao.TransactionDAO;
+import com.datainsight.model.Transaction;
+import com.datainsight.util.AppConfig;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous group-commit ingestion (ingest.async.enabled)
+ * Requests enqueue transactions into a bounded lock-free RingBuffer and return
+ * at once; a few writer threads drain it and commit one database transaction
+ * per ingest.async.maxBatch rows or every ingest.async.maxDelayMs, whichever
+ * comes first. One fsync is shared by the whole group.
+ */
+public final class IngestQueue {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long GROUP_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long SHUTDOWN_TIMEOUT_MS = 30_000;
+
+    private static volatile IngestQueue instance;
+
+    private final RingBuffer<Transaction> buffer;
+    private final TransactionDAO transactionDAO = new TransactionDAO();
+    private final int maxBatch;
+    private final long maxDelayNanos;
+    private final Thread[] writers;
+    private volatile boolean running = true;
+
+    // Metrics
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder committedRows = new LongAdder();
+    private final LongAdder failedRows = new LongAdder();
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder commitNanos = new LongAdder();
+    private final AtomicLong maxCommitNanos = new AtomicLong();
+    private volatile int lastBatchSize;
+
+    private IngestQueue() {
+        this.buffer = new RingBuffer<>(AppConfig.getInt("ingest.async.capacity", 65536));
+        this.maxBatch = Math.max(1, AppConfig.getInt("ingest.async.maxBatch", 500));
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(AppConfig.getLong("ingest.async.maxDelayMs", 10));
+        this.writers = new Thread[Math.max(1, AppConfig.getInt("ingest.async.writers", 2))];
+        for (int i = 0; i < writers.length; i++) {
+            writers[i] = new Thread(this::writerLoop, "ingest-writer-" + i);
+            writers[i].setDaemon(true);
+            writers[i].start();
+        }
+        System.out.println("✓ IngestQueue started (" + writers.length + " writer(s), capacity " +
+                           buffer.capacity() + ", batch " + maxBatch + ")");
+    }
+
+    /**
+     * Async mode switch (ingest.async.enabled)
+     */
+    public static boolean isEnabled() {
+        return AppConfig.getBoolean("ingest.async.enabled", false);
+    }
+
+    /**
+     * Shared queue, started on first use
+     */
+    public static IngestQueue getInstance() {
+        IngestQueue queue = instance;
+        if (queue == null) {
+            synchronized (IngestQueue.class) {
+                queue = instance;
+                if (queue == null) {
+                    queue = new IngestQueue();
+                    instance = queue;
+                }
+            }
+        }
+        return queue;
+    }
+
+    /**
+     * Stop the writers after committing everything still queued (call on app shutdown)
+     */
+    public static synchronized void shutdown() {
+        IngestQueue queue = instance;
+        if (queue == null) {
+            return;
+        }
+        instance = null;
+        queue.running = false;
+        long deadline = System.currentTimeMillis() + SHUTDOWN_TIMEOUT_MS;
+        for (Thread writer : queue.writers) {
+            try {
+                writer.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        int left = queue.buffer.size();
+        if (left > 0) {
+            System.err.println("✗ IngestQueue stopped with " + left + " uncommitted transaction(s)");
+        } else {
+            System.out.println("✓ IngestQueue drained and stopped");
+        }
+    }
+
+    /**
+     * Enqueue a transaction - false when the buffer is full (caller should retry later)
+     */
+    public boolean submit(Transaction transaction) {
+        if (running && buffer.offer(transaction)) {
+            accepted.increment();
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * Writer thread: collect a group, commit it, repeat until stopped and drained
+     */
+    private void writerLoop() {
+        List<Transaction> batch = new ArrayList<>(maxBatch);
+        while (running || buffer.size() > 0) {
+            if (buffer.drainTo(batch, maxBatch) == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+
+            // Group commit: wait for more rows until the batch is full or the oldest waited maxDelay
+            long deadline = System.nanoTime() + maxDelayNanos;
+            while (batch.size() < maxBatch && running && System.nanoTime() < deadline) {
+                if (buffer.drainTo(batch, maxBatch - batch.size()) == 0) {
+                    LockSupport.parkNanos(GROUP_PARK_NANOS);
+                }
+            }
+
+            commit(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * One database transaction for the group; on failure retry row by row to isolate bad rows
+     */
+    private void commit(List<Transaction> batch) {
+        long start = System.nanoTime();
+        try {
+            transactionDAO.insertAll(batch);
+            committedRows.add(batch.size());
+        } catch (RuntimeException e) {
+            System.err.println("✗ Group commit of " + batch.size() + " rows failed, retrying one by one: " +
+                               e.getMessage());
+            for (Transaction transaction : batch) {
+                try {
+                    transactionDAO.insertAll(Collections.singletonList(transaction));
+                    committedRows.increment();
+                } catch (RuntimeException rowFailure) {
+                    failedRows.increment();
+                    System.err.println("✗ Dropped transaction " + transaction.getReferenceTransaction() +
+                                       ": " + rowFailure.getMessage());
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        commits.increment();
+        commitNanos.add(elapsed);
+        maxCommitNanos.accumulateAndGet(elapsed, Math::max);
+        lastBatchSize = batch.size();
+    }
+
+    /**
+     * Queue depth, commit batch sizes and commit latency
+     */
+    public Map<String, Object> getMetrics() {
+        long commitCount = commits.sum();
+        long rows = committedRows.sum() + failedRows.sum();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", true);
+        metrics.put("queueDepth", buffer.size());
+        metrics.put("capacity", buffer.capacity());
+        metrics.put("writers", writers.length);
+        metrics.put("maxBatchSize", maxBatch);
+        metrics.put("maxDelayMs", TimeUnit.NANOSECONDS.toMillis(maxDelayNanos));
+        metrics.put("accepted", accepted.sum());
+        metrics.put("rejected", rejected.sum());
+        metrics.put("committedRows", committedRows.sum());
+        metrics.put("failedRows", failedRows.sum());
+        metrics.put("commits", commitCount);
+        metrics.put("lastBatchSize", lastBatchSize);
+        metrics.put("averageBatchSize", commitCount > 0 ? (double) rows / commitCount : 0.0);
+        metrics.put("averageCommitLatencyMs", commitCount > 0 ? commitNanos.sum() / 1e6 / commitCount : 0.0);
+        metrics.put("maxCommitLatencyMs", maxCommitNanos.get() / 1e6);
+        return metrics;
+    }
+
+    /**
+     * Metrics of the running queue, or {enabled: false}
+     */
+    public static Map<String, Object> getMetricsSnapshot() {
+        IngestQueue queue = instance;
+        if (queue != null) {
+            return queue.getMetrics();
+        }
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", isEnabled());
+        return metrics;
+    }
+}
@@ -0,0 +1,108 @@
+package com.datainsight.ingest;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free multi-producer / multi-consumer ring buffer
+ * (Vyukov's algorithm: every slot carries a sequence number, producers and
+ * consumers claim positions with a CAS on tail / head and never block)
+ */
+public final class RingBuffer<E> {
+
+    private final int mask;
+    private final AtomicReferenceArray<E> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong(); // next position to write
+    private final AtomicLong head = new AtomicLong(); // next position to read
+
+    /**
+     * Capacity is rounded up to a power of two
+     */
+    public RingBuffer(int requestedCapacity) {
+        if (requestedCapacity < 2 || requestedCapacity > (1 << 30)) {
+            throw new IllegalArgumentException("Capacity must be between 2 and 2^30");
+        }
+        int capacity = Integer.highestOneBit(requestedCapacity - 1) << 1;
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Add an element - returns false (without waiting) when the buffer is full
+     */
+    public boolean offer(E element) {
+        long pos = tail.get();
+        while (true) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    slots.set(index, element);
+                    sequences.set(index, pos + 1); // publish to consumers
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false; // slot still holds an element one lap behind: full
+            } else {
+                pos = tail.get(); // another producer took this position
+            }
+        }
+    }
+
+    /**
+     * Remove the oldest element, or null when the buffer is empty
+     */
+    public E poll() {
+        long pos = head.get();
+        while (true) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - (pos + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    E element = slots.get(index);
+                    slots.set(index, null);
+                    sequences.set(index, pos + mask + 1); // free the slot for the next lap
+                    return element;
+                }
+                pos = head.get();
+            } else if (diff < 0) {
+                return null; // not yet published: empty
+            } else {
+                pos = head.get(); // another consumer took this position
+            }
+        }
+    }
+
+    /**
+     * Move up to max elements into target - returns how many were moved
+     */
+    public int drainTo(List<? super E> target, int max) {
+        int drained = 0;
+        E element;
+        while (drained < max && (element = poll()) != null) {
+            target.add(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * Approximate number of queued elements
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
@@ -1,6 +1,8 @@
 package com.datainsight.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -9,14 +11,24 @@ import java.util.List;
  * Client entity - represents a customer with their profile and transaction history
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Client.CACHE_REGION)
 @Table(name = "clients", indexes = {
     @Index(name = "idx_pays", columnList = "pays"),
     @Index(name = "idx_profession", columnList = "profession")
 })
 public class Client {
 
+    // Pooled IDs: a block of ID_ALLOCATION_SIZE ids per round-trip to the
+    // sequence table keeps JDBC insert batching enabled (IDENTITY disables it)
+    public static final int ID_ALLOCATION_SIZE = 100;
+
+    // Second-level cache region (size limits in application.conf)
+    public static final String CACHE_REGION = "clients";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "client_seq")
+    @SequenceGenerator(name = "client_seq", sequenceName = "clients_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false, length = 100)
@@ -0,0 +1,36 @@
+package com.datainsight.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Daily sales rollup - transaction count and amount per (day, categorie, pays, mode_paiement)
+ * Maintained incrementally by SalesRollupDAO in the same database transaction
+ * as every write to transactions; read by the sales analytics queries.
+ */
+@Entity
+@Table(name = "daily_sales_rollup")
+public class DailySalesRollup {
+
+    @EmbeddedId
+    private DailySalesRollupId id;
+
+    @Column(name = "transaction_count", nullable = false)
+    private Long transactionCount;
+
+    @Column(name = "total_amount", nullable = false)
+    private Double totalAmount;
+
+    public DailySalesRollup() {}
+
+    public DailySalesRollupId getId() {
+        return id;
+    }
+
+    public Long getTransactionCount() {
+        return transactionCount;
+    }
+
+    public Double getTotalAmount() {
+        return totalAmount;
+    }
+}
@@ -0,0 +1,66 @@
+package com.datainsight.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Key of a DailySalesRollup row: (day, categorie, pays, mode_paiement)
+ */
+@Embeddable
+public class DailySalesRollupId implements Serializable {
+
+    @Column(name = "day", nullable = false)
+    private LocalDate day;
+
+    @Column(nullable = false, length = 100)
+    private String categorie;
+
+    @Column(nullable = false, length = 100)
+    private String pays;
+
+    // Empty string when the transaction has no payment mode (part of the primary key)
+    @Column(name = "mode_paiement", nullable = false, length = 50)
+    private String modePaiement;
+
+    public DailySalesRollupId() {}
+
+    public DailySalesRollupId(LocalDate day, String categorie, String pays, String modePaiement) {
+        this.day = day;
+        this.categorie = categorie;
+        this.pays = pays;
+        this.modePaiement = modePaiement;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public String getCategorie() {
+        return categorie;
+    }
+
+    public String getPays() {
+        return pays;
+    }
+
+    public String getModePaiement() {
+        return modePaiement;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DailySalesRollupId)) return false;
+        DailySalesRollupId that = (DailySalesRollupId) o;
+        return Objects.equals(day, that.day) && Objects.equals(categorie, that.categorie) &&
+               Objects.equals(pays, that.pays) && Objects.equals(modePaiement, that.modePaiement);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(day, categorie, pays, modePaiement);
+    }
+}
@@ -1,22 +1,34 @@
 package com.datainsight.model;
 
+import com.datainsight.util.ReferenceGenerator;
 import jakarta.persistence.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 /**
  * Transaction entity - represents a purchase or transaction made by a client
+ * The reference is unique together with the date: MySQL requires the partitioning
+ * column (date) in every unique key of a partitioned table (PartitionMaintenance).
  */
 @Entity
 @Table(name = "transactions", indexes = {
     @Index(name = "idx_date", columnList = "date"),
-    @Index(name = "idx_categorie", columnList = "categorie"),
+    @Index(name = "idx_categorie_date", columnList = "categorie, date"),
     @Index(name = "idx_client_date", columnList = "client_id, date")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = Transaction.REFERENCE_KEY, columnNames = {"reference_transaction", "date"})
 })
 public class Transaction {
 
+    // Pooled IDs: a block of ID_ALLOCATION_SIZE ids per round-trip to the
+    // sequence table keeps JDBC insert batching enabled (IDENTITY disables it)
+    public static final int ID_ALLOCATION_SIZE = 500;
+
+    public static final String REFERENCE_KEY = "uk_reference_date";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_seq")
+    @SequenceGenerator(name = "transaction_seq", sequenceName = "transactions_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false)
@@ -34,7 +46,7 @@ public class Transaction {
     @Column(name = "mode_paiement", length = 50)
     private String modePaiement; // carte, especes, virement, paypal
 
-    @Column(name = "reference_transaction", length = 100, unique = true)
+    @Column(name = "reference_transaction", length = 100)
     private String referenceTransaction;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -64,9 +76,9 @@ public class Transaction {
         this.description = description;
     }
 
-    // Generate unique transaction reference
+    // Generate unique transaction reference (lock-free, collision-free)
     private String generateReference() {
-        return "TXN-" + System.currentTimeMillis() + "-" + (int)(Math.random() * 10000);
+        return ReferenceGenerator.nextReference();
     }
 
     // Getters and Setters
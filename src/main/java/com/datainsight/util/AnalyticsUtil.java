@@ -2,6 +2,7 @@ package com.datainsight.util;
 
 import com.datainsight.dao.ClientDAO;
 import com.datainsight.dao.TransactionDAO;
+import com.datainsight.dto.OverviewStats;
 import java.util.List;
 
 /**
@@ -26,17 +27,16 @@ public class AnalyticsUtil {
         System.out.println("╚════════════════════════════════════════════════════════════╝\n");
 
         // Global stats
-        long totalClients = clientDAO.count();
-        long totalTransactions = transactionDAO.count();
-        Double totalRevenue = transactionDAO.getTotalRevenue();
-        Double avgTransaction = transactionDAO.getAverageTransactionAmount();
+        OverviewStats overview = transactionDAO.getOverview();
 
         System.out.println("📊 GLOBAL STATISTICS");
         System.out.println("─────────────────────────────────────────────────────────────");
-        System.out.printf("Total Clients:        %,d%n", totalClients);
-        System.out.printf("Total Transactions:   %,d%n", totalTransactions);
-        System.out.printf("Total Revenue:        €%,.2f%n", totalRevenue);
-        System.out.printf("Average Transaction:  €%,.2f%n", avgTransaction);
+        System.out.printf("Total Clients:        %,d%n", overview.getTotalClients());
+        System.out.printf("Total Transactions:   %,d%n", overview.getTotalTransactions());
+        System.out.printf("Total Revenue:        €%,.2f%n", overview.getTotalRevenue());
+        System.out.printf("Average Transaction:  €%,.2f%n", overview.getAverageTransaction());
+        System.out.printf("Min / Max:            €%,.2f / €%,.2f%n",
+                          overview.getMinTransaction(), overview.getMaxTransaction());
         System.out.println();
 
         // Revenue by country
@@ -119,7 +119,7 @@ public class AnalyticsUtil {
         for (Object[] row : countByCountry) {
             String pays = (String) row[0];
             Long count = (Long) row[1];
-            double percentage = (count * 100.0) / totalClients;
+            double percentage = (count * 100.0) / overview.getTotalClients();
             System.out.printf("  %-14s: %,6d (%.1f%%)%n", pays, count, percentage);
         }
 
@@ -128,7 +128,7 @@ public class AnalyticsUtil {
         for (Object[] row : countByProfession) {
             String profession = (String) row[0];
             Long count = (Long) row[1];
-            double percentage = (count * 100.0) / totalClients;
+            double percentage = (count * 100.0) / overview.getTotalClients();
             System.out.printf("  %-14s: %,6d (%.1f%%)%n", profession, count, percentage);
         }
 
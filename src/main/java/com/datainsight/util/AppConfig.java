@@ -0,0 +1,67 @@
+package com.datainsight.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Application settings - read from datainsight.properties on the classpath
+ * Any key can be overridden with a -Ddatainsight.{key}=value system property
+ */
+public final class AppConfig {
+
+    private static final String RESOURCE = "/datainsight.properties";
+    private static final String SYSTEM_PREFIX = "datainsight.";
+    private static final Properties properties = load();
+
+    // Private constructor - static utility
+    private AppConfig() {}
+
+    private static Properties load() {
+        Properties props = new Properties();
+        try (InputStream in = AppConfig.class.getResourceAsStream(RESOURCE)) {
+            if (in != null) {
+                props.load(in);
+            }
+        } catch (IOException e) {
+            System.err.println("✗ Could not read " + RESOURCE + ": " + e.getMessage());
+        }
+        return props;
+    }
+
+    /**
+     * Raw value (system property first, then datainsight.properties)
+     */
+    public static String get(String key, String defaultValue) {
+        String value = System.getProperty(SYSTEM_PREFIX + key);
+        if (value == null) {
+            value = properties.getProperty(key);
+        }
+        return value != null && !value.trim().isEmpty() ? value.trim() : defaultValue;
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        String value = get(key, null);
+        try {
+            return value != null ? Integer.parseInt(value) : defaultValue;
+        } catch (NumberFormatException e) {
+            System.err.println("✗ Invalid integer for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        String value = get(key, null);
+        try {
+            return value != null ? Long.parseLong(value) : defaultValue;
+        } catch (NumberFormatException e) {
+            System.err.println("✗ Invalid number for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = get(key, null);
+        return value != null ? Boolean.parseBoolean(value) : defaultValue;
+    }
+}
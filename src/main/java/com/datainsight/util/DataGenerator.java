@@ -1,13 +1,23 @@
 package com.datainsight.util;
 
 import com.datainsight.dao.ClientDAO;
+import com.datainsight.dao.ExternalChanges;
+import com.datainsight.dao.TransactionDAO;
 import com.datainsight.model.Client;
 import com.datainsight.model.Transaction;
-import jakarta.persistence.EntityManager;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.random.RandomGenerator;
 
 /**
  * Generates batch test data for clients and transactions
@@ -16,6 +26,8 @@ import java.util.Random;
 public class DataGenerator {
 
     private static final Random random = new Random();
+    private static final int CLIENT_PAGE_SIZE = 500;
+    private static final AtomicLong allocatedBytes = new AtomicLong();
 
     // Sample data arrays
     private static final String[] FIRST_NAMES = {
@@ -60,14 +72,10 @@ public class DataGenerator {
         ClientDAO clientDAO = new ClientDAO();
         
         System.out.println("👥 Generating " + count + " clients...");
-        List<Client> clients = new ArrayList<>();
-
-        EntityManager em = JpaUtil.getEntityManager();
-        int batchSize = 50;
+        long startTime = System.currentTimeMillis();
+        List<Client> clients = new ArrayList<>(count);
 
         try {
-            em.getTransaction().begin();
-
             for (int i = 0; i < count; i++) {
                 String prenom = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
                 String nom = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
@@ -87,128 +95,205 @@ public class DataGenerator {
                     client.setStatut("actif");
                 }
 
-                em.persist(client);
                 clients.add(client);
-
-                // Flush and clear every batch_size
-                if (i > 0 && i % batchSize == 0) {
-                    em.flush();
-                    em.clear();
-                    System.out.print(".");
-                    if (i % (batchSize * 20) == 0) {
-                        System.out.println(" " + i);
-                    }
-                }
             }
 
-            em.flush();
-            em.clear();
-            em.getTransaction().commit();
+            // Bulk path: StatelessSession + JDBC batching, one commit
+            clientDAO.insertAll(clients);
 
+            long duration = System.currentTimeMillis() - startTime;
             System.out.println("\n✓ Created " + count + " clients");
+            System.out.println("  - Duration: " + duration + " ms");
+            System.out.println("  - Rate: " + formatRate(count, duration) + " records/sec");
             return clients;
 
         } catch (Exception e) {
-            if (em.getTransaction().isActive()) {
-                em.getTransaction().rollback();
-            }
             System.err.println("✗ Failed to generate clients: " + e.getMessage());
             e.printStackTrace();
-            return clients;
-        } finally {
-            em.close();
+            return new ArrayList<>();
         }
     }
 
     /**
      * BATCH INSERT: Generate large number of transactions
-     * Uses Hibernate batch processing for performance
+     * Uses the StatelessSession bulk path (TransactionDAO.insertAll)
      */
     public static int generateTransactions(int transactionsPerClient) {
+        return generateTransactions(transactionsPerClient, 1);
+    }
+
+    /**
+     * Most workers the connection pool can serve: each one holds a connection and
+     * may borrow a second one for an id block, so half the pool at most
+     */
+    public static int maxWorkers() {
+        return Math.max(1, JpaUtil.getMaximumPoolSize() / 2);
+    }
+
+    /**
+     * PARALLEL BATCH INSERT: split the client ID space into one range per worker
+     * Each worker has its own StatelessSession per chunk, its own SplittableRandom and its own
+     * commit interval; progress counts are combined across workers.
+     */
+    public static int generateTransactions(int transactionsPerClient, int workers) {
         long startTime = System.currentTimeMillis();
-        
-        // Get all clients
+        if (workers > maxWorkers()) {
+            System.err.println("✗ " + workers + " workers would exhaust the connection pool, using " + maxWorkers());
+            workers = maxWorkers();
+        }
+
         ClientDAO clientDAO = new ClientDAO();
-        List<Client> clients = clientDAO.findAll();
-        
-        if (clients.isEmpty()) {
+        long[] bounds = clientDAO.getIdBounds();
+        if (bounds == null) {
             System.err.println("✗ No clients found! Generate clients first.");
             return 0;
         }
 
-        int totalTransactions = clients.size() * transactionsPerClient;
+        workers = Math.max(1, workers);
+        long totalTransactions = clientDAO.count() * transactionsPerClient;
         System.out.println("🚀 Starting batch insert of " + totalTransactions + " transactions...");
-        System.out.println("   (" + transactionsPerClient + " transactions per client)");
+        System.out.println("   (" + transactionsPerClient + " transactions per client, " +
+                           workers + " worker(s))");
+
+        // Contiguous ID ranges, one per worker
+        long span = bounds[1] - bounds[0] + 1;
+        long rangeSize = (span + workers - 1) / workers;
+        SplittableRandom seed = new SplittableRandom();
+        AtomicLong progress = new AtomicLong();
+        allocatedBytes.set(0);
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int w = 0; w < workers; w++) {
+            long fromId = bounds[0] + w * rangeSize;
+            long toId = Math.min(bounds[1], fromId + rangeSize - 1);
+            if (fromId > toId) {
+                break;
+            }
+            SplittableRandom workerRandom = seed.split();
+            results.add(pool.submit(() ->
+                generateTransactionRange(fromId, toId, transactionsPerClient, workerRandom, progress)));
+        }
+        pool.shutdown();
 
-        EntityManager em = JpaUtil.getEntityManager();
         int inserted = 0;
-        int batchSize = 50; // Must match persistence.xml hibernate.jdbc.batch_size
+        for (Future<Integer> result : results) {
+            try {
+                inserted += result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                pool.shutdownNow();
+                break;
+            } catch (ExecutionException e) {
+                System.err.println("✗ Worker failed: " + e.getCause().getMessage());
+            }
+        }
 
-        try {
-            em.getTransaction().begin();
+        long duration = System.currentTimeMillis() - startTime;
 
-            for (Client client : clients) {
-                // Refresh client in this context
-                Client managedClient = em.find(Client.class, client.getId());
-                
-                for (int i = 0; i < transactionsPerClient; i++) {
-                    Transaction transaction = createRealisticTransaction(managedClient);
-                    
-                    em.persist(transaction);
-                    inserted++;
-
-                    // Flush and clear every batch_size to avoid memory issues
-                    if (inserted > 0 && inserted % batchSize == 0) {
-                        em.flush();
-                        em.clear();
-                        System.out.print(".");
-                        if (inserted % (batchSize * 20) == 0) {
-                            System.out.println(" " + inserted);
+        System.out.println("\n✓ Batch insert completed!");
+        System.out.println("  - Inserted: " + inserted + " transactions");
+        System.out.println("  - Duration: " + duration + " ms");
+        System.out.println("  - Rate: " + formatRate(inserted, duration) + " records/sec");
+        if (inserted > 0 && allocatedBytes.get() > 0) {
+            System.out.println("  - Allocated: " + (allocatedBytes.get() / inserted) + " bytes/record (worker threads)");
+        }
+
+        return inserted;
+    }
+
+    /**
+     * Worker: insert transactions for clients whose ID is in [fromId, toId]
+     * Rows are built in chunks of generator.commitInterval and handed to
+     * TransactionDAO.insertAll (one StatelessSession transaction per chunk).
+     * Returns the number of committed rows
+     */
+    private static int generateTransactionRange(long fromId, long toId, int transactionsPerClient,
+                                                RandomGenerator rnd, AtomicLong progress) {
+        ClientDAO clientDAO = new ClientDAO();
+        TransactionDAO transactionDAO = new TransactionDAO();
+        int commitInterval = AppConfig.getInt("generator.commitInterval", 10000);
+        List<Transaction> chunk = new ArrayList<>(commitInterval);
+        long allocatedBefore = threadAllocatedBytes();
+        int committed = 0;
+
+        try {
+            long afterId = fromId - 1;
+            List<Long> clientIds = clientDAO.findIdsInRange(afterId, toId, CLIENT_PAGE_SIZE);
+            while (!clientIds.isEmpty()) {
+                for (Long clientId : clientIds) {
+                    // Detached stub: the FK needs the id, not the client row
+                    Client client = new Client();
+                    client.setId(clientId);
+
+                    for (int i = 0; i < transactionsPerClient; i++) {
+                        chunk.add(createRealisticTransaction(client, rnd));
+
+                        // Short transactions: commit every commitInterval rows
+                        if (chunk.size() >= commitInterval) {
+                            committed += transactionDAO.insertAll(chunk);
+                            reportProgress(progress, chunk.size());
+                            chunk.clear();
                         }
                     }
                 }
-            }
 
-            // Final flush
-            em.flush();
-            em.clear();
-            em.getTransaction().commit();
-
-            long duration = System.currentTimeMillis() - startTime;
-            double rate = (inserted * 1000.0) / duration;
-
-            System.out.println("\n✓ Batch insert completed!");
-            System.out.println("  - Inserted: " + inserted + " transactions");
-            System.out.println("  - Duration: " + duration + " ms");
-            System.out.println("  - Rate: " + String.format("%.0f", rate) + " records/sec");
+                afterId = clientIds.get(clientIds.size() - 1);
+                clientIds = clientDAO.findIdsInRange(afterId, toId, CLIENT_PAGE_SIZE);
+            }
 
-            return inserted;
+            // Final chunk
+            committed += transactionDAO.insertAll(chunk);
+            reportProgress(progress, chunk.size());
+            return committed;
 
         } catch (Exception e) {
-            if (em.getTransaction().isActive()) {
-                em.getTransaction().rollback();
-            }
-            System.err.println("✗ Batch insert failed: " + e.getMessage());
+            System.err.println("✗ Batch insert failed for clients " + fromId + "-" + toId +
+                               ": " + e.getMessage());
             e.printStackTrace();
-            return inserted;
+            return committed;
         } finally {
-            em.close();
+            long allocatedAfter = threadAllocatedBytes();
+            if (allocatedBefore >= 0 && allocatedAfter >= 0) {
+                allocatedBytes.addAndGet(allocatedAfter - allocatedBefore);
+            }
         }
     }
 
+    /**
+     * Combine worker progress and print the running total after each commit
+     */
+    private static void reportProgress(AtomicLong progress, int rows) {
+        if (rows == 0) {
+            return;
+        }
+        System.out.println(". " + progress.addAndGet(rows));
+    }
+
+    /**
+     * Bytes allocated so far by the current thread (-1 if the JVM cannot tell)
+     */
+    private static long threadAllocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
     /**
      * Create realistic transaction
      */
-    private static Transaction createRealisticTransaction(Client client) {
+    private static Transaction createRealisticTransaction(Client client, RandomGenerator rnd) {
         // Random date within last 365 days
-        LocalDate date = LocalDate.now().minusDays(random.nextInt(365));
+        LocalDate date = LocalDate.now().minusDays(rnd.nextInt(365));
         
         // Random amount based on category
-        String categorie = CATEGORIES[random.nextInt(CATEGORIES.length)];
-        double montant = generateRealisticAmount(categorie);
+        String categorie = CATEGORIES[rnd.nextInt(CATEGORIES.length)];
+        double montant = generateRealisticAmount(categorie, rnd);
         
         // Random payment mode
-        String modePaiement = PAYMENT_MODES[random.nextInt(PAYMENT_MODES.length)];
+        String modePaiement = PAYMENT_MODES[rnd.nextInt(PAYMENT_MODES.length)];
         
         Transaction transaction = new Transaction(date, montant, categorie, client);
         transaction.setModePaiement(modePaiement);
@@ -220,30 +305,37 @@ public class DataGenerator {
     /**
      * Generate realistic amount based on category
      */
-    private static double generateRealisticAmount(String categorie) {
+    private static double generateRealisticAmount(String categorie, RandomGenerator rnd) {
         switch (categorie) {
             case "Informatique":
             case "Électronique":
-                return 200 + random.nextDouble() * 1800; // 200-2000€
+                return 200 + rnd.nextDouble() * 1800; // 200-2000€
             case "Immobilier":
-                return 50000 + random.nextDouble() * 450000; // 50k-500k€
+                return 50000 + rnd.nextDouble() * 450000; // 50k-500k€
             case "Automobile":
-                return 5000 + random.nextDouble() * 45000; // 5k-50k€
+                return 5000 + rnd.nextDouble() * 45000; // 5k-50k€
             case "Voyage":
-                return 300 + random.nextDouble() * 2700; // 300-3000€
+                return 300 + rnd.nextDouble() * 2700; // 300-3000€
             case "Alimentation":
-                return 10 + random.nextDouble() * 190; // 10-200€
+                return 10 + rnd.nextDouble() * 190; // 10-200€
             case "Vêtements":
             case "Beauté":
-                return 20 + random.nextDouble() * 480; // 20-500€
+                return 20 + rnd.nextDouble() * 480; // 20-500€
             case "Santé":
             case "Éducation":
-                return 50 + random.nextDouble() * 950; // 50-1000€
+                return 50 + rnd.nextDouble() * 950; // 50-1000€
             default:
-                return 50 + random.nextDouble() * 450; // 50-500€
+                return 50 + rnd.nextDouble() * 450; // 50-500€
         }
     }
 
+    /**
+     * Rows per second, formatted for the console
+     */
+    public static String formatRate(long rows, long durationMs) {
+        return String.format("%,.0f", rows * 1000.0 / Math.max(1, durationMs));
+    }
+
     /**
      * Standalone test - run as Java application
      */
@@ -253,26 +345,40 @@ public class DataGenerator {
         try {
             int numClients = 1000; // Default 1000 clients
             int transactionsPerClient = 10; // 10 transactions each = 10,000 total
+            int workers = AppConfig.getInt("generator.threads", 4); // Parallel workers
 
-            // Parse command line arguments
+            // Parse command line arguments: [numClients] [transactionsPerClient] [workers]
             if (args.length > 0) {
                 numClients = Integer.parseInt(args[0]);
             }
             if (args.length > 1) {
                 transactionsPerClient = Integer.parseInt(args[1]);
             }
+            if (args.length > 2) {
+                workers = Integer.parseInt(args[2]);
+            }
 
             // Step 1: Generate clients
+            long clientStart = System.currentTimeMillis();
             List<Client> clients = generateClients(numClients);
+            long clientDuration = System.currentTimeMillis() - clientStart;
             System.out.println("\nClients in database: " + clients.size());
 
             // Step 2: Generate transactions
-            int inserted = generateTransactions(transactionsPerClient);
+            long transactionStart = System.currentTimeMillis();
+            int inserted = generateTransactions(transactionsPerClient, workers);
+            long transactionDuration = System.currentTimeMillis() - transactionStart;
             
             System.out.println("\n=== SUMMARY ===");
             System.out.println("Total clients: " + clients.size());
             System.out.println("Total transactions: " + inserted);
-            System.out.println("Expected rate: 1,000-5,000 records/sec");
+            System.out.println("Measured rates (StatelessSession, pooled ids, JDBC batch " + JpaUtil.JDBC_BATCH_SIZE +
+                               ", rewriteBatchedStatements):");
+            System.out.println("  - Clients:      " + formatRate(clients.size(), clientDuration) + " records/sec");
+            System.out.println("  - Transactions: " + formatRate(inserted, transactionDuration) + " records/sec");
+
+            // A running application does not receive this process's events
+            ExternalChanges.publish();
 
         } catch (Exception e) {
             System.err.println("✗ Error: " + e.getMessage());
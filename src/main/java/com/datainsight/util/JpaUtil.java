@@ -1,43 +1,268 @@
 package com.datainsight.util;
 
+import com.datainsight.cache.DataVersion;
+import com.datainsight.model.Client;
+import com.datainsight.model.Transaction;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.Persistence;
+import jakarta.persistence.QueryTimeoutException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.stat.Statistics;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 
 /**
  * JPA Utility - manages EntityManagerFactory lifecycle
- * Thread-safe singleton pattern
+ * Thread-safe singleton: built once at deploy time (init, from AppContextListener),
+ * then read without locking on every DAO call.
  */
 public class JpaUtil {
 
     private static final String PERSISTENCE_UNIT_NAME = "datainsightPU";
-    private static EntityManagerFactory emf;
+
+    // Must match persistence.xml hibernate.jdbc.batch_size
+    public static final int JDBC_BATCH_SIZE = 50;
+
+    private static volatile EntityManagerFactory emf;
+
+    // Read-only unit of work of the current request (RequestScopeFilter)
+    private static final ThreadLocal<RequestScope> requestScope = new ThreadLocal<>();
+
+    // JPA query timeout hint, in milliseconds (Hibernate rounds it to JDBC seconds)
+    private static final String QUERY_TIMEOUT = "jakarta.persistence.query.timeout";
+    // System.nanoTime() by which the queries of this thread must be done (withDeadline)
+    private static final ThreadLocal<Long> queryDeadline = new ThreadLocal<>();
 
     // Private constructor - singleton
     private JpaUtil() {}
 
     /**
-     * Get EntityManagerFactory (lazy initialization)
+     * Build the EntityManagerFactory now (schema update included) instead of on
+     * the first request
      */
-    public static synchronized EntityManagerFactory getEntityManagerFactory() {
-        if (emf == null || !emf.isOpen()) {
-            try {
-                emf = Persistence.createEntityManagerFactory(PERSISTENCE_UNIT_NAME);
-                System.out.println("✓ EntityManagerFactory created successfully");
-            } catch (Exception e) {
-                System.err.println("✗ Failed to create EntityManagerFactory");
-                e.printStackTrace();
-                throw new RuntimeException("Could not initialize JPA", e);
+    public static void init() {
+        getEntityManagerFactory();
+    }
+
+    /**
+     * Get EntityManagerFactory - a volatile read once built; created on first use
+     * outside the web application (command line tools)
+     */
+    public static EntityManagerFactory getEntityManagerFactory() {
+        EntityManagerFactory factory = emf;
+        if (factory == null || !factory.isOpen()) {
+            synchronized (JpaUtil.class) {
+                factory = emf;
+                if (factory == null || !factory.isOpen()) {
+                    try {
+                        factory = Persistence.createEntityManagerFactory(PERSISTENCE_UNIT_NAME);
+                        System.out.println("✓ EntityManagerFactory created successfully");
+                        alignIdSequences(factory);
+                        emf = factory; // published once the sequences are aligned
+                    } catch (Exception e) {
+                        System.err.println("✗ Failed to create EntityManagerFactory");
+                        e.printStackTrace();
+                        throw new RuntimeException("Could not initialize JPA", e);
+                    }
+                }
             }
         }
-        return emf;
+        return factory;
+    }
+
+    /**
+     * Move the pooled-id tables past ids already in use
+     * (rows created with the former AUTO_INCREMENT ids, or by another tool).
+     * The pooled optimizer hands out (next_val - allocationSize, next_val],
+     * hence the allocation-size margin. MAX(id) is a primary-key lookup.
+     */
+    private static void alignIdSequences(EntityManagerFactory factory) {
+        EntityManager em = factory.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            em.createNativeQuery(
+                "UPDATE clients_seq SET next_val = GREATEST(next_val, " +
+                "(SELECT COALESCE(MAX(id), 0) FROM clients) + :margin)")
+                .setParameter("margin", Client.ID_ALLOCATION_SIZE + 1)
+                .executeUpdate();
+            em.createNativeQuery(
+                "UPDATE transactions_seq SET next_val = GREATEST(next_val, " +
+                "(SELECT COALESCE(MAX(id), 0) FROM transactions) + :margin)")
+                .setParameter("margin", Transaction.ID_ALLOCATION_SIZE + 1)
+                .executeUpdate();
+            em.getTransaction().commit();
+        } catch (Exception e) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            System.err.println("✗ Could not align id sequences: " + e.getMessage());
+        } finally {
+            em.close();
+        }
     }
 
     /**
      * Create new EntityManager
      */
     public static EntityManager getEntityManager() {
-        return getEntityManagerFactory().createEntityManager();
+        EntityManager em = getEntityManagerFactory().createEntityManager();
+        applyDeadline(em);
+        return em;
+    }
+
+    /**
+     * EntityManager for reads: the request's read-only unit of work when one is
+     * open on this thread, a new EntityManager otherwise. Release it with release(),
+     * never begin a transaction on it.
+     */
+    public static EntityManager getReadEntityManager() {
+        RequestScope scope = requestScope.get();
+        if (scope == null) {
+            return getEntityManager();
+        }
+        if (scope.em == null) {
+            // Version read first: the snapshot holds at least this version's writes
+            long version = DataVersion.current();
+            EntityManager em = getEntityManager();
+            try {
+                em.unwrap(Session.class).setDefaultReadOnly(true); // no dirty-checking snapshots
+                em.getTransaction().begin();
+                em.unwrap(Session.class).doWork(connection -> {
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute("SET TRANSACTION READ ONLY");
+                    }
+                });
+            } catch (RuntimeException e) {
+                em.close();
+                throw e;
+            }
+            scope.em = em;
+            scope.version = version;
+        } else {
+            applyDeadline(scope.em);
+        }
+        return scope.em;
+    }
+
+    /**
+     * Run reads that must be done by the given System.nanoTime(): every query created
+     * meanwhile on this thread carries the remaining time as its JDBC query timeout,
+     * so the database cancels it - interrupting the thread would not stop a query.
+     * JDBC counts whole seconds: a query may overrun the deadline by up to one.
+     */
+    public static <T> T withDeadline(long deadline, Callable<T> reads) throws Exception {
+        queryDeadline.set(deadline);
+        try {
+            return reads.call();
+        } finally {
+            queryDeadline.remove();
+            RequestScope scope = requestScope.get();
+            if (scope != null && scope.em != null) {
+                scope.em.setProperty(QUERY_TIMEOUT, 0); // no limit for the rest of the request
+            }
+        }
+    }
+
+    /**
+     * Statement cancelled by its query timeout (possibly wrapped by the DAO)
+     */
+    public static boolean isQueryTimeout(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof QueryTimeoutException || t instanceof SQLTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void applyDeadline(EntityManager em) {
+        Long deadline = queryDeadline.get();
+        if (deadline != null) {
+            long remainingMs = TimeUnit.NANOSECONDS.toMillis(Math.max(0, deadline - System.nanoTime()));
+            long seconds = Math.max(1, (remainingMs + 999) / 1000);
+            em.setProperty(QUERY_TIMEOUT, (int) Math.min(Integer.MAX_VALUE / 1000, seconds) * 1000);
+        }
+    }
+
+    /**
+     * Close an EntityManager - no-op for the request's unit of work, closed at the end of the request
+     */
+    public static void release(EntityManager em) {
+        RequestScope scope = requestScope.get();
+        if (scope == null || scope.em != em) {
+            em.close();
+        }
+    }
+
+    /**
+     * Start a read-only unit of work on this thread: every getReadEntityManager()
+     * until endRequestScope() shares one EntityManager, one connection and one
+     * READ ONLY transaction (a single consistent snapshot), opened on first use
+     */
+    public static void beginRequestScope() {
+        requestScope.set(new RequestScope());
+    }
+
+    /**
+     * Roll back and close the unit of work of this thread, if any
+     */
+    public static void endRequestScope() {
+        RequestScope scope = requestScope.get();
+        requestScope.remove();
+        if (scope == null || scope.em == null) {
+            return;
+        }
+        try {
+            if (scope.em.getTransaction().isActive()) {
+                scope.em.getTransaction().rollback(); // nothing to commit
+            }
+        } catch (RuntimeException e) {
+            System.err.println("✗ Could not end the request transaction: " + e.getMessage());
+        } finally {
+            scope.em.close();
+        }
+    }
+
+    /**
+     * DataVersion the current request's snapshot is at least as new as,
+     * Long.MAX_VALUE when no snapshot is open on this thread
+     */
+    public static long requestSnapshotVersion() {
+        RequestScope scope = requestScope.get();
+        return scope != null && scope.em != null ? scope.version : Long.MAX_VALUE;
+    }
+
+    /**
+     * Open a StatelessSession for bulk writes
+     * No persistence context and no dirty checking: each insert goes straight
+     * to the JDBC batch. Caller must close it.
+     */
+    public static StatelessSession openStatelessSession() {
+        StatelessSession session = getEntityManagerFactory()
+            .unwrap(SessionFactory.class)
+            .openStatelessSession();
+        session.setJdbcBatchSize(JDBC_BATCH_SIZE);
+        return session;
+    }
+
+    /**
+     * hibernate.hikari.maximumPoolSize of the persistence unit (HikariCP default: 10)
+     */
+    public static int getMaximumPoolSize() {
+        Object size = getEntityManagerFactory().getProperties().get("hibernate.hikari.maximumPoolSize");
+        return size != null ? Integer.parseInt(size.toString().trim()) : 10;
+    }
+
+    /**
+     * Hibernate statistics (hibernate.generate_statistics) - cache hits/misses per region
+     */
+    public static Statistics getStatistics() {
+        return getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
     }
 
     /**
@@ -49,4 +274,9 @@ public class JpaUtil {
             System.out.println("✓ EntityManagerFactory closed");
         }
     }
+
+    private static final class RequestScope {
+        EntityManager em;
+        long version;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.datainsight.util;
+
+import com.datainsight.dto.ApiResponse;
+import com.datainsight.dto.BatchItemResult;
+import com.datainsight.dto.ClientDTO;
+import com.datainsight.dto.OverviewStats;
+import com.datainsight.dto.TransactionDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shared Jackson ObjectMapper of the REST API
+ * Thread-safe once configured; sharing it means the serializers built for one
+ * servlet (and by warmUp) are reused by all of them.
+ */
+public final class JsonUtil {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    // Private constructor - static utility
+    private JsonUtil() {}
+
+    public static ObjectMapper getObjectMapper() {
+        return MAPPER;
+    }
+
+    /**
+     * Build the serializers and deserializers of the API DTOs now rather than on
+     * the first request that needs them
+     */
+    public static void warmUp() {
+        ClientDTO client = new ClientDTO();
+        client.setDateInscription(LocalDateTime.now());
+        TransactionDTO transaction = new TransactionDTO();
+        transaction.setDate(LocalDate.now());
+        transaction.setCreatedAt(LocalDateTime.now());
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("date", LocalDate.now());
+        row.put("value", 0.0);
+
+        try {
+            MAPPER.readValue(MAPPER.writeValueAsString(client), ClientDTO.class);
+            MAPPER.readValue(MAPPER.writeValueAsString(transaction), TransactionDTO.class);
+            MAPPER.readerFor(TransactionDTO.class).readValues("[{}]").readAll();
+            MAPPER.writeValueAsString(ApiResponse.success(List.of(client)));
+            MAPPER.writeValueAsString(ApiResponse.success(List.of(transaction)));
+            MAPPER.writeValueAsString(ApiResponse.success(new OverviewStats(0L, 0L, 0.0, 0.0, 0.0, 0.0)));
+            MAPPER.writeValueAsString(ApiResponse.success(List.of(BatchItemResult.created(0, 0L, ""),
+                                                                  BatchItemResult.failed(1, ""))));
+            MAPPER.writeValueAsString(ApiResponse.success(List.of(row)));
+            MAPPER.writeValueAsString(ApiResponse.error(""));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to warm up JSON mapping", e);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.datainsight.util;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snowflake-style unique ID generator for transaction references
+ *
+ * 63-bit layout: [41 bits ms since 2024-01-01][10 bits node][12 bits sequence]
+ * - Lock-free: the only shared state is one AtomicLong (logical ms + sequence)
+ * - Contention-free: each thread reserves a block of sequence values with one CAS
+ *   and hands them out locally
+ * - Monotonic: the logical clock never goes backwards; when a millisecond's
+ *   4096 values are used up it borrows from the next one instead of waiting
+ *
+ * Uniqueness across nodes requires a distinct node.id (0-1023) per instance.
+ */
+public final class ReferenceGenerator {
+
+    private static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int BLOCK_SIZE = 32;
+
+    // 13 base-36 digits cover any positive long: fixed width keeps references sortable
+    private static final int REFERENCE_DIGITS = 13;
+    private static final String PREFIX = "TXN-";
+
+    private static final long NODE_ID = nodeId();
+
+    // Next free (logical ms << SEQUENCE_BITS | sequence) value
+    private static final AtomicLong clock = new AtomicLong();
+
+    // Per-thread block [next, end) reserved from the shared clock
+    private static final ThreadLocal<long[]> block =
+        ThreadLocal.withInitial(() -> new long[] {0, 0});
+
+    // Private constructor - static utility
+    private ReferenceGenerator() {}
+
+    private static long nodeId() {
+        long node = AppConfig.getLong("node.id", 0);
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalStateException("node.id must be between 0 and " + MAX_NODE);
+        }
+        return node;
+    }
+
+    /**
+     * Next unique transaction reference, e.g. "TXN-00BQ4ZK3Y8W1S"
+     */
+    public static String nextReference() {
+        String digits = Long.toString(nextId(), 36).toUpperCase();
+        StringBuilder sb = new StringBuilder(PREFIX.length() + REFERENCE_DIGITS).append(PREFIX);
+        for (int i = digits.length(); i < REFERENCE_DIGITS; i++) {
+            sb.append('0');
+        }
+        return sb.append(digits).toString();
+    }
+
+    /**
+     * Next unique 63-bit ID (strictly increasing per thread)
+     */
+    public static long nextId() {
+        long[] range = block.get();
+        if (range[0] == range[1]) {
+            range[0] = reserve(BLOCK_SIZE);
+            range[1] = range[0] + BLOCK_SIZE;
+        }
+        long value = range[0]++;
+        long millis = value >>> SEQUENCE_BITS;
+        return (millis << (NODE_BITS + SEQUENCE_BITS))
+             | (NODE_ID << SEQUENCE_BITS)
+             | (value & SEQUENCE_MASK);
+    }
+
+    /**
+     * Reserve n consecutive clock values, never behind wall-clock time
+     */
+    private static long reserve(int n) {
+        while (true) {
+            long current = clock.get();
+            long now = (System.currentTimeMillis() - EPOCH) << SEQUENCE_BITS;
+            long start = Math.max(current, now);
+            if (clock.compareAndSet(current, start + n)) {
+                return start;
+            }
+        }
+    }
+
+    /**
+     * Standalone concurrency stress test - run as Java application
+     * Args: [threads] [idsPerThread]
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0])
+                                      : Runtime.getRuntime().availableProcessors() * 2;
+        int perThread = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+
+        System.out.println("=== ReferenceGenerator stress test ===");
+        System.out.println("Threads: " + threads + ", ids per thread: " + perThread);
+
+        long[][] generated = new long[threads][perThread];
+        boolean[] monotonic = new boolean[threads];
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+
+        for (int t = 0; t < threads; t++) {
+            final int index = t;
+            workers[t] = new Thread(() -> {
+                long[] ids = generated[index];
+                boolean ordered = true;
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    ids[i] = nextId();
+                    if (i > 0 && ids[i] <= ids[i - 1]) {
+                        ordered = false;
+                    }
+                }
+                monotonic[index] = ordered;
+            });
+            workers[t].start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsedNanos = System.nanoTime() - begin;
+
+        // Global uniqueness: sort everything and look for equal neighbours
+        long[] all = new long[threads * perThread];
+        for (int t = 0; t < threads; t++) {
+            System.arraycopy(generated[t], 0, all, t * perThread, perThread);
+        }
+        Arrays.parallelSort(all);
+        long duplicates = 0;
+        for (int i = 1; i < all.length; i++) {
+            if (all[i] == all[i - 1]) {
+                duplicates++;
+            }
+        }
+        boolean allMonotonic = true;
+        for (boolean ordered : monotonic) {
+            allMonotonic &= ordered;
+        }
+
+        double rate = all.length / (elapsedNanos / 1_000_000_000.0);
+        System.out.printf("Generated:  %,d ids in %,d ms%n", all.length, elapsedNanos / 1_000_000);
+        System.out.printf("Rate:       %,.0f ids/sec%n", rate);
+        System.out.println("Duplicates: " + duplicates);
+        System.out.println("Monotonic per thread: " + allMonotonic);
+        System.out.println("Sample reference: " + nextReference());
+
+        if (duplicates > 0 || !allMonotonic) {
+            System.err.println("✗ Stress test FAILED");
+            System.exit(1);
+        }
+        System.out.println("✓ Stress test passed");
+    }
+}
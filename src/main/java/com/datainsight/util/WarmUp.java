@@ -0,0 +1,142 @@
+package com.datainsight.util;
+
+import com.datainsight.analytics.DashboardAggregator;
+import com.datainsight.dao.ClientDAO;
+import com.datainsight.dao.SalesRollupDAO;
+import com.datainsight.dao.TransactionCursor;
+import com.datainsight.dao.TransactionDAO;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deploy-time warm-up, so that the first request does not pay for what every
+ * later one gets for free:
+ * - the connection pool is filled up to its minimumIdle connections
+ * - every read query shape of the DAOs is parsed, translated to SQL and run once
+ *   on an empty or tiny range (Hibernate keeps the plans)
+ * - the dashboard is computed once, which fills the stats cache (warmup.dashboard)
+ * - the shared ObjectMapper builds the serializers of the API DTOs
+ * Each step logs and goes on when it fails: the application works without it.
+ */
+public final class WarmUp {
+
+    // Matches no row: keyset predicates and range scans stop at once
+    private static final TransactionCursor NO_ROWS = new TransactionCursor(LocalDate.of(1970, 1, 1), 0L);
+
+    // Private constructor - static utility
+    private WarmUp() {}
+
+    /**
+     * On by default: see warmup.enabled
+     */
+    public static boolean isEnabled() {
+        return AppConfig.getBoolean("warmup.enabled", true);
+    }
+
+    public static void run() {
+        long start = System.currentTimeMillis();
+        List<String> done = new ArrayList<>();
+        try {
+            done.add(primePool() + " connections");
+        } catch (RuntimeException e) {
+            System.err.println("✗ Warm-up: connection pool not primed: " + e.getMessage());
+        }
+        try {
+            done.add(compileQueries() + " queries");
+        } catch (RuntimeException e) {
+            System.err.println("✗ Warm-up: queries not compiled: " + e.getMessage());
+        }
+        if (AppConfig.getBoolean("warmup.dashboard", true)) {
+            try {
+                DashboardAggregator.Result dashboard = new DashboardAggregator().load();
+                done.add(dashboard.isComplete() ? "dashboard"
+                                                : "dashboard (unavailable: " + dashboard.getUnavailable().keySet() + ")");
+            } catch (RuntimeException e) {
+                System.err.println("✗ Warm-up: dashboard not computed: " + e.getMessage());
+            }
+        }
+        try {
+            JsonUtil.warmUp();
+            done.add("JSON");
+        } catch (RuntimeException e) {
+            System.err.println("✗ Warm-up: JSON mapping not primed: " + e.getMessage());
+        }
+        System.out.println("✓ Warm-up: " + String.join(", ", done) + " in " +
+                           (System.currentTimeMillis() - start) + " ms");
+    }
+
+    /**
+     * Hold minimumIdle connections at once, so the pool opens them now
+     */
+    private static int primePool() {
+        Object minimumIdle = JpaUtil.getEntityManagerFactory().getProperties().get("hibernate.hikari.minimumIdle");
+        int connections = minimumIdle != null ? Math.max(1, Integer.parseInt(minimumIdle.toString().trim())) : 1;
+        List<EntityManager> held = new ArrayList<>(connections);
+        try {
+            for (int i = 0; i < connections; i++) {
+                EntityManager em = JpaUtil.getEntityManager();
+                held.add(em);
+                em.getTransaction().begin(); // keeps the connection until rollback
+                em.unwrap(Session.class).doWork(connection -> connection.isValid(5));
+            }
+            return connections;
+        } finally {
+            for (EntityManager em : held) {
+                if (em.getTransaction().isActive()) {
+                    em.getTransaction().rollback();
+                }
+                em.close();
+            }
+        }
+    }
+
+    /**
+     * Run every read query variant once, in one read-only unit of work
+     */
+    private static int compileQueries() {
+        ClientDAO clients = new ClientDAO();
+        TransactionDAO transactions = new TransactionDAO();
+        LocalDate today = LocalDate.now();
+        double[] median = { 50 };
+
+        List<Runnable> reads = List.of(
+            () -> clients.findById(0L),
+            () -> clients.findSummary(0L),
+            () -> clients.findSummaries(List.of(0L)),
+            () -> clients.findPage(null, 1),
+            () -> clients.findPage(0L, 1),
+            () -> clients.findByPays("", null, 1),
+            () -> clients.findByPays("", 0L, 1),
+            () -> clients.findByProfession("", null, 1),
+            () -> clients.findByProfession("", 0L, 1),
+            () -> clients.getIdBounds(),
+            () -> clients.findIdsInRange(0L, 0L, 1),
+            () -> transactions.findById(0L),
+            () -> transactions.findRecent(null, 1),
+            () -> transactions.findRecent(NO_ROWS, 1),
+            () -> transactions.findByClient(0L, null, 1),
+            () -> transactions.findByClient(0L, NO_ROWS, 1),
+            () -> transactions.findByCategorie("", null, 1),
+            () -> transactions.findByCategorie("", NO_ROWS, 1),
+            () -> transactions.findByDateRange(today, today, null, 1),
+            () -> transactions.findByDateRange(today, today, NO_ROWS, 1),
+            () -> transactions.countUniqueClients(null, today, today),
+            () -> transactions.countUniqueClients("pays", today, today),
+            () -> transactions.countUniqueClients("categorie", today, today),
+            () -> transactions.countUniqueClients("day", today, today),
+            () -> transactions.getAmountPercentiles(null, today, today, median),
+            () -> transactions.getAmountPercentiles("", today, today, median),
+            () -> new SalesRollupDAO().count());
+
+        JpaUtil.beginRequestScope();
+        try {
+            reads.forEach(Runnable::run);
+        } finally {
+            JpaUtil.endRequestScope();
+        }
+        return reads.size();
+    }
+}
@@ -0,0 +1,81 @@
+package com.datainsight.web;
+
+import com.datainsight.analytics.AmountPercentilesIndex;
+import com.datainsight.analytics.ColumnarTransactionStore;
+import com.datainsight.analytics.DashboardAggregator;
+import com.datainsight.analytics.TopClientsLeaderboard;
+import com.datainsight.analytics.UniqueClientsIndex;
+import com.datainsight.cache.StatsCache;
+import com.datainsight.dao.ExternalChanges;
+import com.datainsight.dao.PartitionMaintenance;
+import com.datainsight.dao.PurgeJob;
+import com.datainsight.dao.SalesRollupDAO;
+import com.datainsight.ingest.IngestQueue;
+import com.datainsight.util.JpaUtil;
+import com.datainsight.util.WarmUp;
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+import jakarta.servlet.annotation.WebListener;
+
+/**
+ * Application lifecycle - starts background services on deploy,
+ * stops them and closes JPA on undeploy
+ */
+@WebListener
+public class AppContextListener implements ServletContextListener {
+
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        try {
+            // Schema update and id alignment at deploy time, not in the first request
+            JpaUtil.init();
+        } catch (RuntimeException e) {
+            System.err.println("✗ Could not initialize JPA at startup (retried on first use): " + e.getMessage());
+        }
+        try {
+            new SalesRollupDAO().rebuildIfEmpty();
+        } catch (RuntimeException e) {
+            System.err.println("✗ Could not check the sales rollup: " + e.getMessage());
+        }
+        if (PartitionMaintenance.isEnabled()) {
+            PartitionMaintenance.getInstance().start();
+        }
+        if (IngestQueue.isEnabled()) {
+            IngestQueue.getInstance();
+        }
+        if (ColumnarTransactionStore.isEnabled()) {
+            ColumnarTransactionStore.getInstance().start();
+        }
+        if (TopClientsLeaderboard.isEnabled()) {
+            TopClientsLeaderboard.getInstance().start();
+        }
+        if (UniqueClientsIndex.isEnabled()) {
+            UniqueClientsIndex.getInstance().start();
+        }
+        if (AmountPercentilesIndex.isEnabled()) {
+            AmountPercentilesIndex.getInstance().start();
+        }
+        // Writes of the command-line tools (PurgeJob, DataGenerator)
+        ExternalChanges.start();
+        if (WarmUp.isEnabled()) {
+            WarmUp.run();
+        }
+        System.out.println("✓ DataInsight started");
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        // Commit queued writes before the EntityManagerFactory goes away
+        IngestQueue.shutdown();
+        PurgeJob.shutdown();
+        ExternalChanges.shutdown();
+        DashboardAggregator.shutdown();
+        PartitionMaintenance.getInstance().shutdown();
+        TopClientsLeaderboard.getInstance().shutdown();
+        UniqueClientsIndex.getInstance().shutdown();
+        AmountPercentilesIndex.getInstance().shutdown();
+        StatsCache.shutdown();
+        JpaUtil.close();
+        System.out.println("✓ DataInsight stopped");
+    }
+}
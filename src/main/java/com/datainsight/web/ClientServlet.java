@@ -2,6 +2,7 @@ package com.datainsight.web;
 
 import com.datainsight.dao.ClientDAO;
 import com.datainsight.model.Client;
+import com.datainsight.util.AppConfig;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
@@ -14,7 +15,7 @@ import java.util.List;
 /**
  * Handles CRUD operations for Client entities
  */
-@WebServlet("/clients")
+@WebServlet(urlPatterns = "/clients", loadOnStartup = 1)
 public class ClientServlet extends HttpServlet {
 
     private ClientDAO clientDAO;
@@ -26,7 +27,7 @@ public class ClientServlet extends HttpServlet {
     }
 
     /**
-     * GET: List all clients or filter by country/profession
+     * GET: List clients page by page or filter by country/profession
      */
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response)
@@ -35,18 +36,28 @@ public class ClientServlet extends HttpServlet {
         String action = request.getParameter("action");
         String pays = request.getParameter("pays");
         String profession = request.getParameter("profession");
+        String limitParam = request.getParameter("limit");
+        String cursorParam = request.getParameter("cursor");
         
         try {
+            int limit = AppConfig.getInt("page.defaultSize", 100);
+            if (limitParam != null && !limitParam.isEmpty()) {
+                limit = Integer.parseInt(limitParam);
+            }
+            limit = ClientDAO.boundedPageSize(limit);
+            Long afterId = cursorParam != null && !cursorParam.isEmpty()
+                    ? Long.parseLong(cursorParam) : null;
+
             List<Client> clients;
             
             if (pays != null && !pays.isEmpty()) {
-                clients = clientDAO.findByPays(pays);
+                clients = clientDAO.findByPays(pays, afterId, limit);
                 request.setAttribute("filterType", "Pays: " + pays);
             } else if (profession != null && !profession.isEmpty()) {
-                clients = clientDAO.findByProfession(profession);
+                clients = clientDAO.findByProfession(profession, afterId, limit);
                 request.setAttribute("filterType", "Profession: " + profession);
             } else {
-                clients = clientDAO.findAll();
+                clients = clientDAO.findPage(afterId, limit);
             }
             
             long totalCount = clientDAO.count();
@@ -54,6 +65,10 @@ public class ClientServlet extends HttpServlet {
             request.setAttribute("clients", clients);
             request.setAttribute("totalCount", totalCount);
             request.setAttribute("displayCount", clients.size());
+            request.setAttribute("limit", limit);
+            if (clients.size() == limit) {
+                request.setAttribute("nextCursor", clients.get(clients.size() - 1).getId());
+            }
             request.setAttribute("pageTitle", "Gestion des Clients");
 
             request.getRequestDispatcher("/pages/clients.jsp").forward(request, response);
@@ -1,5 +1,6 @@
 package com.datainsight.web;
 
+import com.datainsight.util.AppConfig;
 import com.datainsight.util.DataGenerator;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
@@ -13,7 +14,7 @@ import java.io.PrintWriter;
 /**
  * Triggers batch data generation via web interface
  */
-@WebServlet("/generate")
+@WebServlet(urlPatterns = "/generate", loadOnStartup = 1)
 public class GenerateDataServlet extends HttpServlet {
 
     @Override
@@ -21,6 +22,9 @@ public class GenerateDataServlet extends HttpServlet {
             throws ServletException, IOException {
 
         // Show form
+        int maxThreads = DataGenerator.maxWorkers();
+        request.setAttribute("maxThreads", maxThreads);
+        request.setAttribute("defaultThreads", Math.min(AppConfig.getInt("generator.threads", 4), maxThreads));
         request.getRequestDispatcher("/pages/generate.jsp").forward(request, response);
     }
 
@@ -35,9 +39,11 @@ public class GenerateDataServlet extends HttpServlet {
             // Parse parameters
             int numClients = 1000; // Default
             int transactionsPerClient = 10; // Default
+            int threads = AppConfig.getInt("generator.threads", 4); // Default
 
             String clientsParam = request.getParameter("numClients");
             String transactionsParam = request.getParameter("transactionsPerClient");
+            String threadsParam = request.getParameter("threads");
 
             if (clientsParam != null && !clientsParam.isEmpty()) {
                 numClients = Integer.parseInt(clientsParam);
@@ -45,6 +51,9 @@ public class GenerateDataServlet extends HttpServlet {
             if (transactionsParam != null && !transactionsParam.isEmpty()) {
                 transactionsPerClient = Integer.parseInt(transactionsParam);
             }
+            if (threadsParam != null && !threadsParam.isEmpty()) {
+                threads = Integer.parseInt(threadsParam);
+            }
 
             // Validate
             if (numClients < 1 || numClients > 10000) {
@@ -55,6 +64,15 @@ public class GenerateDataServlet extends HttpServlet {
                 out.println("<h3>❌ Invalid transactions per client (1-100 allowed)</h3>");
                 return;
             }
+            // Each thread may hold two pooled connections: never trust the form's max
+            int maxThreads = DataGenerator.maxWorkers();
+            if (threadsParam == null || threadsParam.isEmpty()) {
+                threads = Math.min(threads, maxThreads);
+            }
+            if (threads < 1 || threads > maxThreads) {
+                out.println("<h3>❌ Invalid number of threads (1-" + maxThreads + " allowed)</h3>");
+                return;
+            }
 
             out.println("<!DOCTYPE html>");
             out.println("<html><head><title>Génération de Données</title>");
@@ -73,22 +91,26 @@ public class GenerateDataServlet extends HttpServlet {
             out.flush();
             
             DataGenerator.generateClients(numClients);
+            long clientDuration = System.currentTimeMillis() - start;
             
-            out.println("\n💳 Génération des transactions...");
+            out.println("\n💳 Génération des transactions (" + threads + " thread(s))...");
             out.flush();
             
             // Generate transactions
-            int inserted = DataGenerator.generateTransactions(transactionsPerClient);
+            long transactionStart = System.currentTimeMillis();
+            int inserted = DataGenerator.generateTransactions(transactionsPerClient, threads);
+            long transactionDuration = System.currentTimeMillis() - transactionStart;
             
             long duration = System.currentTimeMillis() - start;
-            double rate = (inserted * 1000.0) / duration;
 
             out.println("\n✅ Génération terminée!");
             out.println("─────────────────────────────────────");
             out.println("Clients générés:         " + numClients);
             out.println("Transactions générées:   " + inserted);
+            out.println("Threads:                 " + threads);
             out.println("Durée totale:            " + duration + " ms");
-            out.println("Débit:                   " + String.format("%.0f", rate) + " transactions/sec");
+            out.println("Débit clients:           " + DataGenerator.formatRate(numClients, clientDuration) + " clients/sec");
+            out.println("Débit transactions:      " + DataGenerator.formatRate(inserted, transactionDuration) + " transactions/sec");
             out.println("─────────────────────────────────────");
             out.println("</pre>");
             
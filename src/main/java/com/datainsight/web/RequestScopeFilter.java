@@ -0,0 +1,55 @@
+package com.datainsight.web;
+
+import com.datainsight.util.AppConfig;
+import com.datainsight.util.JpaUtil;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.annotation.WebFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+
+/**
+ * Session-per-request for reads: a GET or HEAD request runs its DAO reads on one
+ * EntityManager, one pooled connection and one READ ONLY transaction (opened on the
+ * first read, so cache hits and static resources cost nothing), instead of one
+ * EntityManager and connection checkout per DAO call. The reads a request makes on
+ * its own thread all come from the same snapshot.
+ *
+ * Writes (POST, PUT, DELETE) are not wrapped: every write DAO method keeps its own
+ * EntityManager and transaction. Work handed to other threads runs outside the
+ * request's unit of work: stats cache refreshes, and the dashboard (/stats,
+ * /api/stats/dashboard), whose sections run in parallel, each on its own connection
+ * and snapshot (see DashboardAggregator).
+ */
+@WebFilter(urlPatterns = "/*")
+public class RequestScopeFilter implements Filter {
+
+    private final boolean enabled = AppConfig.getBoolean("jpa.requestScope.enabled", true);
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        if (!enabled || !isRead(request)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        JpaUtil.beginRequestScope();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            JpaUtil.endRequestScope();
+        }
+    }
+
+    private static boolean isRead(ServletRequest request) {
+        if (!(request instanceof HttpServletRequest)) {
+            return false;
+        }
+        String method = ((HttpServletRequest) request).getMethod();
+        return "GET".equals(method) || "HEAD".equals(method);
+    }
+}
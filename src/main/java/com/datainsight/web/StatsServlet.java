@@ -1,7 +1,7 @@
 package com.datainsight.web;
 
-import com.datainsight.dao.ClientDAO;
-import com.datainsight.dao.TransactionDAO;
+import com.datainsight.analytics.DashboardAggregator;
+import com.datainsight.dto.OverviewStats;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
@@ -9,21 +9,18 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
-import java.util.List;
 
 /**
  * Displays comprehensive analytics dashboard
  */
-@WebServlet("/stats")
+@WebServlet(urlPatterns = "/stats", loadOnStartup = 1)
 public class StatsServlet extends HttpServlet {
 
-    private TransactionDAO transactionDAO;
-    private ClientDAO clientDAO;
+    private DashboardAggregator dashboardAggregator;
 
     @Override
     public void init() throws ServletException {
-        transactionDAO = new TransactionDAO();
-        clientDAO = new ClientDAO();
+        dashboardAggregator = new DashboardAggregator();
         System.out.println("✓ StatsServlet initialized");
     }
 
@@ -35,37 +32,30 @@ public class StatsServlet extends HttpServlet {
             throws ServletException, IOException {
 
         try {
-            // Global statistics
-            long totalClients = clientDAO.count();
-            long totalTransactions = transactionDAO.count();
-            Double totalRevenue = transactionDAO.getTotalRevenue();
-            Double avgTransaction = transactionDAO.getAverageTransactionAmount();
-
-            // Aggregated analytics
-            List<Object[]> revenueByCountry = transactionDAO.getRevenueByCountry();
-            List<Object[]> topClients = transactionDAO.getTopClients(10);
-            List<Object[]> revenueByCategory = transactionDAO.getRevenueByCategory();
-            List<Object[]> salesByMonth = transactionDAO.getSalesByMonth();
-            List<Object[]> salesByDay = transactionDAO.getSalesByDay(30);
-            
-            // Demographics
-            List<Object[]> clientsByCountry = clientDAO.countByCountry();
-            List<Object[]> clientsByProfession = clientDAO.countByProfession();
+            // All sections run concurrently; late or failed ones are left empty
+            DashboardAggregator.Result dashboard = dashboardAggregator.load();
+            OverviewStats overview = dashboard.get(DashboardAggregator.OVERVIEW);
 
             // Set attributes
-            request.setAttribute("totalClients", totalClients);
-            request.setAttribute("totalTransactions", totalTransactions);
-            request.setAttribute("totalRevenue", totalRevenue);
-            request.setAttribute("avgTransaction", avgTransaction);
+            if (overview != null) {
+                request.setAttribute("totalClients", overview.getTotalClients());
+                request.setAttribute("totalTransactions", overview.getTotalTransactions());
+                request.setAttribute("totalRevenue", overview.getTotalRevenue());
+                request.setAttribute("avgTransaction", overview.getAverageTransaction());
+                request.setAttribute("minTransaction", overview.getMinTransaction());
+                request.setAttribute("maxTransaction", overview.getMaxTransaction());
+            }
             
-            request.setAttribute("revenueByCountry", revenueByCountry);
-            request.setAttribute("topClients", topClients);
-            request.setAttribute("revenueByCategory", revenueByCategory);
-            request.setAttribute("salesByMonth", salesByMonth);
-            request.setAttribute("salesByDay", salesByDay);
+            request.setAttribute("revenueByCountry", dashboard.get(DashboardAggregator.REVENUE_BY_COUNTRY));
+            request.setAttribute("topClients", dashboard.get(DashboardAggregator.TOP_CLIENTS));
+            request.setAttribute("revenueByCategory", dashboard.get(DashboardAggregator.REVENUE_BY_CATEGORY));
+            request.setAttribute("salesByMonth", dashboard.get(DashboardAggregator.SALES_BY_MONTH));
+            request.setAttribute("salesByDay", dashboard.get(DashboardAggregator.SALES_BY_DAY));
             
-            request.setAttribute("clientsByCountry", clientsByCountry);
-            request.setAttribute("clientsByProfession", clientsByProfession);
+            request.setAttribute("clientsByCountry", dashboard.get(DashboardAggregator.CLIENTS_BY_COUNTRY));
+            request.setAttribute("clientsByProfession", dashboard.get(DashboardAggregator.CLIENTS_BY_PROFESSION));
+
+            request.setAttribute("unavailableSections", dashboard.getUnavailable().keySet());
             
             request.setAttribute("pageTitle", "Analytics Dashboard");
 
@@ -1,8 +1,8 @@
 package com.datainsight.web;
 
-import com.datainsight.dao.ClientDAO;
+import com.datainsight.cache.ClientCache;
 import com.datainsight.dao.TransactionDAO;
-import com.datainsight.model.Client;
+import com.datainsight.dto.OverviewStats;
 import com.datainsight.model.Transaction;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
@@ -17,16 +17,16 @@ import java.util.List;
 /**
  * Handles transaction queries and creation
  */
-@WebServlet("/transactions")
+@WebServlet(urlPatterns = "/transactions", loadOnStartup = 1)
 public class TransactionServlet extends HttpServlet {
 
     private TransactionDAO transactionDAO;
-    private ClientDAO clientDAO;
+    private ClientCache clientCache;
 
     @Override
     public void init() throws ServletException {
         transactionDAO = new TransactionDAO();
-        clientDAO = new ClientDAO();
+        clientCache = ClientCache.getInstance();
         System.out.println("✓ TransactionServlet initialized");
     }
 
@@ -55,14 +55,12 @@ public class TransactionServlet extends HttpServlet {
                 transactions = transactionDAO.findRecent(limit);
             }
 
-            long totalCount = transactionDAO.count();
-            Double totalRevenue = transactionDAO.getTotalRevenue();
-            Double avgAmount = transactionDAO.getAverageTransactionAmount();
+            OverviewStats overview = transactionDAO.getOverview();
 
             request.setAttribute("transactions", transactions);
-            request.setAttribute("totalCount", totalCount);
-            request.setAttribute("totalRevenue", totalRevenue);
-            request.setAttribute("avgAmount", avgAmount);
+            request.setAttribute("totalCount", overview.getTotalTransactions());
+            request.setAttribute("totalRevenue", overview.getTotalRevenue());
+            request.setAttribute("avgAmount", overview.getAverageTransaction());
             request.setAttribute("limit", limit);
             request.setAttribute("pageTitle", "Transactions Récentes");
 
@@ -116,19 +114,19 @@ public class TransactionServlet extends HttpServlet {
             LocalDate date = LocalDate.parse(dateStr);
             Double montant = Double.parseDouble(montantStr);
 
-            Client client = clientDAO.findById(clientId);
-            if (client == null) {
+            // Existence check from the cache; the insert attaches the client by reference
+            if (clientCache.get(clientId) == null) {
                 response.sendRedirect(request.getContextPath() + 
                     "/transactions?error=Client introuvable");
                 return;
             }
 
-            Transaction transaction = new Transaction(date, montant, categorie, description, client);
+            Transaction transaction = new Transaction(date, montant, categorie, description, null);
             if (modePaiement != null && !modePaiement.isEmpty()) {
                 transaction.setModePaiement(modePaiement);
             }
 
-            transactionDAO.create(transaction);
+            transactionDAO.create(transaction, clientId);
 
             response.sendRedirect(request.getContextPath() + "/transactions?success=created");
 
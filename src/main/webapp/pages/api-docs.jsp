@@ -181,6 +181,7 @@
                 <li><a href="#clients-api">Clients API</a></li>
                 <li><a href="#transactions-api">Transactions API</a></li>
                 <li><a href="#stats-api">Statistics API</a></li>
+                <li><a href="#admin-api">Admin API</a></li>
                 <li><a href="#testing">Testing with cURL</a></li>
                 <li><a href="#error-handling">Error Handling</a></li>
             </ul>
@@ -219,13 +220,15 @@
         <div class="endpoint">
             <h3><span class="method method-get">GET</span> Récupérer tous les clients</h3>
             <div class="url">/api/clients</div>
-            <div class="description">Retourne la liste de tous les clients.</div>
+            <div class="description">Retourne la liste des clients, page par page (du plus récent au plus ancien).</div>
             
             <div class="params">
                 <strong>Query Parameters (optionnels):</strong>
                 <ul>
                     <li><span class="param-name">pays</span> - Filtrer par pays</li>
                     <li><span class="param-name">profession</span> - Filtrer par profession</li>
+                    <li><span class="param-name">limit</span> - Taille de page (défaut: 100, plafonnée par <code>page.maxSize</code>)</li>
+                    <li><span class="param-name">cursor</span> - Page suivante (valeur <code>nextCursor</code> de la réponse précédente)</li>
                 </ul>
             </div>
 
@@ -256,10 +259,11 @@ curl -X GET "<%= request.getScheme() + "://" + request.getServerName() + ":" + r
             "email": "mohammed.alami@datainsight.com",
             "dateInscription": "2025-11-01T10:30:00",
             "statut": "actif",
-            "nombreTransactions": 15
+            "nombreTransactions": null
         }
     ],
     "count": 1,
+    "nextCursor": "1",
     "timestamp": "2025-11-03T14:30:00"
 }
                 </div>
@@ -349,7 +353,12 @@ curl -X PUT "<%= request.getScheme() + "://" + request.getServerName() + ":" + r
         <div class="endpoint">
             <h3><span class="method method-delete">DELETE</span> Supprimer un client</h3>
             <div class="url">/api/clients/{id}</div>
-            <div class="description">Supprime un client et toutes ses transactions.</div>
+            <div class="description">Supprime un client et toutes ses transactions. Plusieurs clients en un appel :
+                <code>DELETE /api/clients?ids=1,2,3</code> (1000 identifiants au plus, entiers positifs, sinon
+                <code>400</code> ; réponse : <code>requested</code>, <code>deleted</code>).
+                Les transactions sont supprimées par une requête groupée, sans être chargées en mémoire. Pour un
+                client ayant des millions de transactions, préférer la purge progressive
+                (<code>POST /api/admin/purge?clientId=</code>).</div>
 
             <strong>Exemple cURL:</strong>
             <div class="example">
@@ -369,9 +378,11 @@ curl -X DELETE "<%= request.getScheme() + "://" + request.getServerName() + ":"
             <div class="params">
                 <strong>Query Parameters (optionnels):</strong>
                 <ul>
-                    <li><span class="param-name">limit</span> - Nombre de résultats (défaut: 100)</li>
+                    <li><span class="param-name">limit</span> - Nombre de résultats (défaut: 100, max: 1000)</li>
                     <li><span class="param-name">categorie</span> - Filtrer par catégorie</li>
                     <li><span class="param-name">clientId</span> - Filtrer par ID client</li>
+                    <li><span class="param-name">from</span>, <span class="param-name">to</span> - Filtrer par période (YYYY-MM-DD)</li>
+                    <li><span class="param-name">cursor</span> - Page suivante (valeur <code>nextCursor</code> de la réponse précédente)</li>
                 </ul>
             </div>
 
@@ -402,17 +413,44 @@ curl -X GET "<%= request.getScheme() + "://" + request.getServerName() + ":" + r
         }
     ],
     "count": 1,
+    "nextCursor": "MjAxMDE6MQ",
     "timestamp": "2025-11-03T14:30:00"
 }
                 </div>
             </div>
         </div>
 
+        <!-- GET Export Transactions -->
+        <div class="endpoint">
+            <h3><span class="method method-get">GET</span> Exporter les transactions</h3>
+            <div class="url">/api/transactions/export</div>
+            <div class="description">Export en flux (NDJSON ou CSV) d'une période, sans limite de taille.
+                Si une erreur survient après l'envoi des premières lignes, le statut reste <code>200</code> mais le
+                corps se termine par un enregistrement d'erreur : une ligne <code>{"success":false,...}</code> en
+                NDJSON, une ligne commençant par <code>#ERROR,</code> en CSV. Un export sans cette ligne est complet.</div>
+
+            <div class="params">
+                <strong>Query Parameters:</strong>
+                <ul>
+                    <li><span class="param-name">from</span>, <span class="param-name">to</span> - Période (YYYY-MM-DD, requis)</li>
+                    <li><span class="param-name">format</span> - ndjson (défaut) ou csv</li>
+                </ul>
+            </div>
+
+            <strong>Exemple cURL:</strong>
+            <div class="example">
+curl -X GET "<%= request.getScheme() + "://" + request.getServerName() + ":" + request.getServerPort() + request.getContextPath() %>/api/transactions/export?from=2025-01-01&to=2025-12-31&format=csv" -o transactions.csv
+            </div>
+        </div>
+
         <!-- POST Create Transaction -->
         <div class="endpoint">
             <h3><span class="method method-post">POST</span> Créer une transaction</h3>
             <div class="url">/api/transactions</div>
-            <div class="description">Enregistre une nouvelle transaction.</div>
+            <div class="description">Enregistre une nouvelle transaction. En mode asynchrone
+                (<code>ingest.async.enabled=true</code>), la transaction est mise en file et la réponse est
+                <strong>202 Accepted</strong> avec sa référence ; elle est écrite par lots en arrière-plan.
+                Si la file est pleine : <strong>429</strong> avec l'en-tête <code>Retry-After</code>.</div>
 
             <div class="params">
                 <strong>Body (JSON):</strong>
@@ -441,6 +479,32 @@ curl -X POST "<%= request.getScheme() + "://" + request.getServerName() + ":" +
             </div>
         </div>
 
+        <!-- POST Batch Transactions -->
+        <div class="endpoint">
+            <h3><span class="method method-post">POST</span> Créer des transactions en lot</h3>
+            <div class="url">/api/transactions/batch</div>
+            <div class="description">Enregistre jusqu'à 5 000 transactions en une seule requête et un seul commit.
+                Le corps est un tableau JSON ou du NDJSON (une transaction par ligne). Chaque élément est validé
+                séparément : la réponse indique le résultat de chaque élément (index, id, référence ou erreur).</div>
+
+            <div class="params">
+                <strong>Codes de réponse:</strong>
+                <ul>
+                    <li><span class="param-name">201</span> - Toutes les transactions ont été créées</li>
+                    <li><span class="param-name">200</span> - Lot partiellement accepté (voir les éléments en erreur)</li>
+                    <li><span class="param-name">400</span> - Aucune transaction valide, ou JSON mal formé</li>
+                    <li><span class="param-name">413</span> - Lot trop volumineux</li>
+                </ul>
+            </div>
+
+            <strong>Exemple cURL (NDJSON):</strong>
+            <div class="example">
+curl -X POST "<%= request.getScheme() + "://" + request.getServerName() + ":" + request.getServerPort() + request.getContextPath() %>/api/transactions/batch" \
+  -H "Content-Type: application/x-ndjson" \
+  --data-binary $'{"clientId":1,"date":"2025-11-03","montant":25.5,"categorie":"Alimentation"}\n{"clientId":2,"date":"2025-11-03","montant":80,"categorie":"Sport"}'
+            </div>
+        </div>
+
         <!-- DELETE Transaction -->
         <div class="endpoint">
             <h3><span class="method method-delete">DELETE</span> Supprimer une transaction</h3>
@@ -476,7 +540,9 @@ curl -X GET "<%= request.getScheme() + "://" + request.getServerName() + ":" + r
         "totalClients": 1000,
         "totalTransactions": 10000,
         "totalRevenue": 2500000.50,
-        "averageTransaction": 250.00
+        "averageTransaction": 250.00,
+        "minTransaction": 5.00,
+        "maxTransaction": 1999.90
     },
     "timestamp": "2025-11-03T14:30:00"
 }
@@ -536,12 +602,14 @@ curl -X GET "<%= request.getScheme() + "://" + request.getServerName() + ":" + r
         <div class="endpoint">
             <h3><span class="method method-get">GET</span> Top clients</h3>
             <div class="url">/api/stats/top-clients</div>
-            <div class="description">Clients avec les dépenses les plus élevées.</div>
+            <div class="description">Clients avec les dépenses les plus élevées. Avec
+                <code>analytics.leaderboard.enabled=true</code>, le classement est tenu à jour en mémoire à chaque
+                transaction et recalculé périodiquement depuis la base (état : <code>GET /api/admin/leaderboard</code>).</div>
 
             <div class="params">
                 <strong>Query Parameters (optionnels):</strong>
                 <ul>
-                    <li><span class="param-name">limit</span> - Nombre de clients (défaut: 10)</li>
+                    <li><span class="param-name">limit</span> - Nombre de clients (défaut: 10, maximum: <code>stats.topClients.maxLimit</code>, 100)</li>
                 </ul>
             </div>
 
@@ -625,6 +693,241 @@ curl -X GET "<%= request.getScheme() + "://" + request.getServerName() + ":" + r
             </div>
         </div>
 
+        <!-- Ingest Metrics -->
+        <div class="endpoint">
+            <h3><span class="method method-get">GET</span> Métriques d'ingestion</h3>
+            <div class="url">/api/stats/ingest</div>
+            <div class="description">État de la file d'ingestion asynchrone : profondeur de file, taille des lots
+                commités, latence moyenne et maximale des commits, écritures refusées (429).</div>
+
+            <strong>Exemple cURL:</strong>
+            <div class="example">
+curl -X GET "<%= request.getScheme() + "://" + request.getServerName() + ":" + request.getServerPort() + request.getContextPath() %>/api/stats/ingest"
+            </div>
+        </div>
+
+        <!-- Cache Statistics -->
+        <div class="endpoint">
+            <h3><span class="method method-get">GET</span> Statistiques des caches</h3>
+            <div class="url">/api/stats/cache</div>
+            <div class="description">Taille, succès (hits), échecs (misses) et taux de succès du cache des clients
+                utilisé lors de la création des transactions, du cache des statistiques (<code>stats</code> :
+                résultats servis frais, servis périmés pendant leur recalcul en arrière-plan, recalculs, version
+                courante des données), puis du cache de second niveau Hibernate par région
+                (<code>clients</code>, <code>client-aggregates</code>, <code>client-pages</code>...).</div>
+
+            <strong>Exemple cURL:</strong>
+            <div class="example">
+curl -X GET "<%= request.getScheme() + "://" + request.getServerName() + ":" + request.getServerPort() + request.getContextPath() %>/api/stats/cache"
+            </div>
+        </div>
+
+        <!-- Dashboard -->
+        <div class="endpoint">
+            <h3><span class="method method-get">GET</span> Tableau de bord complet</h3>
+            <div class="url">/api/stats/dashboard</div>
+            <div class="description">Toutes les sections du tableau de bord en un seul appel : <code>overview</code>,
+                <code>revenueByCountry</code>, <code>revenueByCategory</code>, <code>topClients</code>,
+                <code>salesByMonth</code>, <code>salesByDay</code> (30 jours), <code>clientsByCountry</code>,
+                <code>clientsByProfession</code>. Les requêtes s'exécutent en parallèle (<code>dashboard.threads</code>) :
+                le temps de réponse est celui de la plus lente. Une section qui ne répond pas dans le délai
+                (<code>dashboard.queryTimeoutMs</code>) vaut <code>null</code> et figure dans <code>unavailable</code>
+                avec la raison (<code>timeout</code>, <code>error</code>, <code>rejected</code>). Le temps restant
+                sert aussi de délai d'exécution à chaque requête SQL : la base annule celles qui le dépassent.
+                Chaque section est lue dans sa propre transaction (et peut venir du cache) : les sections peuvent
+                refléter des instants légèrement différents ; l'<code>ETag</code> suit la plus ancienne.</div>
+
+            <div class="response">
+                <strong>Réponse (200 OK):</strong>
+                <div class="example">
+{
+    "success": true,
+    "data": {
+        "overview": { "totalClients": 1000, "totalTransactions": 10000, ... },
+        "revenueByCountry": [ ... ],
+        ...
+        "topClients": null,
+        "complete": false,
+        "unavailable": { "topClients": "timeout" },
+        "durationMs": 2003
+    }
+}
+                </div>
+            </div>
+        </div>
+
+        <!-- Unique Clients -->
+        <div class="endpoint">
+            <h3><span class="method method-get">GET</span> Clients distincts</h3>
+            <div class="url">/api/stats/unique-clients?groupBy=pays&amp;from=2024-01-01&amp;to=2024-01-31</div>
+            <div class="description">Nombre de clients distincts ayant au moins une transaction entre <code>from</code>
+                et <code>to</code> (par défaut : les 30 derniers jours), au total ou par <code>groupBy</code> :
+                <code>pays</code>, <code>categorie</code> ou <code>day</code>. Avec
+                <code>analytics.uniqueClients.enabled=true</code> (par défaut), le résultat est une estimation HyperLogLog
+                calculée à partir d'esquisses journalières en mémoire (<code>estimated: true</code>) ; <code>relativeError</code>
+                est l'erreur relative type (1,6 % avec <code>analytics.uniqueClients.precision=12</code>). Tant que l'index
+                est désactivé ou en construction, le comptage exact est fait en base (<code>relativeError: null</code>),
+                interrompu après <code>stats.exactQueryTimeoutMs</code> (503).
+                État : <code>GET /api/admin/unique-clients</code>.</div>
+
+            <div class="response">
+                <strong>Réponse (200 OK):</strong>
+                <div class="example">
+{
+    "success": true,
+    "data": {
+        "groupBy": "pays",
+        "from": "2024-01-01",
+        "to": "2024-01-31",
+        "estimated": true,
+        "relativeError": 0.01625,
+        "rows": [
+            { "pays": "France", "uniqueClients": 412 },
+            { "pays": "Belgique", "uniqueClients": 97 }
+        ]
+    },
+    "count": 2
+}
+                </div>
+            </div>
+        </div>
+
+        <!-- Amount Percentiles -->
+        <div class="endpoint">
+            <h3><span class="method method-get">GET</span> Percentiles des montants</h3>
+            <div class="url">/api/stats/amount-percentiles?categorie=Immobilier&amp;p=50,90,99&amp;from=2024-01&amp;to=2024-06</div>
+            <div class="description">Percentiles du montant des transactions par catégorie (toutes les catégories si
+                <code>categorie</code> est absent), sur une plage de mois <code>from</code>/<code>to</code>
+                (<code>AAAA-MM</code>, toutes les données par défaut). <code>p</code> : liste de percentiles entre 0 et
+                100 (par défaut <code>50,90,99</code>). Plus parlant que la moyenne pour des montants très dispersés.
+                Avec <code>analytics.amountPercentiles.enabled=true</code> (par défaut), les valeurs sont estimées à partir
+                de t-digests mensuels en mémoire (<code>estimated: true</code>, erreur de rang inférieure à 0,1 %). Tant que
+                l'index est désactivé ou en construction, elles sont calculées exactement en base, calcul interrompu après
+                <code>stats.exactQueryTimeoutMs</code> (503). État : <code>GET /api/admin/amount-percentiles</code>.</div>
+
+            <div class="response">
+                <strong>Réponse (200 OK):</strong>
+                <div class="example">
+{
+    "success": true,
+    "data": {
+        "categorie": "Immobilier",
+        "from": "2024-01",
+        "to": "2024-06",
+        "estimated": true,
+        "rows": [
+            {
+                "categorie": "Immobilier",
+                "transactionCount": 1250,
+                "percentiles": { "p50": 152000.0, "p90": 410500.0, "p99": 780250.0 }
+            }
+        ]
+    },
+    "count": 1
+}
+                </div>
+            </div>
+        </div>
+
+        <!-- Admin API -->
+        <h2 id="admin-api">🛠️ Admin API</h2>
+
+        <!-- Rebuild Rollup -->
+        <div class="endpoint">
+            <h3><span class="method method-post">POST</span> Reconstruire le cumul journalier</h3>
+            <div class="url">/api/admin/rollup/rebuild</div>
+            <div class="description">Recalcule entièrement la table <code>daily_sales_rollup</code>
+                (nombre et montant des ventes par jour, catégorie, pays et mode de paiement) à partir de la table
+                des transactions. Le cumul est tenu à jour automatiquement à chaque écriture : cette opération
+                n'est utile qu'après une modification directe en base. <code>GET /api/admin/rollup</code> donne
+                le nombre de lignes du cumul.</div>
+
+            <strong>Exemple cURL:</strong>
+            <div class="example">
+curl -X POST "<%= request.getScheme() + "://" + request.getServerName() + ":" + request.getServerPort() + request.getContextPath() %>/api/admin/rollup/rebuild"
+            </div>
+        </div>
+
+        <!-- Columnar Store Status -->
+        <div class="endpoint">
+            <h3><span class="method method-get">GET</span> État du moteur analytique en mémoire</h3>
+            <div class="url">/api/admin/columnar</div>
+            <div class="description">Quand <code>analytics.columnar.enabled=true</code>, les transactions sont chargées
+                au démarrage dans un stockage en colonnes en mémoire qui répond aux statistiques
+                (<code>/api/stats/*</code> et page <code>/stats</code>) sans interroger la base. Renvoie l'état
+                (<code>IDLE</code>, <code>LOADING</code>, <code>READY</code>, <code>DISABLED</code>), le nombre de lignes
+                et la taille des dictionnaires. Tant que l'état n'est pas <code>READY</code>, les statistiques viennent
+                de la base.</div>
+
+            <strong>Exemple cURL:</strong>
+            <div class="example">
+curl -X GET "<%= request.getScheme() + "://" + request.getServerName() + ":" + request.getServerPort() + request.getContextPath() %>/api/admin/columnar"
+            </div>
+        </div>
+
+        <!-- Transactions Partitions -->
+        <div class="endpoint">
+            <h3><span class="method method-post">POST</span> Partitionner la table des transactions</h3>
+            <div class="url">/api/admin/partitions/convert</div>
+            <div class="description">Avec <code>transactions.partitions.enabled=true</code>, convertit (une seule fois) la
+                table <code>transactions</code> en partitions mensuelles (<code>RANGE COLUMNS(date)</code>) : une partition
+                par mois depuis la transaction la plus ancienne, plus <code>pmax</code> pour les dates futures. La
+                conversion recopie la table et bloque les écritures pendant sa durée : à lancer pendant une fenêtre de
+                maintenance. MySQL n'acceptant pas de clé étrangère sur une table partitionnée, la contrainte vers
+                <code>clients</code> est supprimée, la clé primaire devient <code>(id, date)</code> et l'unicité de
+                <code>reference_transaction</code> est garantie par la clé <code>(reference_transaction, date)</code>. Ensuite, les
+                mois à venir sont créés chaque jour à l'avance (<code>transactions.partitions.monthsAhead</code>) et la
+                purge des anciennes transactions supprime des partitions entières au lieu de lignes. Les requêtes
+                bornées par date ne lisent que les partitions concernées. <code>GET /api/admin/partitions</code> liste
+                les partitions avec leur borne et leur nombre de lignes estimé.</div>
+
+            <strong>Exemple cURL:</strong>
+            <div class="example">
+curl -X POST "<%= request.getScheme() + "://" + request.getServerName() + ":" + request.getServerPort() + request.getContextPath() %>/api/admin/partitions/convert"
+            </div>
+        </div>
+
+        <!-- Purge -->
+        <div class="endpoint">
+            <h3><span class="method method-post">POST</span> Purge progressive</h3>
+            <div class="url">/api/admin/purge?before=2023-01-01</div>
+            <div class="description">Supprime en arrière-plan les transactions antérieures à <code>before</code>, ou
+                un client et toutes ses transactions (<code>clientId</code>), par lots de <code>chunkSize</code> lignes
+                dans l'ordre de la clé primaire (<code>purge.chunkSize</code>). Chaque lot est une transaction courte,
+                suivie d'une pause de <code>pauseMs</code> (<code>purge.pauseMs</code>) : le trafic normal n'est pas
+                bloqué. Si la table est partitionnée, les mois entiers sont supprimés d'abord avec leurs partitions.
+                Répond <code>202</code> avec l'état, <code>409</code> si une purge est déjà en cours.
+                <code>GET /api/admin/purge</code> donne la progression (lignes supprimées, lignes/s, restant estimé,
+                <code>etaSeconds</code>) ; <code>POST /api/admin/purge/cancel</code> l'arrête après le lot en cours et
+                <code>POST /api/admin/purge/resume</code> la reprend là où elle s'est arrêtée. En ligne de commande :
+                <code>java com.datainsight.dao.PurgeJob --before 2023-01-01 [--chunk 5000] [--pause 200]</code>
+                ; l'application en cours d'exécution vide alors ses caches et recharge ses vues en mémoire dans les
+                <code>data.externalChanges.checkSeconds</code> secondes.</div>
+
+            <div class="response">
+                <strong>Réponse (202 Accepted):</strong>
+                <div class="example">
+{
+    "success": true,
+    "message": "Purge started",
+    "data": {
+        "state": "RUNNING",
+        "before": "2023-01-01",
+        "clientId": null,
+        "chunkSize": 5000,
+        "pauseMs": 200,
+        "deleted": 0,
+        "estimatedTotal": 2400000,
+        "remaining": 2400000,
+        "rowsPerSecond": 0,
+        "etaSeconds": null,
+        ...
+    }
+}
+                </div>
+            </div>
+        </div>
+
         <!-- Testing Section -->
         <div class="test-section" id="testing">
             <h2>🧪 Testing with cURL</h2>
@@ -745,6 +1048,10 @@ curl -X POST "<%= request.getScheme() + "://" + request.getServerName() + ":" +
             <li><strong>Error Handling</strong> - Gérez correctement les erreurs dans votre code client</li>
             <li><strong>CORS</strong> - L'API supporte CORS, vous pouvez l'appeler depuis n'importe quel domaine</li>
             <li><strong>Performance</strong> - Les endpoints de statistiques peuvent être lents avec de grandes quantités de données</li>
+            <li><strong>Requêtes conditionnelles</strong> - Les GET de <code>/api/clients</code>, <code>/api/transactions</code>
+                et <code>/api/stats</code> (hors <code>/ingest</code> et <code>/cache</code>) renvoient <code>ETag</code> et
+                <code>Last-Modified</code>. Renvoyez-les dans <code>If-None-Match</code> / <code>If-Modified-Since</code> : tant
+                qu'aucune donnée n'a été écrite, la réponse est un <code>304 Not Modified</code> sans corps ni requête en base</li>
         </ul>
 
         <!-- Rate Limiting -->
@@ -183,6 +183,12 @@
         .filters select {
             margin-right: 10px;
         }
+        .pagination {
+            display: flex;
+            justify-content: flex-end;
+            gap: 10px;
+            margin-top: 20px;
+        }
     </style>
 </head>
 <body>
@@ -238,6 +244,12 @@
                     <option>Étudiant</option>
                     <option>Entrepreneur</option>
                 </select>
+                <select name="limit">
+                    <option value="${limit}">${limit} par page</option>
+                    <option>50</option>
+                    <option>100</option>
+                    <option>500</option>
+                </select>
                 <button type="submit" class="btn btn-primary">Filtrer</button>
                 <a href="clients" class="btn btn-secondary">Réinitialiser</a>
             </form>
@@ -278,6 +290,27 @@
             </tbody>
         </table>
 
+        <!-- Pagination (keyset: cursor = last client ID of the page) -->
+        <div class="pagination">
+            <c:if test="${not empty param.cursor}">
+                <c:url var="firstUrl" value="clients">
+                    <c:param name="pays" value="${param.pays}"/>
+                    <c:param name="profession" value="${param.profession}"/>
+                    <c:param name="limit" value="${limit}"/>
+                </c:url>
+                <a href="${firstUrl}" class="btn btn-secondary">⇤ Première page</a>
+            </c:if>
+            <c:if test="${not empty nextCursor}">
+                <c:url var="nextUrl" value="clients">
+                    <c:param name="pays" value="${param.pays}"/>
+                    <c:param name="profession" value="${param.profession}"/>
+                    <c:param name="limit" value="${limit}"/>
+                    <c:param name="cursor" value="${nextCursor}"/>
+                </c:url>
+                <a href="${nextUrl}" class="btn btn-primary">Page suivante →</a>
+            </c:if>
+        </div>
+
         <!-- Add Client Form -->
         <div class="form-section">
             <h2>➕ Ajouter un client</h2>
@@ -23,6 +23,8 @@ a{display:inline-block;margin-top:20px;color:#667eea;text-decoration:none;}
 <input type="number" name="numClients" min="10" max="10000" value="1000" required/>
 <label>Transactions par client :</label>
 <input type="number" name="transactionsPerClient" min="1" max="100" value="10" required/>
+<label>Threads (génération parallèle) :</label>
+<input type="number" name="threads" min="1" max="${maxThreads}" value="${defaultThreads}" required/>
 <button type="submit">Lancer la génération</button>
 </form>
 <a href="${pageContext.request.contextPath}/">← Retour à l'accueil</a>
@@ -16,6 +16,7 @@ thead{background:#667eea;color:#fff;}
 th,td{padding:10px;border-bottom:1px solid #ddd;text-align:left;}
 .cardbox{display:flex;gap:15px;flex-wrap:wrap;justify-content:center;}
 .card{flex:1;min-width:180px;background:linear-gradient(135deg,#667eea,#764ba2);color:#fff;padding:20px;border-radius:10px;text-align:center;}
+.warning{background:#fff3cd;color:#856404;border:1px solid #ffeeba;padding:12px;border-radius:6px;margin-bottom:20px;}
 a.btn{display:inline-block;margin-top:20px;background:#667eea;color:#fff;padding:10px 20px;border-radius:6px;text-decoration:none;}
 </style>
 </head>
@@ -23,11 +24,21 @@ a.btn{display:inline-block;margin-top:20px;background:#667eea;color:#fff;padding
 <div class="container">
 <h1>📈 Tableau de Bord Big Data</h1>
 
+<c:if test="${not empty error}">
+ <div class="warning">${error}</div>
+</c:if>
+<c:if test="${not empty unavailableSections}">
+ <div class="warning">⚠️ Certaines sections n'ont pas répondu à temps et sont indisponibles :
+  <c:forEach var="s" items="${unavailableSections}" varStatus="st">${s}<c:if test="${not st.last}">, </c:if></c:forEach>.
+  Rechargez la page pour réessayer.</div>
+</c:if>
+
 <div class="cardbox">
  <div class="card"><h2>${totalClients}</h2><p>Clients</p></div>
  <div class="card"><h2>${totalTransactions}</h2><p>Transactions</p></div>
  <div class="card"><h2><fmt:formatNumber value="${totalRevenue}" type="number"/></h2><p>Total (€)</p></div>
  <div class="card"><h2><fmt:formatNumber value="${avgTransaction}" type="number" maxFractionDigits="2"/></h2><p>Moyenne (€)</p></div>
+ <div class="card"><h2><fmt:formatNumber value="${minTransaction}" type="number" maxFractionDigits="2"/> – <fmt:formatNumber value="${maxTransaction}" type="number" maxFractionDigits="2"/></h2><p>Min – Max (€)</p></div>
 </div>
 
 <div class="section">